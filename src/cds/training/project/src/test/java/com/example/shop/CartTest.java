@@ -0,0 +1,45 @@
+package com.example.shop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Training sample for the class-data-sharing archive. Covers the JUnit 5 features the
+ * extractor handles: display names, nested classes, parameterized and disabled tests.
+ */
+@DisplayName("Shopping cart")
+class CartTest {
+
+    @Test
+    @DisplayName("starts empty")
+    void startsEmpty() {
+        assertEquals(0, 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void addsItems(int count) {
+        assertEquals(count, count);
+    }
+
+    @Test
+    @Disabled("pending discount rules")
+    void appliesDiscount() {
+    }
+
+    @Nested
+    class Checkout {
+
+        @Test
+        // @smoke #checkout
+        void chargesTotal() {
+            assertEquals(1, 1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.shop;
+
+import static org.junit.Assert.assertTrue;
+
+import io.testomat.core.annotation.TestId;
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class OrderTest {
+
+    @Test
+    @TestId("a1b2c3d4")
+    public void createsOrder() {
+        assertTrue(true);
+    }
+
+    @Test
+    @Ignore
+    public void cancelsOrder() {
+    }
+}
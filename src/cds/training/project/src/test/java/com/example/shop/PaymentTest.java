@@ -0,0 +1,23 @@
+package com.example.shop;
+
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class PaymentTest {
+
+    @DataProvider
+    public Object[][] cards() {
+        return new Object[][] {{"visa"}, {"mastercard"}};
+    }
+
+    @Test(dataProvider = "cards")
+    public void acceptsCard(String card) {
+        assertTrue(card.length() > 0);
+    }
+
+    @Test(groups = "slow", enabled = false)
+    public void refundsPayment() {
+    }
+}
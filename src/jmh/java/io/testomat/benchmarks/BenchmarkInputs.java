@@ -0,0 +1,127 @@
+package io.testomat.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Generates test class sources shaped like real-world suites: framework imports, class and
+ * method annotations, display names, disabled tests, label comments, a nested class and
+ * method bodies with several statements.
+ */
+final class BenchmarkInputs {
+
+    static final String PACKAGE = "com.example.generated";
+
+    private BenchmarkInputs() {
+    }
+
+    static String testClassSource(String className, int methods, String framework) {
+        boolean junit = "junit".equals(framework);
+        StringBuilder source = new StringBuilder(methods * 400);
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        if (junit) {
+            source.append("import org.junit.jupiter.api.BeforeEach;\n")
+                    .append("import org.junit.jupiter.api.Disabled;\n")
+                    .append("import org.junit.jupiter.api.DisplayName;\n")
+                    .append("import org.junit.jupiter.api.Nested;\n")
+                    .append("import org.junit.jupiter.api.Test;\n\n")
+                    .append("import static org.junit.jupiter.api.Assertions.assertEquals;\n");
+        } else {
+            source.append("import org.testng.annotations.BeforeMethod;\n")
+                    .append("import org.testng.annotations.Test;\n\n")
+                    .append("import static org.testng.Assert.assertEquals;\n");
+        }
+        source.append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n\n");
+
+        if (junit) {
+            source.append("@DisplayName(\"").append(className).append(" scenarios\")\n");
+        }
+        source.append("public class ").append(className).append(" {\n\n")
+                .append("    private List<String> items;\n\n")
+                .append(junit ? "    @BeforeEach\n" : "    @BeforeMethod\n")
+                .append("    void setUp() {\n")
+                .append("        items = new ArrayList<>();\n")
+                .append("    }\n");
+
+        int outerMethods = junit ? methods - methods / 4 : methods;
+        for (int i = 0; i < outerMethods; i++) {
+            appendTestMethod(source, "    ", i, junit);
+        }
+        if (junit && methods > outerMethods) {
+            source.append("\n    @Nested\n")
+                    .append("    @DisplayName(\"When list is empty\")\n")
+                    .append("    class WhenEmpty {\n");
+            for (int i = outerMethods; i < methods; i++) {
+                appendTestMethod(source, "        ", i, true);
+            }
+            source.append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    static String testDataResponse(Map<String, String> tests) {
+        StringBuilder json = new StringBuilder(tests.size() * 80);
+        json.append("{\"tests\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : tests.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":\"")
+                    .append(entry.getValue()).append('"');
+        }
+        return json.append("}}").toString();
+    }
+
+    static Path writeSource(Path directory, String className, String source) throws IOException {
+        Path packageDir = directory.resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDir);
+        Path file = packageDir.resolve(className + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void appendTestMethod(StringBuilder source, String indent, int index,
+                                         boolean junit) {
+        source.append('\n');
+        if (index % 5 == 0) {
+            source.append(indent).append("// @smoke @priority:high #regression\n");
+        }
+        source.append(indent).append("@Test\n");
+        if (junit) {
+            source.append(indent).append("@DisplayName(\"Should handle case ").append(index)
+                    .append("\")\n");
+            if (index % 11 == 0) {
+                source.append(indent).append("@Disabled(\"flaky\")\n");
+            }
+        }
+        source.append(indent).append("void shouldHandleCase").append(index).append("() {\n")
+                .append(indent).append("    // Given\n")
+                .append(indent).append("    for (int i = 0; i < ").append(index % 7 + 1)
+                .append("; i++) {\n")
+                .append(indent).append("        items.add(\"item-\" + i);\n")
+                .append(indent).append("    }\n\n")
+                .append(indent).append("    // When\n")
+                .append(indent).append("    int size = items.size();\n\n")
+                .append(indent).append("    // Then\n")
+                .append(indent).append("    assertEquals(").append(index % 7 + 1)
+                .append(", size);\n")
+                .append(indent).append("}\n");
+    }
+}
@@ -0,0 +1,64 @@
+package io.testomat.benchmarks;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import io.testomat.service.ParserSettings;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-file parse cost of the parser configurations: the global {@code StaticJavaParser}
+ * default the CLI used before, the settings of {@code import}, which attach comments for
+ * labels, and the settings of {@code pull-ids} and {@code clean-ids}, which do not.
+ * Sources are parsed from memory so that only the parser is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParserConfigurationBenchmark {
+
+    @Param({"10", "100"})
+    private int methodsPerClass;
+
+    private final ParserSettings importSettings = ParserSettings.DEFAULT;
+    private final ParserSettings idSettings = new ParserSettings(LanguageLevel.JAVA_21, false);
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String className = "Generated" + methodsPerClass + "Test";
+        source = BenchmarkInputs.testClassSource(className, methodsPerClass, "junit");
+    }
+
+    @Benchmark
+    public CompilationUnit staticDefault() {
+        return StaticJavaParser.parse(source);
+    }
+
+    @Benchmark
+    public CompilationUnit importSettings() {
+        return importSettings.parse(new StringReader(source));
+    }
+
+    @Benchmark
+    public CompilationUnit withoutComments() {
+        return idSettings.parse(new StringReader(source));
+    }
+}
@@ -0,0 +1,84 @@
+package io.testomat.benchmarks;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import io.testomat.service.JavaFileParser;
+import io.testomat.service.MinimalFileModificationService;
+import io.testomat.service.MinimalFileModificationService.FileModification;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing {@code @TestId} annotations and the import back into a source file, as
+ * {@code pull-ids} does. The file is restored and re-parsed before every invocation,
+ * outside the measured region.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RewriteBenchmark {
+
+    @Param({"10", "100"})
+    private int methodsPerClass;
+
+    private final JavaFileParser parser = new JavaFileParser();
+    private final MinimalFileModificationService modificationService =
+            new MinimalFileModificationService();
+
+    private Path directory;
+    private Path file;
+    private byte[] originalSource;
+    private FileModification modification;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        directory = Files.createTempDirectory("jmh-rewrite");
+        String className = "Generated" + methodsPerClass + "Test";
+        String source = BenchmarkInputs.testClassSource(className, methodsPerClass, "junit");
+        file = BenchmarkInputs.writeSource(directory, className, source);
+        originalSource = source.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        Files.write(file, originalSource);
+        CompilationUnit cu = parser.parseFile(file.toString());
+        modification = new FileModification(cu);
+        int index = 0;
+        for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+            if (method.getAnnotationByName("Test").isPresent()) {
+                modification.addMethodAnnotation(method, String.format("@T%08x", index++));
+            }
+        }
+        modification.setNeedsImport(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkInputs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void applyModifications() {
+        modificationService.applyModifications(modification);
+    }
+}
@@ -0,0 +1,83 @@
+package io.testomat.benchmarks;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import io.testomat.model.TestCase;
+import io.testomat.service.JsonBuilder;
+import io.testomat.service.ResponseParser;
+import io.testomat.service.TestMethodExtractor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON on the wire: building an {@code /api/load} batch and reading {@code /api/test_data}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final int METHODS_PER_CLASS = 20;
+
+    @Param({"100", "5000"})
+    private int testCount;
+
+    private final JsonBuilder jsonBuilder = new JsonBuilder();
+    private final ResponseParser responseParser = new ResponseParser();
+
+    private List<TestCase> testCases;
+    private String testDataResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TestMethodExtractor extractor = new TestMethodExtractor();
+        testCases = new ArrayList<>(testCount);
+        Map<String, String> testIds = new LinkedHashMap<>();
+
+        for (int classIndex = 0; testCases.size() < testCount; classIndex++) {
+            String className = "Generated" + classIndex + "Test";
+            String filePath = "src/test/java/" + BenchmarkInputs.PACKAGE.replace('.', '/')
+                    + "/" + className + ".java";
+            CompilationUnit cu = StaticJavaParser.parse(
+                    BenchmarkInputs.testClassSource(className, METHODS_PER_CLASS, "junit"));
+            for (TestCase testCase : extractor.extractTestCases(cu, filePath, "junit")) {
+                if (testCases.size() == testCount) {
+                    break;
+                }
+                testCases.add(testCase);
+                String suite = testCase.getSuites().get(testCase.getSuites().size() - 1);
+                testIds.put(testCase.getFile() + "#" + suite + "#" + testCase.getName(),
+                        String.format("@T%08x", testIds.size()));
+            }
+        }
+        testDataResponse = BenchmarkInputs.testDataResponse(testIds);
+    }
+
+    @Benchmark
+    public String buildRequestBody() {
+        return jsonBuilder.buildRequestBody(testCases, "junit", false);
+    }
+
+    @Benchmark
+    public Map<String, String> parseTestsFromResponse() {
+        return responseParser.parseTestsFromResponse(testDataResponse);
+    }
+}
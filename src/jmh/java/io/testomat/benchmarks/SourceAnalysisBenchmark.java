@@ -0,0 +1,82 @@
+package io.testomat.benchmarks;
+
+import com.github.javaparser.ast.CompilationUnit;
+import io.testomat.model.TestCase;
+import io.testomat.service.JavaFileParser;
+import io.testomat.service.TestFrameworkDetector;
+import io.testomat.service.TestMethodExtractor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-file analysis done by {@code import} and {@code pull-ids}: parsing, framework detection
+ * and test case extraction.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SourceAnalysisBenchmark {
+
+    @Param({"10", "100"})
+    private int methodsPerClass;
+
+    @Param({"junit", "testng"})
+    private String framework;
+
+    private final JavaFileParser parser = new JavaFileParser();
+    private final TestFrameworkDetector detector = new TestFrameworkDetector();
+    private final TestMethodExtractor extractor = new TestMethodExtractor();
+
+    private Path directory;
+    private String filePath;
+    private CompilationUnit compilationUnit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jmh-analysis");
+        String className = "Generated" + methodsPerClass + "Test";
+        Path file = BenchmarkInputs.writeSource(directory, className,
+                BenchmarkInputs.testClassSource(className, methodsPerClass, framework));
+        filePath = file.toString();
+        compilationUnit = parser.parseFile(filePath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkInputs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public CompilationUnit parseFile() {
+        return parser.parseFile(filePath);
+    }
+
+    @Benchmark
+    public String detectFramework() {
+        return detector.detectFramework(compilationUnit);
+    }
+
+    @Benchmark
+    public List<TestCase> extractTestCases() {
+        return extractor.extractTestCases(compilationUnit, filePath, framework);
+    }
+}
@@ -0,0 +1,103 @@
+package io.testomat.client;
+
+/**
+ * Limits the number of in-flight requests and adjusts the limit AIMD-style.
+ *
+ * <p>Every healthy response grows the limit by {@code 1/limit}, i.e. roughly by one per
+ * round trip of a full window. A 429/5xx/timeout halves it, and a response that is much
+ * slower than the best latency seen so far shrinks it slightly, so the uploader backs off
+ * as soon as the server starts queueing instead of waiting for it to throttle.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BASELINE_DRIFT = 1.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("maxLimit must be at least 1");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.lastDecreaseNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+    }
+
+    /**
+     * Blocks until a request slot is free under the current limit.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Frees a slot and feeds the observed outcome into the limit.
+     *
+     * @param latencyNanos time the request took
+     * @param overloaded   whether the server signalled overload (429, 5xx or timeout)
+     */
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        inFlight = Math.max(0, inFlight - 1);
+        long now = System.nanoTime();
+
+        if (overloaded) {
+            decrease(now, OVERLOAD_BACKOFF_RATIO);
+        } else {
+            baselineLatencyNanos = baselineLatencyNanos == Long.MAX_VALUE
+                    ? latencyNanos
+                    : Math.min(latencyNanos, (long) (baselineLatencyNanos * BASELINE_DRIFT));
+            if (latencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+                decrease(now, LATENCY_BACKOFF_RATIO);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Frees a slot without feeding a sample, e.g. when the request was never sent.
+     */
+    public synchronized void cancel() {
+        inFlight = Math.max(0, inFlight - 1);
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Shrinks the limit at most once per baseline round trip, so a burst of failures from
+     * requests that were already in flight counts as a single congestion event.
+     */
+    private void decrease(long now, double ratio) {
+        long window = baselineLatencyNanos == Long.MAX_VALUE ? 0 : baselineLatencyNanos;
+        if (now - lastDecreaseNanos < window) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * ratio);
+        lastDecreaseNanos = now;
+    }
+}
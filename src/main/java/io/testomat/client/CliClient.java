@@ -1,15 +1,21 @@
 package io.testomat.client;
 
 import io.testomat.exception.CliException;
+import io.testomat.jfr.HttpRequestEvent;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
 
 public class CliClient implements TestomatHttpClient {
 
@@ -22,107 +28,258 @@ public class CliClient implements TestomatHttpClient {
     private static final Duration GET_REQUEST_TIMEOUT = Duration.ofSeconds(30);
     private static final Duration POST_REQUEST_TIMEOUT = Duration.ofSeconds(60);
 
-    private static final int MAX_RETRIES = 3;
-    private static final int RETRY_DELAY_MS = 1000;
     private static final int SUCCESS_STATUS_MIN = 200;
     private static final int SUCCESS_STATUS_MAX = 299;
-    private static final int CLIENT_ERROR_MIN = 400;
-    private static final int CLIENT_ERROR_MAX = 499;
+    private static final int NOT_MODIFIED_STATUS = 304;
 
     private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
             .connectTimeout(CONNECT_TIMEOUT)
             .followRedirects(HttpClient.Redirect.NORMAL)
             .build();
 
+    private final TestDataCache cache;
+    private final RetryPolicy retryPolicy;
+    private final RequestThrottle throttle;
+    private volatile boolean lastResponseNotModified;
+
+    public CliClient() {
+        this(TestDataCache.createDefault());
+    }
+
+    /**
+     * Creates a client that sends conditional test data requests backed by the given cache.
+     *
+     * @param cache response cache, or {@code null} to always download the full payload
+     */
+    public CliClient(TestDataCache cache) {
+        this(cache, RetryPolicy.shared());
+    }
+
+    public CliClient(TestDataCache cache, RetryPolicy retryPolicy) {
+        this(cache, retryPolicy, RequestThrottle.unlimited(1));
+    }
+
+    public CliClient(TestDataCache cache, RetryPolicy retryPolicy, RequestThrottle throttle) {
+        this.cache = cache;
+        this.retryPolicy = retryPolicy;
+        this.throttle = throttle;
+    }
+
     @Override
     public String sendGetRequest(String apiKey, String serverUrl) {
         validateApiKey(apiKey);
+        lastResponseNotModified = false;
 
+        String cacheKey = TestDataCache.keyFor(serverUrl, apiKey);
+        Optional<TestDataCache.Entry> cached = cache != null
+                ? cache.load(cacheKey)
+                : Optional.empty();
+
+        HttpRequest.Builder requestBuilder;
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            requestBuilder = HttpRequest.newBuilder()
                     .uri(URI.create(serverUrl + TEST_DATA_URL + apiKey))
                     .timeout(GET_REQUEST_TIMEOUT)
                     .header("Accept", ACCEPT_JSON)
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = HTTP_CLIENT.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-
-            validateGetResponse(response);
-            return response.body();
-
-        } catch (HttpTimeoutException e) {
-            throw new CliException("Request timeout after "
-                    + GET_REQUEST_TIMEOUT.getSeconds()
-                    + " seconds: "
-                    + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new CliException("Network error occurred while sending request: "
-                    + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new CliException("Request was interrupted: " + e.getMessage(), e);
-        } catch (Exception e) {
+                    .GET();
+        } catch (IllegalArgumentException e) {
             throw new CliException("Unexpected error occurred: " + e.getMessage(), e);
         }
+        cached.ifPresent(entry -> addConditionalHeaders(requestBuilder, entry));
+
+        HttpResponse<String> response = sendWithRetries(requestBuilder.build(), 0,
+                Phase.FETCH, "fetch test data", this::formatGetHttpError);
+
+        if (response.statusCode() == NOT_MODIFIED_STATUS && cached.isPresent()) {
+            lastResponseNotModified = true;
+            return cached.get().getBody();
+        }
+
+        validateGetResponse(response);
+        if (cache != null) {
+            cache.store(cacheKey,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    response.body());
+        }
+        return response.body();
     }
 
     @Override
     public void sendPostRequest(String url, String jsonBody) {
-        int attempt = 1;
-        Exception lastException = null;
+        byte[] body = jsonBody.getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", CONTENT_TYPE_JSON)
+                .header("User-Agent", USER_AGENT)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .timeout(POST_REQUEST_TIMEOUT)
+                .build();
 
-        while (attempt <= MAX_RETRIES) {
-            try {
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("Content-Type", CONTENT_TYPE_JSON)
-                        .header("User-Agent", USER_AGENT)
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .timeout(POST_REQUEST_TIMEOUT)
-                        .build();
-
-                HttpResponse<String> response = HTTP_CLIENT.send(request,
-                        HttpResponse.BodyHandlers.ofString());
-
-                if (isSuccessfulResponse(response)) {
-                    return;
-                }
+        HttpResponse<String> response = sendWithRetries(request, body.length, Phase.UPLOAD,
+                "send data", this::formatPostHttpError);
 
-                String errorMessage = formatPostHttpError(response);
+        if (!isSuccessfulResponse(response)) {
+            throw new CliException(formatPostHttpError(response));
+        }
+    }
 
-                if (isClientError(response)) {
-                    throw new CliException(errorMessage);
+    /**
+     * Sends the request, retrying network failures and retryable statuses according to
+     * the retry policy. Responses with any other status are returned to the caller.
+     * Every attempt goes through the request throttle and is recorded in the given phase.
+     */
+    private HttpResponse<String> sendWithRetries(HttpRequest request, long bodyBytes,
+                                                 Phase phase, String operation,
+                                                 Function<HttpResponse<String>, String>
+                                                         errorFormatter) {
+        int attempt = 1;
+        while (true) {
+            HttpResponse<String> response = null;
+            CliException failure;
+            try {
+                retryPolicy.awaitPause();
+                response = sendThrottled(request, bodyBytes, phase);
+                if (!retryPolicy.isRetryableStatus(response.statusCode())) {
+                    return response;
                 }
-
-                lastException = new CliException(errorMessage);
-
+                failure = new CliException(errorFormatter.apply(response));
             } catch (ConnectException e) {
-                lastException = new CliException("Cannot connect to testomat.io server. "
+                failure = new CliException("Cannot connect to testomat.io server. "
                         + "Please check your internet connection.", e);
-            } catch (SocketTimeoutException e) {
-                lastException = new CliException("Request timed out. The server might be busy.", e);
-            } catch (IOException | InterruptedException e) {
-                lastException = new CliException("Network error occurred", e);
+            } catch (HttpTimeoutException e) {
+                failure = new CliException("Request timed out. The server might be busy.", e);
+            } catch (IOException e) {
+                failure = new CliException("Network error occurred: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CliException("Request was interrupted", e);
             }
 
-            if (attempt < MAX_RETRIES) {
-                System.err.println("Attempt " + attempt + " failed, retrying in "
-                        + (RETRY_DELAY_MS * attempt) + "ms...");
-                try {
-                    Thread.sleep((long) RETRY_DELAY_MS * attempt);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new CliException("Export interrupted", ie);
-                }
+            if (attempt >= retryPolicy.getMaxAttempts() || !acquireRetryPermit()) {
+                throw new CliException("Failed to " + operation + " after " + attempt
+                        + " attempts", failure);
+            }
+
+            Optional<String> retryAfter = response != null
+                    ? response.headers().firstValue("Retry-After")
+                    : Optional.empty();
+            Duration delay = retryPolicy.backoffDelay(attempt, retryAfter);
+            if (retryAfter.isPresent()) {
+                retryPolicy.pauseAll(delay);
             }
 
+            RunStats.get().phase(phase).increment(PhaseStats.RETRIES);
+            System.err.println("Attempt " + attempt + " failed (" + failure.getMessage()
+                    + "), retrying in " + delay.toMillis() + "ms...");
+            sleep(delay);
             attempt++;
         }
+    }
 
-        throw new CliException("Failed to send data after " + MAX_RETRIES + " attempts",
-                lastException);
+    private HttpResponse<String> sendThrottled(HttpRequest request, long bodyBytes, Phase phase)
+            throws IOException, InterruptedException {
+        long startNanos = throttle.acquire(bodyBytes);
+        boolean overloaded = true;
+        PhaseStats stats = RunStats.get().phase(phase);
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        HttpResponse<String> response = null;
+        try {
+            response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+            overloaded = isOverloadStatus(response.statusCode());
+            stats.add(PhaseStats.BYTES, phase == Phase.UPLOAD
+                    ? bodyBytes
+                    : utf8Length(response.body()));
+            return response;
+        } finally {
+            stats.increment(PhaseStats.REQUESTS);
+            stats.recordLatency(System.nanoTime() - startNanos);
+            throttle.release(startNanos, overloaded);
+            commitRequestEvent(event, request, response, bodyBytes);
+        }
+    }
+
+    private void commitRequestEvent(HttpRequestEvent event, HttpRequest request,
+                                    HttpResponse<String> response, long bodyBytes) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        URI uri = request.uri();
+        event.setPath(uri.getScheme() + "://" + uri.getAuthority() + uri.getPath());
+        event.setMethod(request.method());
+        if (response != null) {
+            event.setStatus(response.statusCode());
+            event.setBytes("GET".equals(request.method())
+                    ? utf8Length(response.body())
+                    : bodyBytes);
+        }
+        event.commit();
+    }
+
+    /**
+     * Size of the text as UTF-8, the charset testomat.io answers in, counted without
+     * encoding it: one char per byte only holds for ASCII.
+     */
+    static long utf8Length(String text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private boolean isOverloadStatus(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private boolean acquireRetryPermit() {
+        try {
+            return retryPolicy.acquireRetryPermit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Request was interrupted", e);
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Request was interrupted", e);
+        }
+    }
+
+    /**
+     * Tells whether the last {@link #sendGetRequest} was answered with
+     * {@code 304 Not Modified} and served from the local cache.
+     */
+    @Override
+    public boolean isLastResponseNotModified() {
+        return lastResponseNotModified;
+    }
+
+    private void addConditionalHeaders(HttpRequest.Builder requestBuilder,
+                                       TestDataCache.Entry entry) {
+        if (entry.getEtag() != null) {
+            requestBuilder.header("If-None-Match", entry.getEtag());
+        }
+        if (entry.getLastModified() != null) {
+            requestBuilder.header("If-Modified-Since", entry.getLastModified());
+        }
     }
 
     private void validateApiKey(String apiKey) {
@@ -139,8 +296,11 @@ public class CliClient implements TestomatHttpClient {
             return;
         }
 
-        String errorMessage = buildGetErrorMessage(statusCode);
-        throw new CliException(errorMessage + ". Response: " + response.body());
+        throw new CliException(formatGetHttpError(response));
+    }
+
+    private String formatGetHttpError(HttpResponse<String> response) {
+        return buildGetErrorMessage(response.statusCode()) + ". Response: " + response.body();
     }
 
     private String buildGetErrorMessage(int statusCode) {
@@ -169,11 +329,6 @@ public class CliClient implements TestomatHttpClient {
         return statusCode >= SUCCESS_STATUS_MIN && statusCode <= SUCCESS_STATUS_MAX;
     }
 
-    private boolean isClientError(HttpResponse<String> response) {
-        int statusCode = response.statusCode();
-        return statusCode >= CLIENT_ERROR_MIN && statusCode <= CLIENT_ERROR_MAX;
-    }
-
     private String formatPostHttpError(HttpResponse<String> response) {
         String body = response.body();
         int statusCode = response.statusCode();
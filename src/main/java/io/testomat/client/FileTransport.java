@@ -0,0 +1,94 @@
+package io.testomat.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.testomat.exception.CliException;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stub.TestIdRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Offline transport for {@code file://} server URLs.
+ *
+ * <p>Every upload is appended as one compact JSON line to {@code load.ndjson} in the target
+ * directory. Test data is read from {@code test_data.json} when present, otherwise it is
+ * derived from the recorded uploads with the same ID assignment as the stub server.
+ */
+public class FileTransport implements TestomatHttpClient {
+
+    static final String LOAD_FILE = "load.ndjson";
+    static final String TEST_DATA_FILE = "test_data.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+
+    public FileTransport(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String sendGetRequest(String apiKey, String serverUrl) {
+        long startNanos = System.nanoTime();
+        String testData = readTestData();
+        PhaseStats stats = RunStats.get().phase(Phase.FETCH);
+        stats.increment(PhaseStats.REQUESTS);
+        stats.add(PhaseStats.BYTES, testData.length());
+        stats.recordLatency(System.nanoTime() - startNanos);
+        return testData;
+    }
+
+    @Override
+    public synchronized void sendPostRequest(String url, String jsonBody) {
+        final long startNanos = System.nanoTime();
+        try {
+            JsonNode body = objectMapper.readTree(jsonBody);
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(LOAD_FILE),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                writer.write(objectMapper.writeValueAsString(body));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new CliException("Failed to write batch to " + directory, e);
+        }
+        PhaseStats stats = RunStats.get().phase(Phase.UPLOAD);
+        stats.increment(PhaseStats.REQUESTS);
+        stats.add(PhaseStats.BYTES, jsonBody.length());
+        stats.recordLatency(System.nanoTime() - startNanos);
+    }
+
+    private String readTestData() {
+        Path testDataFile = directory.resolve(TEST_DATA_FILE);
+        try {
+            if (Files.isRegularFile(testDataFile)) {
+                return new String(Files.readAllBytes(testDataFile), StandardCharsets.UTF_8);
+            }
+
+            TestIdRegistry registry = new TestIdRegistry();
+            Path loadFile = directory.resolve(LOAD_FILE);
+            if (Files.isRegularFile(loadFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(loadFile,
+                        StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty()) {
+                            registry.registerLoad(objectMapper.readTree(line));
+                        }
+                    }
+                }
+            }
+            return registry.toTestDataJson();
+        } catch (IOException e) {
+            throw new CliException("Failed to read test data from " + directory, e);
+        }
+    }
+}
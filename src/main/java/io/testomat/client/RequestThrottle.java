@@ -0,0 +1,77 @@
+package io.testomat.client;
+
+/**
+ * Client-side throttle for requests to testomat.io: caps requests per second and bytes per
+ * second with token buckets, and bounds the number of concurrent requests with an
+ * {@link AdaptiveConcurrencyLimiter}.
+ */
+public class RequestThrottle {
+
+    private static final int INITIAL_CONCURRENCY = 1;
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket byteBucket;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Creates a throttle.
+     *
+     * @param requestsPerSecond request rate limit, 0 or less for no limit
+     * @param bytesPerSecond    request body bandwidth limit, 0 or less for no limit
+     * @param maxConcurrency    upper bound for the adaptive concurrency limit
+     */
+    public RequestThrottle(double requestsPerSecond, long bytesPerSecond, int maxConcurrency) {
+        this.requestBucket = requestsPerSecond > 0
+                ? new TokenBucket(Math.max(1, requestsPerSecond), requestsPerSecond)
+                : null;
+        this.byteBucket = bytesPerSecond > 0
+                ? new TokenBucket(bytesPerSecond, bytesPerSecond)
+                : null;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(INITIAL_CONCURRENCY,
+                Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Creates a throttle without rate limits that still adapts concurrency up to the given
+     * bound.
+     */
+    public static RequestThrottle unlimited(int maxConcurrency) {
+        return new RequestThrottle(0, 0, maxConcurrency);
+    }
+
+    /**
+     * Waits for a concurrency slot and for rate budget for one request of the given size.
+     *
+     * @return start timestamp to pass to {@link #release}
+     */
+    public long acquire(long bodyBytes) throws InterruptedException {
+        concurrencyLimiter.acquire();
+        try {
+            if (requestBucket != null) {
+                requestBucket.acquire(1);
+            }
+            if (byteBucket != null && bodyBytes > 0) {
+                byteBucket.acquire(bodyBytes);
+            }
+        } catch (InterruptedException e) {
+            concurrencyLimiter.cancel();
+            throw e;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Releases the slot taken by {@link #acquire} and reports the request outcome.
+     */
+    public void release(long startNanos, boolean overloaded) {
+        concurrencyLimiter.release(System.nanoTime() - startNanos, overloaded);
+    }
+
+    public int getMaxConcurrency() {
+        return concurrencyLimiter.getMaxLimit();
+    }
+
+    public int getCurrentConcurrencyLimit() {
+        return concurrencyLimiter.getLimit();
+    }
+}
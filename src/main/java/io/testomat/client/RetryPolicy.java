@@ -0,0 +1,132 @@
+package io.testomat.client;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether and when a failed request is retried.
+ *
+ * <p>Delays grow exponentially with equal jitter, a {@code Retry-After} header from the
+ * server takes precedence over the computed delay. All clients that share a policy also
+ * share its retry token bucket and its pause deadline: once the server asks to back off,
+ * every in-flight upload waits, and a burst of failures cannot turn into a retry storm.
+ */
+public class RetryPolicy {
+
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(408, 429, 500, 502, 503, 504);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(2);
+
+    private static final RetryPolicy SHARED = new RetryPolicy(5, Duration.ofSeconds(1),
+            Duration.ofSeconds(30), new TokenBucket(10, 0.5));
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final TokenBucket retryBudget;
+    private final AtomicLong pausedUntilMillis = new AtomicLong();
+
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay,
+                       TokenBucket retryBudget) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Returns the process-wide policy shared by all {@link CliClient} instances.
+     */
+    public static RetryPolicy shared() {
+        return SHARED;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryableStatus(int statusCode) {
+        return RETRYABLE_STATUSES.contains(statusCode);
+    }
+
+    /**
+     * Computes the delay before the next attempt.
+     *
+     * @param attempt    number of the attempt that just failed, starting at 1
+     * @param retryAfter value of the {@code Retry-After} header, if any
+     */
+    public Duration backoffDelay(int attempt, Optional<String> retryAfter) {
+        Optional<Duration> serverDelay = retryAfter.flatMap(RetryPolicy::parseRetryAfter);
+        if (serverDelay.isPresent()) {
+            Duration delay = serverDelay.get();
+            return delay.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : delay;
+        }
+
+        long exponential = baseDelay.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, maxDelay.toMillis());
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(capped - half + 1));
+    }
+
+    /**
+     * Takes a token from the shared retry budget, waiting at most {@code maxDelay}.
+     *
+     * @return false when the budget is exhausted and the request should fail instead
+     */
+    public boolean acquireRetryPermit() throws InterruptedException {
+        return retryBudget.tryAcquire(1, maxDelay);
+    }
+
+    /**
+     * Makes every request that goes through this policy wait for the given delay.
+     */
+    public void pauseAll(Duration delay) {
+        long until = System.currentTimeMillis() + delay.toMillis();
+        pausedUntilMillis.accumulateAndGet(until, Math::max);
+    }
+
+    /**
+     * Blocks while a server-requested pause is in effect.
+     */
+    public void awaitPause() throws InterruptedException {
+        long remaining = pausedUntilMillis.get() - System.currentTimeMillis();
+        if (remaining > 0) {
+            TimeUnit.MILLISECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * Parses a {@code Retry-After} value given either as delta-seconds or as an HTTP date.
+     */
+    static Optional<Duration> parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return Optional.of(Duration.ofSeconds(Math.max(seconds, 0)));
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try HTTP date
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed,
+                    DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
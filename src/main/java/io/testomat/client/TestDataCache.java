@@ -0,0 +1,194 @@
+package io.testomat.client;
+
+import io.testomat.util.Hashing;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of the last {@code /api/test_data} response per server and API key.
+ * Stores the response body together with its {@code ETag}/{@code Last-Modified} validators
+ * so the next request can be sent conditionally, and remembers the fingerprint of local
+ * sources that were synced against the cached body. Failures to write the cache are logged
+ * and otherwise ignored.
+ */
+public class TestDataCache {
+    private static final Logger log = LoggerFactory.getLogger(TestDataCache.class);
+
+    private static final String CACHE_DIR_ENV = "TESTOMATIO_CACHE_DIR";
+    private static final String BODY_SUFFIX = ".json";
+    private static final String META_SUFFIX = ".properties";
+    private static final String ETAG_PROPERTY = "etag";
+    private static final String LAST_MODIFIED_PROPERTY = "last-modified";
+    private static final String SYNC_PROPERTY_PREFIX = "sync.";
+
+    private final Path cacheDirectory;
+
+    public TestDataCache(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Creates a cache in {@code $TESTOMATIO_CACHE_DIR} or {@code ~/.testomatio/cache}.
+     */
+    public static TestDataCache createDefault() {
+        return new TestDataCache(defaultCacheDirectory());
+    }
+
+    public static Path defaultCacheDirectory() {
+        String envDirectory = System.getenv(CACHE_DIR_ENV);
+        if (envDirectory != null && !envDirectory.trim().isEmpty()) {
+            return Paths.get(envDirectory);
+        }
+        return Paths.get(System.getProperty("user.home"), ".testomatio", "cache");
+    }
+
+    /**
+     * Builds a cache key that does not expose the API key on disk.
+     */
+    public static String keyFor(String serverUrl, String apiKey) {
+        return sha256(serverUrl + "\n" + apiKey);
+    }
+
+    public Optional<Entry> load(String key) {
+        Path bodyFile = cacheDirectory.resolve(key + BODY_SUFFIX);
+        if (!Files.isRegularFile(bodyFile)) {
+            return Optional.empty();
+        }
+
+        try {
+            Properties meta = readMeta(key);
+            String body = new String(Files.readAllBytes(bodyFile), StandardCharsets.UTF_8);
+            return Optional.of(new Entry(meta.getProperty(ETAG_PROPERTY),
+                    meta.getProperty(LAST_MODIFIED_PROPERTY), body));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a fresh response. Sync fingerprints recorded against the previous body are
+     * dropped, because they no longer describe the server state.
+     */
+    public void store(String key, String etag, String lastModified, String body) {
+        if (etag == null && lastModified == null) {
+            return;
+        }
+
+        Properties meta = new Properties();
+        if (etag != null) {
+            meta.setProperty(ETAG_PROPERTY, etag);
+        }
+        if (lastModified != null) {
+            meta.setProperty(LAST_MODIFIED_PROPERTY, lastModified);
+        }
+
+        try {
+            Files.createDirectories(cacheDirectory);
+            writeAtomically(cacheDirectory.resolve(key + BODY_SUFFIX),
+                    body.getBytes(StandardCharsets.UTF_8));
+            writeMeta(key, meta);
+        } catch (IOException e) {
+            warnNotWritten(e);
+        }
+    }
+
+    /**
+     * Checks whether the given local sources were already synced against the cached body.
+     */
+    public boolean isSyncUpToDate(String key, String directory, String sourceFingerprint) {
+        try {
+            String stored = readMeta(key).getProperty(SYNC_PROPERTY_PREFIX + sha256(directory));
+            return sourceFingerprint.equals(stored);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void storeSyncFingerprint(String key, String directory, String sourceFingerprint) {
+        if (!Files.isRegularFile(cacheDirectory.resolve(key + META_SUFFIX))) {
+            return;
+        }
+
+        try {
+            Properties meta = readMeta(key);
+            meta.setProperty(SYNC_PROPERTY_PREFIX + sha256(directory), sourceFingerprint);
+            writeMeta(key, meta);
+        } catch (IOException e) {
+            warnNotWritten(e);
+        }
+    }
+
+    // the cache only saves requests, so a run must not fail because it cannot be written
+    private void warnNotWritten(IOException e) {
+        log.warn("Could not write test data cache in {}: {}", cacheDirectory, e.toString());
+    }
+
+    private Properties readMeta(String key) throws IOException {
+        Properties meta = new Properties();
+        Path metaFile = cacheDirectory.resolve(key + META_SUFFIX);
+        if (Files.isRegularFile(metaFile)) {
+            try (InputStream in = Files.newInputStream(metaFile)) {
+                meta.load(in);
+            }
+        }
+        return meta;
+    }
+
+    private void writeMeta(String key, Properties meta) throws IOException {
+        Path tempFile = Files.createTempFile(cacheDirectory, key, ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            meta.store(out, null);
+        }
+        Files.move(tempFile, cacheDirectory.resolve(key + META_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tempFile = Files.createTempFile(cacheDirectory, target.getFileName().toString(),
+                ".tmp");
+        Files.write(tempFile, content);
+        Files.move(tempFile, target,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String sha256(String value) {
+        return Hashing.sha256Hex(value);
+    }
+
+    /**
+     * Cached response body with its validators.
+     */
+    public static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final String body;
+
+        public Entry(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -4,4 +4,12 @@ public interface TestomatHttpClient {
     String sendGetRequest(String apiKey, String serverUrl);
 
     void sendPostRequest(String url, String jsonBody);
+
+    /**
+     * Tells whether the last {@link #sendGetRequest} was answered from a local cache because
+     * the server reported no changes.
+     */
+    default boolean isLastResponseNotModified() {
+        return false;
+    }
 }
@@ -0,0 +1,101 @@
+package io.testomat.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe token bucket. Tokens refill continuously at a fixed rate up to the capacity.
+ * Requests larger than the capacity are granted once the bucket is full and leave it in
+ * debt, so oversized requests still respect the long-term rate.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double capacity;
+    private final double refillPerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes the given amount of tokens if they are available right now.
+     */
+    public synchronized boolean tryAcquire(double permits) {
+        refill();
+        if (tokens >= Math.min(permits, capacity)) {
+            tokens -= permits;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits up to {@code timeout} for the given amount of tokens.
+     *
+     * @return true if the tokens were taken, false if the timeout elapsed first
+     */
+    public boolean tryAcquire(double permits, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                double required = Math.min(permits, capacity);
+                if (tokens >= required) {
+                    tokens -= permits;
+                    return true;
+                }
+                waitNanos = nanosUntil(required);
+            }
+            if (System.nanoTime() + waitNanos > deadline) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1));
+        }
+    }
+
+    /**
+     * Waits until the given amount of tokens is available and takes it.
+     */
+    public void acquire(double permits) throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                double required = Math.min(permits, capacity);
+                if (tokens >= required) {
+                    tokens -= permits;
+                    return;
+                }
+                waitNanos = nanosUntil(required);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1));
+        }
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private long nanosUntil(double required) {
+        return (long) Math.ceil((required - tokens) / refillPerSecond * NANOS_PER_SECOND);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double refilled = (now - lastRefillNanos) * refillPerSecond / NANOS_PER_SECOND;
+        tokens = Math.min(capacity, tokens + refilled);
+        lastRefillNanos = now;
+    }
+}
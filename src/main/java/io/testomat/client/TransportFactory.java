@@ -0,0 +1,53 @@
+package io.testomat.client;
+
+import io.testomat.exception.CliException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Selects the {@link TestomatHttpClient} implementation from the server URL scheme:
+ * {@code file://} writes batches to disk, {@code http(s)://} talks to testomat.io or to a
+ * local {@code stub-server}.
+ */
+public class TransportFactory {
+
+    private TransportFactory() {
+    }
+
+    public static TestomatHttpClient create(String serverUrl, TestDataCache cache,
+                                            RequestThrottle throttle) {
+        URI uri;
+        try {
+            uri = URI.create(serverUrl.trim());
+        } catch (IllegalArgumentException e) {
+            throw new CliException("Invalid server URL: " + serverUrl, e);
+        }
+
+        String scheme = uri.getScheme() == null
+                ? ""
+                : uri.getScheme().toLowerCase(Locale.ROOT);
+        switch (scheme) {
+            case "file":
+                return new FileTransport(filePath(uri, serverUrl));
+            case "http":
+            case "https":
+                return new CliClient(cache, RetryPolicy.shared(), throttle);
+            default:
+                throw new CliException("Unsupported server URL scheme: " + serverUrl
+                        + ". Use http://, https:// or file://");
+        }
+    }
+
+    private static Path filePath(URI uri, String serverUrl) {
+        try {
+            return Paths.get(uri);
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            // e.g. file://host/dir or file://relative, which name a host, not a directory
+            throw new CliException("Invalid --url " + serverUrl + ": " + e.getMessage()
+                    + ". Use an absolute path such as file:///tmp/testomatio", e);
+        }
+    }
+}
@@ -5,7 +5,11 @@ import io.testomat.exception.CliException;
 import io.testomat.model.CleanupResult;
 import io.testomat.model.FilesProcessingResult;
 import io.testomat.service.AnnotationCleaner;
+import io.testomat.service.IoThreads;
 import io.testomat.service.JavaFileParser;
+import io.testomat.service.ParseLimits;
+import io.testomat.service.SourcePrefilter;
+import io.testomat.service.SourceText;
 import io.testomat.service.TestFileScanner;
 import java.io.File;
 import java.nio.file.Paths;
@@ -13,6 +17,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
 @Command(
@@ -22,9 +27,10 @@ import picocli.CommandLine.Option;
 public class CleanIdsCommand implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(CleanIdsCommand.class);
 
-    private final JavaFileParser parser;
+    private JavaFileParser parser;
     private final TestFileScanner scanner;
     private final AnnotationCleaner cleaner;
+    private final SourcePrefilter prefilter = new SourcePrefilter();
 
     @Option(
             names = {"-d", "--directory"},
@@ -42,8 +48,16 @@ public class CleanIdsCommand implements Runnable {
             description = "Show what would be removed without making changes")
     private boolean dryRun = false;
 
+    @Mixin
+    private ScanOptions scanOptions = new ScanOptions();
+
+    @Mixin
+    private StatsOptions statsOptions = new StatsOptions();
+
+    @Mixin
+    private ParserOptions parserOptions = new ParserOptions();
+
     public CleanIdsCommand() {
-        this.parser = new JavaFileParser();
         this.scanner = new TestFileScanner();
         this.cleaner = new AnnotationCleaner();
     }
@@ -58,11 +72,13 @@ public class CleanIdsCommand implements Runnable {
 
     @Override
     public void run() {
+        statsOptions.begin("clean-ids");
         try {
             log.info("Starting @TestId cleanup from directory: {}",
                     Paths.get(directory).toAbsolutePath());
 
-            List<File> javaFiles = scanner.findTestFiles(new File(directory));
+            List<File> javaFiles = scanOptions.apply(scanner)
+                    .findTestFiles(new File(directory));
             log.info("Found {} Java files", javaFiles.size());
 
             if (javaFiles.isEmpty()) {
@@ -70,57 +86,82 @@ public class CleanIdsCommand implements Runnable {
                 return;
             }
 
-            FilesProcessingResult result = processFiles(javaFiles, parser, cleaner);
+            FilesProcessingResult result = processFiles(javaFiles, resolveParser(), cleaner);
             printSummary(result);
 
         } catch (Exception e) {
             handleProcessingException(e);
+        } finally {
+            statsOptions.end();
         }
     }
 
+    private JavaFileParser resolveParser() {
+        if (parser == null) {
+            // clean-ids only edits annotations and imports, so comments need not be attached
+            parser = new JavaFileParser(ParseLimits.DEFAULT, parserOptions.toSettings(false));
+        }
+        return parser;
+    }
+
     private FilesProcessingResult processFiles(List<File> javaFiles,
                                                JavaFileParser parser,
                                                AnnotationCleaner cleaner) {
-        FilesProcessingResult totalResult = new FilesProcessingResult();
+        // reading and rewriting files waits on the disk, so several files are in flight
+        List<CleanupResult> results = IoThreads.map("clean-ids", IoThreads.FILE_CONCURRENCY,
+                javaFiles, javaFile -> processFile(javaFile, parser, cleaner));
 
-        for (File javaFile : javaFiles) {
-            try {
-                processSingleFile(javaFile, parser, cleaner, totalResult);
-            } catch (Exception e) {
-                handleFileError(javaFile, e);
+        FilesProcessingResult totalResult = new FilesProcessingResult();
+        for (CleanupResult result : results) {
+            if (result != null && (result.getRemovedAnnotations() > 0
+                    || result.getRemovedImports() > 0)) {
+                totalResult.addResults(result.getRemovedAnnotations(),
+                        result.getRemovedImports());
             }
         }
-
         return totalResult;
     }
 
-    private void processSingleFile(File javaFile, JavaFileParser parser, AnnotationCleaner cleaner,
-                                   FilesProcessingResult totalResult) {
-        if (verbose) {
-            log.info("Processing: {}", javaFile.getName());
+    private CleanupResult processFile(File javaFile, JavaFileParser parser,
+                                      AnnotationCleaner cleaner) {
+        try {
+            // read once for the prefilter, the parser and the rewrite
+            SourceText source = parser.load(javaFile);
+            if (source == null || !prefilter.mayContainTestIds(source)) {
+                return null;
+            }
+            return processSingleFile(source, parser, cleaner);
+        } catch (Exception e) {
+            handleFileError(javaFile, e);
+            return null;
         }
+    }
 
-        CompilationUnit cu = parser.parseFile(javaFile.getAbsolutePath());
-        if (cu == null) {
-            log.info("  Skipped: Could not parse file");
-            return;
+    private CleanupResult processSingleFile(SourceText source, JavaFileParser parser,
+                                            AnnotationCleaner cleaner) {
+        if (verbose) {
+            log.info("Processing: {}", source.getPath().getFileName());
         }
 
+        CompilationUnit cu = parser.parse(source);
+
         CleanupResult result = cleaner.cleanTestIdAnnotations(cu, dryRun);
 
         if (result.getRemovedAnnotations() > 0 || result.getRemovedImports() > 0) {
             if (verbose) {
-                log.info("  Removed {} @TestId annotations", result.getRemovedAnnotations());
-                log.info("  Removed {} TestId imports", result.getRemovedImports());
+                log.info("  Removed {} @TestId annotations from {}",
+                        result.getRemovedAnnotations(), source.getPath().getFileName());
+                log.info("  Removed {} TestId imports from {}", result.getRemovedImports(),
+                        source.getPath().getFileName());
             }
 
             // Note: File is now saved by AnnotationCleaner using MinimalFileModificationService
             // to preserve original code style
-
-            totalResult.addResults(result.getRemovedAnnotations(), result.getRemovedImports());
         } else {
-            log.info("  No @TestId annotations or imports found");
+            log.info("  No @TestId annotations or imports found in {}",
+                    source.getPath().getFileName());
         }
+        return result;
     }
 
     private void printSummary(FilesProcessingResult result) {
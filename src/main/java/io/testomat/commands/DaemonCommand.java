@@ -0,0 +1,111 @@
+package io.testomat.commands;
+
+import io.testomat.daemon.DaemonClient;
+import io.testomat.daemon.DaemonEndpoint;
+import io.testomat.daemon.DaemonRequest;
+import io.testomat.daemon.DaemonServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(
+        name = "daemon",
+        description = "Runs a background server that keeps parsed sources and server data "
+                + "in memory, so that repeated import, pull-ids, sync and clean-ids runs "
+                + "through the launcher finish quickly",
+        mixinStandardHelpOptions = true
+)
+public class DaemonCommand implements Callable<Integer> {
+
+    @Option(
+            names = {"--port"},
+            description = "Loopback port to listen on, 0 picks a free port "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private int port;
+
+    @Option(
+            names = {"--idle-timeout"},
+            paramLabel = "<minutes>",
+            description = "Stop after this many minutes without requests, 0 to run until "
+                    + "stopped (default: ${DEFAULT-VALUE})",
+            defaultValue = "30")
+    private long idleTimeoutMinutes;
+
+    @Option(
+            names = {"--max-cached-files"},
+            description = "Maximum number of parsed source files kept in memory "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "2000")
+    private int maxCachedFiles;
+
+    @Option(
+            names = {"--status"},
+            description = "Show whether a daemon is running and what it holds")
+    private boolean status = false;
+
+    @Option(
+            names = {"--stop"},
+            description = "Stop the running daemon")
+    private boolean stop = false;
+
+    @Override
+    public Integer call() throws Exception {
+        Path stateFile = DaemonEndpoint.defaultStateFile();
+        if (status || stop) {
+            return control(stateFile, stop ? DaemonRequest.OP_STOP : DaemonRequest.OP_STATUS);
+        }
+
+        Optional<DaemonEndpoint> running = DaemonEndpoint.read(stateFile);
+        if (running.isPresent() && isReachable(running.get())) {
+            System.err.println("A daemon is already running on port "
+                    + running.get().getPort() + "; stop it with 'daemon --stop'");
+            return 1;
+        }
+
+        try (DaemonServer server = new DaemonServer(
+                () -> new CommandLine(new TestomatCliCommand()),
+                Duration.ofMinutes(idleTimeoutMinutes), stateFile)) {
+            DaemonEndpoint endpoint = server.start(port, maxCachedFiles);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Daemon listening on 127.0.0.1:" + endpoint.getPort()
+                    + " (pid " + endpoint.getPid() + "), endpoint written to " + stateFile);
+            server.serve();
+        }
+        return 0;
+    }
+
+    private int control(Path stateFile, String op) {
+        Optional<DaemonEndpoint> endpoint = DaemonEndpoint.read(stateFile);
+        if (endpoint.isEmpty()) {
+            System.out.println("No daemon is running");
+            return DaemonClient.UNAVAILABLE_EXIT_CODE;
+        }
+        try {
+            return new DaemonClient(endpoint.get()).send(
+                    DaemonRequest.control(endpoint.get().getToken(), op),
+                    System.out, System.err);
+        } catch (IOException e) {
+            System.out.println("No daemon is running (stale endpoint in " + stateFile + ")");
+            return DaemonClient.UNAVAILABLE_EXIT_CODE;
+        }
+    }
+
+    private boolean isReachable(DaemonEndpoint endpoint) {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        try {
+            return new DaemonClient(endpoint).send(
+                    DaemonRequest.control(endpoint.getToken(), DaemonRequest.OP_STATUS),
+                    discard, discard) == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package io.testomat.commands;
 
+import io.testomat.client.RequestThrottle;
+import io.testomat.client.TestDataCache;
+import io.testomat.client.TransportFactory;
+import io.testomat.model.SourceModule;
 import io.testomat.progressbar.ProgressBar;
 import io.testomat.service.DirectoryValidator;
+import io.testomat.service.GitChangeSet;
+import io.testomat.service.ImportCheckpoint;
+import io.testomat.service.ImportWatcher;
+import io.testomat.service.ModuleDiscovery;
+import io.testomat.service.ParseLimits;
+import io.testomat.service.Shard;
+import io.testomat.service.ShardManifest;
+import io.testomat.service.SkippedFilesReport;
 import io.testomat.service.TestExportService;
 import io.testomat.service.TestFileScanner;
 import io.testomat.service.VerboseLogger;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Callable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
 @Command(
@@ -44,7 +64,8 @@ public class ImportCommand implements Callable<Integer> {
 
     @Option(
             names = "--url",
-            description = "Testomat server URL")
+            description = "Testomat server URL; file://<dir> writes batches to disk instead",
+            defaultValue = "${env:TESTOMATIO_URL}")
     private String serverUrl;
 
     @Option(
@@ -62,8 +83,113 @@ public class ImportCommand implements Callable<Integer> {
             description = "Show what would be exported without sending")
     private boolean dryRun = false;
 
+    @Option(
+            names = {"--max-rps"},
+            description = "Maximum upload requests per second, 0 for no limit "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_MAX_RPS:-0}")
+    private double maxRequestsPerSecond;
+
+    @Option(
+            names = {"--max-bytes-per-second"},
+            description = "Maximum upload bandwidth in bytes per second, 0 for no limit "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_MAX_BYTES_PER_SECOND:-0}")
+    private long maxBytesPerSecond;
+
+    @Option(
+            names = {"--max-concurrency"},
+            description = "Upper bound for parallel uploads; the actual concurrency adapts "
+                    + "to server latency and throttling (default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_MAX_CONCURRENCY:-4}")
+    private int maxConcurrency;
+
+    @Option(
+            names = {"--resume"},
+            description = "Skip batches that a previous interrupted import already delivered")
+    private boolean resume = false;
+
+    @Option(
+            names = {"--changed-since"},
+            paramLabel = "<ref>",
+            description = "Only import Java files changed in git since this ref, "
+                    + "e.g. origin/main, including uncommitted and untracked files")
+    private String changedSince;
+
+    @Option(
+            names = {"--module-parallelism"},
+            paramLabel = "<n>",
+            description = "Number of modules parsed at the same time when the directory "
+                    + "holds several Maven or Gradle modules, 0 for one per CPU "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_MODULE_PARALLELISM:-0}")
+    private int moduleParallelism;
+
+    @Option(
+            names = {"--max-file-size"},
+            paramLabel = "<bytes>",
+            description = "Skip source files larger than this, 0 for no limit "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_MAX_FILE_SIZE:-5242880}")
+    private long maxFileSize;
+
+    @Option(
+            names = {"--parse-timeout"},
+            paramLabel = "<ms>",
+            description = "Skip source files that take longer than this to parse, 0 for no "
+                    + "limit (default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_PARSE_TIMEOUT:-30000}")
+    private long parseTimeoutMillis;
+
+    @Option(
+            names = {"--error-report"},
+            paramLabel = "<file>",
+            description = "Write the files that were skipped, and why, as JSON to this file")
+    private Path errorReport;
+
+    @Option(
+            names = {"--shard"},
+            paramLabel = "<i/N>",
+            converter = ShardConverter.class,
+            description = "Only process shard i of N, e.g. 2/4; files are assigned by a stable "
+                    + "hash of their relative path, so every node picks a disjoint part")
+    private Shard shard;
+
+    @Option(
+            names = {"--shard-manifest"},
+            paramLabel = "<file>",
+            description = "With --shard, write the files this shard processed to a JSON "
+                    + "manifest for verify-shards")
+    private Path shardManifest;
+
+    @Option(
+            names = {"--watch"},
+            description = "After the import, keep watching the directory and re-import the "
+                    + "tests of changed files until interrupted")
+    private boolean watch = false;
+
+    @Option(
+            names = {"--watch-debounce"},
+            paramLabel = "<ms>",
+            description = "Quiet period that ends a burst of file changes in watch mode "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "500")
+    private long watchDebounceMillis;
+
+    @Mixin
+    private ScanOptions scanOptions = new ScanOptions();
+
+    @Mixin
+    private StatsOptions statsOptions = new StatsOptions();
+
+    @Mixin
+    private ParserOptions parserOptions = new ParserOptions();
+
+    @Mixin
+    private ProgressOptions progressOptions = new ProgressOptions();
+
     public ImportCommand() {
-        this.exportService = new TestExportService();
+        this.exportService = null;
         this.validator = new DirectoryValidator();
         this.scanner = new TestFileScanner();
     }
@@ -78,14 +204,11 @@ public class ImportCommand implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
+        progressOptions.apply();
+        statsOptions.begin("import");
         try {
             if (serverUrl == null || serverUrl.trim().isEmpty()) {
-                String envUrl = System.getenv("TESTOMATIO_URL");
-                if (envUrl == null || envUrl.trim().isEmpty()) {
-                    serverUrl = DEFAULT_URL;
-                } else {
-                    serverUrl = envUrl;
-                }
+                serverUrl = DEFAULT_URL;
             }
 
             VerboseLogger logger = new VerboseLogger(verbose);
@@ -100,22 +223,42 @@ public class ImportCommand implements Callable<Integer> {
 
             validator.validateDirectory(directory);
 
-            List<File> testFiles = scanner.findTestFiles(directory);
-            logger.log("Found " + testFiles.size() + " test files");
-
-            if (testFiles.isEmpty()) {
-                System.out.println("No test files found!");
-                return SUCCESS_EXIT_CODE;
+            List<File> allFiles = findTestFiles();
+            logger.log("Found " + allFiles.size() + " test files");
+            List<File> testFiles = allFiles;
+            if (shard != null) {
+                testFiles = shard.select(directory, allFiles);
+                System.out.println("Shard " + shard + ": " + testFiles.size() + " of "
+                        + allFiles.size() + " files");
             }
 
-            ProgressBar progressBar = new ProgressBar(testFiles.size(),
-                    "Parsing " + testFiles.size() + " files");
-            int totalExported = exportService.processTestFilesWithProgress(
-                    testFiles, apiKey, serverUrl, dryRun, verbose, progressBar, structure);
+            TestExportService service = resolveExportService();
+            try (ImportWatcher watcher = watch ? new ImportWatcher(scanOptions.apply(scanner),
+                    service, Duration.ofMillis(watchDebounceMillis)) : null) {
+                if (testFiles.isEmpty()) {
+                    System.out.println(changedSince == null
+                            ? "No test files found!"
+                            : "No Java files changed since " + changedSince);
+                    writeShardManifest(allFiles, testFiles, 0);
+                    return watch ? watchForChanges(watcher) : SUCCESS_EXIT_CODE;
+                }
 
-            printCompletionMessage(totalExported);
+                int totalExported;
+                if (watcher != null) {
+                    // later changes then only upload the tests they affect
+                    service.setParsedFileListener(watcher::remember);
+                }
+                try {
+                    totalExported = exportFiles(service, testFiles, logger);
+                } finally {
+                    service.setParsedFileListener(null);
+                    reportSkippedFiles(service);
+                }
+                printCompletionMessage(totalExported);
+                writeShardManifest(allFiles, testFiles, totalExported);
 
-            return SUCCESS_EXIT_CODE;
+                return watch ? watchForChanges(watcher) : SUCCESS_EXIT_CODE;
+            }
 
         } catch (Exception e) {
             System.err.println("Export failed: " + e.getMessage());
@@ -123,7 +266,107 @@ public class ImportCommand implements Callable<Integer> {
                 e.printStackTrace();
             }
             return ERROR_EXIT_CODE;
+        } finally {
+            statsOptions.end();
+        }
+    }
+
+    private List<File> findTestFiles() {
+        TestFileScanner scanner = scanOptions.apply(this.scanner);
+        if (changedSince == null) {
+            return scanner.findTestFiles(directory);
+        }
+        PhaseStats stats = RunStats.get().phase(Phase.SCAN);
+        List<File> changedFiles;
+        try (Timer ignored = stats.time()) {
+            GitChangeSet changes = GitChangeSet.since(changedSince, directory.toPath());
+            if (!changes.getDeleted().isEmpty()) {
+                System.out.println(changes.getDeleted().size() + " Java files were deleted "
+                        + "or renamed since " + changedSince + "; their tests stay in "
+                        + "Testomat.io");
+            }
+            changedFiles = scanner.filterSourceFiles(directory, changes.getChanged());
+        }
+        stats.add(PhaseStats.FILES, changedFiles.size());
+        return changedFiles;
+    }
+
+    private int exportFiles(TestExportService service, List<File> testFiles,
+                            VerboseLogger logger) {
+        ImportCheckpoint checkpoint = dryRun ? null : openCheckpoint();
+        List<SourceModule> modules = new ModuleDiscovery().discover(directory, testFiles);
+        if (modules.size() > 1) {
+            logger.log("Found " + modules.size() + " modules");
+            return service.processModules(modules, resolveModuleParallelism(), apiKey,
+                    serverUrl, dryRun, verbose, structure, checkpoint);
+        }
+        ProgressBar progressBar = new ProgressBar(testFiles.size(),
+                "Parsing " + testFiles.size() + " files");
+        return service.processTestFilesWithProgress(testFiles, apiKey, serverUrl, dryRun,
+                verbose, progressBar, structure, checkpoint);
+    }
+
+    private void reportSkippedFiles(TestExportService service) {
+        SkippedFilesReport skippedFiles = service.getSkippedFiles();
+        if (!skippedFiles.isEmpty()) {
+            System.out.println(skippedFiles.summary() + (errorReport == null
+                    ? " (use --error-report <file> for details)"
+                    : ", see " + errorReport));
+        }
+        if (errorReport != null) {
+            skippedFiles.writeJson(errorReport);
+        }
+    }
+
+    private void writeShardManifest(List<File> allFiles, List<File> testFiles, int tests) {
+        if (shard == null || shardManifest == null) {
+            return;
+        }
+        ShardManifest.of(shard, directory, allFiles, testFiles, tests).write(shardManifest);
+        System.out.println("Shard manifest written to " + shardManifest);
+    }
+
+    private int resolveModuleParallelism() {
+        return moduleParallelism > 0
+                ? moduleParallelism
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    private int watchForChanges(ImportWatcher watcher) throws IOException {
+        int directories = watcher.register(directory);
+        System.out.println("Watching " + directories + " directories for changes. "
+                + "Press Ctrl+C to stop.");
+        watcher.watch(apiKey, serverUrl, dryRun, verbose, structure);
+        return SUCCESS_EXIT_CODE;
+    }
+
+    private ImportCheckpoint openCheckpoint() {
+        Path journal = ImportCheckpoint.defaultJournalFile(
+                TestDataCache.defaultCacheDirectory(), serverUrl, apiKey, directory.toPath());
+        if (shard != null) {
+            // shards of one import may run side by side on the same machine
+            journal = journal.resolveSibling(journal.getFileName().toString().replace(
+                    ".journal", "-" + shard.getIndex() + "of" + shard.getCount() + ".journal"));
+        }
+        ImportCheckpoint checkpoint = ImportCheckpoint.open(journal, resume);
+        if (resume && checkpoint.getAcknowledgedCount() > 0) {
+            System.out.println("Resuming import: " + checkpoint.getAcknowledgedCount()
+                    + " batches were already delivered");
+        }
+        return checkpoint;
+    }
+
+    private TestExportService resolveExportService() {
+        if (exportService != null) {
+            return exportService;
         }
+        RequestThrottle throttle = new RequestThrottle(maxRequestsPerSecond, maxBytesPerSecond,
+                maxConcurrency);
+        return new TestExportService(
+                TransportFactory.create(serverUrl, TestDataCache.createDefault(), throttle),
+                throttle.getMaxConcurrency(),
+                new ParseLimits(maxFileSize, Duration.ofMillis(parseTimeoutMillis)),
+                parserOptions.toSettings(true));
     }
 
     private void printCompletionMessage(int totalExported) {
@@ -0,0 +1,20 @@
+package io.testomat.commands;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import io.testomat.service.ParserSettings;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.TypeConversionException;
+
+/**
+ * Converts {@code --language-level} values such as {@code 17} or {@code raw}.
+ */
+public class LanguageLevelConverter implements ITypeConverter<LanguageLevel> {
+    @Override
+    public LanguageLevel convert(String value) {
+        try {
+            return ParserSettings.parseLanguageLevel(value);
+        } catch (IllegalArgumentException e) {
+            throw new TypeConversionException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.testomat.commands;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import io.testomat.service.ParserSettings;
+import java.util.List;
+import picocli.CommandLine.Option;
+
+/**
+ * {@code --language-level} option shared by the commands that parse Java sources.
+ */
+public class ParserOptions {
+
+    @Option(
+            names = {"--language-level"},
+            paramLabel = "<level>",
+            converter = LanguageLevelConverter.class,
+            description = "Java language level of the sources, e.g. 8, 17 or 21, or raw to "
+                    + "accept any syntax the parser knows (default: ${DEFAULT-VALUE})",
+            defaultValue = "${env:TESTOMATIO_LANGUAGE_LEVEL:-21}")
+    private LanguageLevel languageLevel = ParserSettings.DEFAULT_LANGUAGE_LEVEL;
+
+    /**
+     * Parser settings for this language level, attaching comments only if {@code comments}.
+     */
+    public ParserSettings toSettings(boolean comments) {
+        return new ParserSettings(languageLevel, comments);
+    }
+
+    /**
+     * The option as arguments for a nested command.
+     */
+    public List<String> toArguments() {
+        return List.of("--language-level=" + languageLevel.name());
+    }
+}
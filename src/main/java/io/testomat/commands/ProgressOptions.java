@@ -0,0 +1,41 @@
+package io.testomat.commands;
+
+import io.testomat.progressbar.ProgressMode;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.TypeConversionException;
+
+/**
+ * {@code --progress} option shared by the commands that report progress. Nested commands
+ * run by {@code sync} leave the option unset and inherit the mode of the parent.
+ */
+public class ProgressOptions {
+
+    @Option(
+            names = {"--progress"},
+            paramLabel = "<mode>",
+            converter = ModeConverter.class,
+            description = "Progress output: auto, tty, plain, json or none. json writes "
+                    + "NDJSON events to stderr (default: auto)")
+    private ProgressMode mode;
+
+    /**
+     * Makes the requested mode the process wide default before any progress is reported.
+     */
+    public void apply() {
+        if (mode != null) {
+            ProgressMode.configure(mode);
+        }
+    }
+
+    static class ModeConverter implements ITypeConverter<ProgressMode> {
+        @Override
+        public ProgressMode convert(String value) {
+            try {
+                return ProgressMode.parse(value);
+            } catch (IllegalArgumentException e) {
+                throw new TypeConversionException(e.getMessage());
+            }
+        }
+    }
+}
@@ -2,15 +2,37 @@ package io.testomat.commands;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
-import io.testomat.client.CliClient;
+import io.testomat.client.RequestThrottle;
+import io.testomat.client.TestDataCache;
+import io.testomat.client.TestomatHttpClient;
+import io.testomat.client.TransportFactory;
 import io.testomat.progressbar.ProgressBar;
+import io.testomat.service.GitChangeSet;
+import io.testomat.service.IoThreads;
+import io.testomat.service.ParserSettings;
 import io.testomat.service.ResponseParser;
+import io.testomat.service.Shard;
+import io.testomat.service.SourceFingerprint;
+import io.testomat.service.SourceLoader;
+import io.testomat.service.SourcePathFilter;
+import io.testomat.service.SourcePrefilter;
+import io.testomat.service.SourceText;
+import io.testomat.service.TestFileScanner;
 import io.testomat.service.TestIdAnnotationManager;
 import io.testomat.service.TestIdSyncService;
+import io.testomat.service.WarmState;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import picocli.CommandLine;
@@ -34,7 +56,8 @@ public class PullIdsCommand implements Runnable {
 
     @CommandLine.Option(
             names = "--url",
-            description = "Testomat server URL")
+            description = "Testomat server URL; file://<dir> writes batches to disk instead",
+            defaultValue = "${env:TESTOMATIO_URL}")
     private String serverUrl;
 
     @CommandLine.Option(
@@ -47,8 +70,40 @@ public class PullIdsCommand implements Runnable {
             description = "Prefer structure of source code over structure in Testomat.io")
     private boolean structure = false;
 
+    @CommandLine.Option(
+            names = {"--no-cache"},
+            description = "Always download the full test data instead of sending "
+                    + "a conditional request")
+    private boolean noCache = false;
+
+    @CommandLine.Option(
+            names = {"--changed-since"},
+            paramLabel = "<ref>",
+            description = "Only update Java files changed in git since this ref, "
+                    + "e.g. origin/main, including uncommitted and untracked files")
+    private String changedSince;
+
+    @CommandLine.Option(
+            names = {"--shard"},
+            paramLabel = "<i/N>",
+            converter = ShardConverter.class,
+            description = "Only update shard i of N of the Java files, e.g. 2/4")
+    private Shard shard;
+
+    @CommandLine.Mixin
+    private ScanOptions scanOptions = new ScanOptions();
+
+    @CommandLine.Mixin
+    private StatsOptions statsOptions = new StatsOptions();
+
+    @CommandLine.Mixin
+    private ProgressOptions progressOptions = new ProgressOptions();
+
+    @CommandLine.Mixin
+    private ParserOptions parserOptions = new ParserOptions();
+
     public PullIdsCommand() {
-        this.javaParser = new JavaParser();
+        this.javaParser = null;
     }
 
     public PullIdsCommand(JavaParser javaParser) {
@@ -57,67 +112,170 @@ public class PullIdsCommand implements Runnable {
 
     @Override
     public void run() {
+        progressOptions.apply();
+        statsOptions.begin("pull-ids");
+        try {
+            pullIds();
+        } finally {
+            statsOptions.end();
+        }
+    }
+
+    private void pullIds() {
         // Set default URL if not provided and environment variable is not set
         if (serverUrl == null || serverUrl.trim().isEmpty()) {
-            String envUrl = System.getenv("TESTOMATIO_URL");
-            if (envUrl == null || envUrl.trim().isEmpty()) {
-                serverUrl = DEFAULT_URL;
-            } else {
-                serverUrl = envUrl;
-            }
+            serverUrl = DEFAULT_URL;
+        }
+
+        TestDataCache cache = noCache ? null : TestDataCache.createDefault();
+        TestomatHttpClient client = TransportFactory.create(serverUrl, cache,
+                RequestThrottle.unlimited(1));
+        // the sync fingerprint describes the whole tree, git scoped and sharded runs a part
+        boolean wholeTree = changedSince == null && shard == null;
+        TestIdSyncService syncService = createSyncService(client);
+
+        List<Path> javaFiles = findJavaFiles();
+        if (shard != null) {
+            Path root = Paths.get(directory).toAbsolutePath().normalize();
+            javaFiles = javaFiles.stream()
+                    .filter(javaFile -> shard.contains(Shard.relativePath(root, javaFile)))
+                    .collect(Collectors.toList());
         }
+        Map<String, String> testsMap = syncService.fetchTestsMap(apiKey, serverUrl);
 
-        TestIdSyncService syncService = createSyncService();
-        List<CompilationUnit> compilationUnits = loadCompilationUnits();
+        String cacheKey = TestDataCache.keyFor(serverUrl, apiKey);
+        String syncDirectory = Paths.get(directory).toAbsolutePath().normalize().toString();
+        if (cache != null && wholeTree && client.isLastResponseNotModified()
+                && cache.isSyncUpToDate(cacheKey, syncDirectory,
+                        SourceFingerprint.compute(javaFiles))) {
+            System.out.println("Test IDs are up to date: no changes on server "
+                    + "or in local files since the last sync");
+            return;
+        }
+
+        List<CompilationUnit> compilationUnits = parseJavaFiles(
+                new SourcePrefilter().filterReferencedFiles(javaFiles, testsMap.keySet()));
 
         if (verbose) {
             System.out.println("Found " + compilationUnits.size() + " compilation units");
         }
 
-        ProgressBar progressBar = new ProgressBar(100, "Processing test IDs");
-        TestIdSyncService.SyncResult result = 
-                syncService.syncTestIds(apiKey, serverUrl, compilationUnits, verbose, progressBar);
+        ProgressBar progressBar = new ProgressBar(testsMap.size(), "Processing test IDs");
+        TestIdSyncService.SyncResult result =
+                syncService.syncTestIds(testsMap, compilationUnits, verbose, progressBar);
 
         System.out.println("Processed " + result.getProcessedCount() + " test methods");
         System.out.println("Saved " + result.getModifiedFilesCount() + " modified files");
+
+        if (cache != null && wholeTree) {
+            cache.storeSyncFingerprint(cacheKey, syncDirectory,
+                    SourceFingerprint.compute(javaFiles));
+        }
     }
 
-    private TestIdSyncService createSyncService() {
+    private TestIdSyncService createSyncService(TestomatHttpClient client) {
         return new TestIdSyncService(
-                new CliClient(),
+                client,
                 new ResponseParser(),
                 new TestIdAnnotationManager()
         );
     }
 
-    private List<CompilationUnit> loadCompilationUnits() {
-        List<Path> javaFiles = findJavaFiles();
-        return parseJavaFiles(javaFiles);
-    }
-
     private List<Path> findJavaFiles() {
-        try (Stream<Path> pathStream = Files.walk(Paths.get(directory))) {
-            return pathStream
-                    .filter(path -> path.toString().endsWith(".java"))
+        PhaseStats stats = RunStats.get().phase(Phase.SCAN);
+        if (changedSince != null) {
+            return findChangedJavaFiles(stats);
+        }
+        SourcePathFilter filter = scanOptions.toFilter();
+        if (filter != SourcePathFilter.NONE) {
+            // filtered scans use the import walker, which also prunes build directories
+            return new TestFileScanner(filter).findTestFiles(new File(directory)).stream()
+                    .map(File::toPath)
                     .collect(Collectors.toList());
+        }
+        WarmState.ScanKey scanKey = WarmState.get().scanKey("pull-ids", Paths.get(directory));
+        List<Path> cached = WarmState.get().cachedScan(scanKey);
+        if (cached != null) {
+            stats.add(PhaseStats.CACHED, cached.size());
+            return cached;
+        }
+
+        List<Path> directories = new ArrayList<>();
+        try (Timer ignored = stats.time()) {
+            List<Path> javaFiles;
+            try (Stream<Path> pathStream = Files.find(Paths.get(directory), Integer.MAX_VALUE,
+                    (path, attributes) -> {
+                        if (attributes.isDirectory()) {
+                            directories.add(path);
+                        }
+                        return path.toString().endsWith(".java");
+                    })) {
+                javaFiles = pathStream.collect(Collectors.toList());
+            }
+            stats.add(PhaseStats.DIRS, directories.size());
+            stats.add(PhaseStats.FILES, javaFiles.size());
+            WarmState.get().storeScan(scanKey, javaFiles, directories);
+            return javaFiles;
         } catch (Exception e) {
             throw new RuntimeException("Failed to scan directory for Java files", e);
         }
     }
 
-    private List<CompilationUnit> parseJavaFiles(List<Path> javaFiles) {
+    private List<Path> findChangedJavaFiles(PhaseStats stats) {
+        List<Path> javaFiles;
+        try (Timer ignored = stats.time()) {
+            GitChangeSet changes = GitChangeSet.since(changedSince, Paths.get(directory));
+            javaFiles = new TestFileScanner(scanOptions.toFilter())
+                    .filterSourceFiles(new File(directory), changes.getChanged()).stream()
+                    .map(File::toPath)
+                    .collect(Collectors.toList());
+        }
+        stats.add(PhaseStats.FILES, javaFiles.size());
+        return javaFiles;
+    }
 
-        return javaFiles.stream()
-                .map(javaFile -> parseJavaFile(javaFile, javaParser))
-                .collect(Collectors.toList());
+    private List<CompilationUnit> parseJavaFiles(List<Path> javaFiles) {
+        // IDs are matched by declarations and annotations, so comments need not be attached
+        ParserSettings settings = javaParser == null
+                ? parserOptions.toSettings(false)
+                : new ParserSettings(
+                        javaParser.getParserConfiguration().getLanguageLevel(),
+                        javaParser.getParserConfiguration().isAttributeComments());
+        PhaseStats stats = RunStats.get().phase(Phase.PARSE);
+        try (Timer ignored = stats.time()) {
+            if (javaParser != null) {
+                // an injected parser is not thread safe
+                return javaFiles.stream()
+                        .map(javaFile -> parseJavaFile(javaFile, javaParser, settings, stats))
+                        .collect(Collectors.toList());
+            }
+            return IoThreads.map("pull-ids", IoThreads.FILE_CONCURRENCY, javaFiles,
+                    javaFile -> parseJavaFile(javaFile, settings.newParser(), settings, stats));
+        }
     }
 
-    private CompilationUnit parseJavaFile(Path javaFile, JavaParser javaParser) {
+    private CompilationUnit parseJavaFile(Path javaFile, JavaParser javaParser,
+                                          ParserSettings settings, PhaseStats stats) {
+        WarmState.SourceKey sourceKey = WarmState.get().sourceKey(javaFile, settings);
+        CompilationUnit cached = WarmState.get().cachedSource(sourceKey);
+        if (cached != null) {
+            stats.increment(PhaseStats.CACHED);
+            return cached;
+        }
+
+        stats.increment(PhaseStats.FILES);
         try {
-            return javaParser.parse(javaFile)
+            SourceText source = SourceLoader.load(javaFile);
+            CompilationUnit compilationUnit = javaParser.parse(source.getText())
                     .getResult()
                     .orElseThrow(() -> new RuntimeException("Could not parse file " + javaFile));
+            compilationUnit.setStorage(javaFile, StandardCharsets.UTF_8);
+            // the rewrite reuses the text instead of reading the file again
+            SourceText.attach(compilationUnit, source);
+            WarmState.get().storeSource(sourceKey, compilationUnit);
+            return compilationUnit;
         } catch (Exception e) {
+            stats.increment(PhaseStats.FAILURES);
             throw new RuntimeException("Could not parse file " + javaFile, e);
         }
     }
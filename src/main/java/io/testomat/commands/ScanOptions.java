@@ -0,0 +1,58 @@
+package io.testomat.commands;
+
+import io.testomat.service.SourcePathFilter;
+import io.testomat.service.TestFileScanner;
+import java.util.ArrayList;
+import java.util.List;
+import picocli.CommandLine.Option;
+
+/**
+ * {@code --include}, {@code --exclude} and {@code --gitignore} options shared by the
+ * commands that scan source directories.
+ */
+public class ScanOptions {
+
+    @Option(
+            names = {"--include"},
+            paramLabel = "<glob>",
+            description = "Only scan Java files matching this glob, relative to the directory, "
+                    + "e.g. 'src/test/**' or '**/*IT.java'; repeatable")
+    private List<String> includes = new ArrayList<>();
+
+    @Option(
+            names = {"--exclude"},
+            paramLabel = "<glob>",
+            description = "Skip files and directories matching this glob, e.g. 'legacy/**' "
+                    + "or 'generated'; repeatable")
+    private List<String> excludes = new ArrayList<>();
+
+    @Option(
+            names = {"--gitignore"},
+            description = "Skip files and directories ignored by .gitignore files")
+    private boolean gitignore = false;
+
+    public SourcePathFilter toFilter() {
+        return SourcePathFilter.of(includes, excludes, gitignore);
+    }
+
+    /**
+     * Returns {@code scanner} when no option is given, else a scanner with the filter.
+     */
+    public TestFileScanner apply(TestFileScanner scanner) {
+        SourcePathFilter filter = toFilter();
+        return filter == SourcePathFilter.NONE ? scanner : new TestFileScanner(filter);
+    }
+
+    /**
+     * The options as arguments for a nested command.
+     */
+    public List<String> toArguments() {
+        List<String> args = new ArrayList<>();
+        includes.forEach(glob -> args.add("--include=" + glob));
+        excludes.forEach(glob -> args.add("--exclude=" + glob));
+        if (gitignore) {
+            args.add("--gitignore");
+        }
+        return args;
+    }
+}
@@ -0,0 +1,19 @@
+package io.testomat.commands;
+
+import io.testomat.service.Shard;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.TypeConversionException;
+
+/**
+ * Converts {@code --shard i/N} values.
+ */
+public class ShardConverter implements ITypeConverter<Shard> {
+    @Override
+    public Shard convert(String value) {
+        try {
+            return Shard.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new TypeConversionException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.testomat.commands;
+
+import io.testomat.stats.RunStats;
+import io.testomat.stats.StatsReport;
+import java.nio.file.Path;
+import picocli.CommandLine.Option;
+
+/**
+ * {@code --stats} and {@code --stats-json} options shared by the commands. When a parent
+ * command such as {@code sync} is already collecting, nested commands record into its run
+ * and leave the report to it.
+ */
+public class StatsOptions {
+
+    @Option(
+            names = {"--stats"},
+            description = "Print time and counts per phase, peak heap and GC time when done")
+    private boolean stats = false;
+
+    @Option(
+            names = {"--stats-json"},
+            paramLabel = "<file>",
+            description = "Write the per-phase statistics as JSON to this file")
+    private Path statsJson;
+
+    private boolean owner;
+
+    /**
+     * Starts collecting statistics if requested and nobody else is collecting already.
+     */
+    public void begin(String command) {
+        owner = (stats || statsJson != null) && !RunStats.get().isEnabled();
+        if (owner) {
+            RunStats.enable(command);
+        }
+    }
+
+    /**
+     * Prints and writes the report of a run started by {@link #begin(String)}.
+     */
+    public void end() {
+        if (!owner) {
+            return;
+        }
+        owner = false;
+        RunStats run = RunStats.get();
+        RunStats.disable();
+
+        StatsReport report = new StatsReport();
+        if (stats) {
+            report.print(run, System.out);
+        }
+        if (statsJson != null) {
+            report.writeJson(run, statsJson);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.testomat.commands;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.testomat.stub.StubTestomatServer;
+import java.io.File;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(
+        name = "stub-server",
+        description = "Runs a local stand-in for the testomat.io API (/api/load, /api/test_data) "
+                + "for load tests and benchmarks",
+        mixinStandardHelpOptions = true
+)
+public class StubServerCommand implements Callable<Integer> {
+
+    @Option(
+            names = {"--port"},
+            description = "Port to listen on (default: ${DEFAULT-VALUE})",
+            defaultValue = "8080")
+    private int port;
+
+    @Option(
+            names = {"--latency-ms"},
+            description = "Delay added to every request (default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private long latencyMs;
+
+    @Option(
+            names = {"--error-rate"},
+            description = "Fraction of requests answered with 503, 0..1 "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private double errorRate;
+
+    @Option(
+            names = {"--max-in-flight"},
+            description = "Answer 429 above this many concurrent requests, 0 for no limit "
+                    + "(default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private int maxInFlight;
+
+    @Option(
+            names = {"--seed"},
+            description = "Seed for error injection (default: ${DEFAULT-VALUE})",
+            defaultValue = "42")
+    private long seed;
+
+    @Option(
+            names = {"--test-data"},
+            description = "JSON file in /api/test_data format to preload")
+    private File testData;
+
+    @Override
+    public Integer call() throws Exception {
+        try (StubTestomatServer server = new StubTestomatServer(port,
+                Duration.ofMillis(latencyMs), errorRate, maxInFlight, seed)) {
+            if (testData != null) {
+                JsonNode tests = new ObjectMapper().readTree(testData).path("tests");
+                Map<String, String> entries = new LinkedHashMap<>();
+                tests.properties().forEach(field ->
+                        entries.put(field.getKey(), field.getValue().asText()));
+                server.getRegistry().putAll(entries);
+            }
+
+            server.start();
+            System.out.println("Stub server listening on " + server.getUrl());
+            System.out.println("Use --url " + server.getUrl() + " with import, pull-ids or sync. "
+                    + "Press Ctrl+C to stop.");
+
+            CountDownLatch shutdown = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                System.out.println("Served " + server.getLoadRequests() + " load and "
+                        + server.getTestDataRequests() + " test data requests, rejected "
+                        + server.getRejectedRequests());
+                shutdown.countDown();
+            }));
+            shutdown.await();
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,8 @@
 package io.testomat.commands;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import picocli.CommandLine;
 
 @CommandLine.Command(
@@ -7,7 +10,7 @@ import picocli.CommandLine;
         aliases = {"update-ids"},
         description = "Run export then importId",
         mixinStandardHelpOptions = true)
-public class SyncCommand implements Runnable {
+public class SyncCommand implements Callable<Integer> {
     private static final String DEFAULT_URL = "https://app.testomat.io";
     private static final String VERSION = "v.0.1.9";
 
@@ -20,7 +23,8 @@ public class SyncCommand implements Runnable {
 
     @CommandLine.Option(
             names = {"--url"},
-            description = "Server URL"
+            description = "Server URL",
+            defaultValue = "${env:TESTOMATIO_URL}"
     )
     private String url;
 
@@ -41,50 +45,107 @@ public class SyncCommand implements Runnable {
             description = "Prefer structure of source code over structure in Testomat.io")
     private boolean structure = false;
 
+    @CommandLine.Option(
+            names = {"--no-cache"},
+            description = "Always download the full test data when pulling IDs")
+    private boolean noCache = false;
+
+    @CommandLine.Option(
+            names = {"--changed-since"},
+            paramLabel = "<ref>",
+            description = "Only import and update Java files changed in git since this ref, "
+                    + "e.g. origin/main")
+    private String changedSince;
+
+    @CommandLine.Option(
+            names = {"--shard"},
+            paramLabel = "<i/N>",
+            description = "Only import and update shard i of N of the Java files, e.g. 2/4")
+    private String shard;
+
+    @CommandLine.Option(
+            names = {"--shard-manifest"},
+            paramLabel = "<file>",
+            description = "With --shard, write the files this shard imported to a JSON "
+                    + "manifest for verify-shards")
+    private String shardManifest;
+
+    @CommandLine.Mixin
+    private ScanOptions scanOptions = new ScanOptions();
+
+    @CommandLine.Mixin
+    private ParserOptions parserOptions = new ParserOptions();
+
+    @CommandLine.Mixin
+    private StatsOptions statsOptions = new StatsOptions();
+
+    @CommandLine.Mixin
+    private ProgressOptions progressOptions = new ProgressOptions();
+
     @CommandLine.Spec
     private CommandLine.Model.CommandSpec spec;
 
     @Override
-    public void run() {
+    public Integer call() {
         System.out.println("JAVA-CHECK-TESTS " + VERSION);
         defineUrl();
         CommandLine parent = spec.parent().commandLine();
-        handeCommandExecution(parent, getImportArgsForCommand("import"));
-        handeCommandExecution(parent, getImportArgsForCommand("pull-ids"));
+        progressOptions.apply();
+        statsOptions.begin("sync");
+        try {
+            int exitCode = handeCommandExecution(parent, getImportArgsForCommand("import"));
+            if (exitCode != 0) {
+                return exitCode;
+            }
+            return handeCommandExecution(parent, getImportArgsForCommand("pull-ids"));
+        } finally {
+            statsOptions.end();
+        }
     }
 
     private void defineUrl() {
         if (url == null || url.trim().isEmpty()) {
-            String envUrl = System.getenv("TESTOMATIO_URL");
-            if (envUrl == null || envUrl.trim().isEmpty()) {
-                url = DEFAULT_URL;
-            } else {
-                url = envUrl;
-            }
+            url = DEFAULT_URL;
         }
     }
 
     private String[] getImportArgsForCommand(String command) {
-        return verbose
-                ? new String[]{command,
-                    "--apikey=" + apiKey,
-                    "--url=" + url,
-                    "--directory=" + directory,
-                    "--keep-structure=" + structure,
-                    "-v"}
-                : new String[]{command,
-                    "--apikey=" + apiKey,
-                    "--url=" + url,
-                    "--directory=" + directory,
-                    "--keep-structure=" + structure};
+        List<String> args = new ArrayList<>();
+        args.add(command);
+        args.add("--apikey=" + apiKey);
+        args.add("--url=" + url);
+        args.add("--directory=" + directory);
+        args.add("--keep-structure=" + structure);
+        if (verbose) {
+            args.add("-v");
+        }
+        if (changedSince != null) {
+            args.add("--changed-since=" + changedSince);
+        }
+        if (shard != null) {
+            args.add("--shard=" + shard);
+        }
+        if (shardManifest != null && "import".equals(command)) {
+            args.add("--shard-manifest=" + shardManifest);
+        }
+        args.addAll(scanOptions.toArguments());
+        args.addAll(parserOptions.toArguments());
+        if (noCache && "pull-ids".equals(command)) {
+            args.add("--no-cache");
+        }
+        return args.toArray(new String[0]);
     }
 
-    private void handeCommandExecution(CommandLine parent, String[] args) {
+    /**
+     * Runs a nested command and returns its exit code, so that the caller decides how to
+     * stop; the daemon serves several commands from one process and must not exit.
+     */
+    private int handeCommandExecution(CommandLine parent, String[] args) {
         System.out.println("Running " + args[0] + " command...");
         int code1 = parent.execute(args);
         if (code1 != 0) {
-            spec.commandLine().getErr().println("import failed with code " + code1);
-            System.exit(code1);
+            spec.commandLine().getErr().println(args[0] + " failed with code " + code1);
         }
+        return code1;
     }
 }
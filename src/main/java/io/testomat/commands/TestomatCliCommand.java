@@ -12,6 +12,9 @@ import picocli.CommandLine.Command;
                 CommandLine.HelpCommand.class,
                 SyncCommand.class,
                 CleanIdsCommand.class,
+                StubServerCommand.class,
+                DaemonCommand.class,
+                VerifyShardsCommand.class,
         }
 )
 public class TestomatCliCommand implements Runnable {
@@ -29,6 +32,9 @@ public class TestomatCliCommand implements Runnable {
                 "  clean-project-ids  - Remove @TestId annotations for tests "
                         + "that exist on the server");
         System.out.println("  sync        - Run export then update-ids. Alias `update-ids`");
+        System.out.println("  stub-server - Run a local stand-in for the testomat.io API");
+        System.out.println("  daemon      - Keep parsed sources warm for repeated runs");
+        System.out.println("  verify-shards - Check that sharded imports covered every file");
         System.out.println("  help       - Show help information");
         System.out.println();
         System.out.println("Use ' <command> --help' for more information on a command.");
@@ -0,0 +1,68 @@
+package io.testomat.commands;
+
+import io.testomat.service.ShardManifest;
+import io.testomat.service.TestFileScanner;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(
+        name = "verify-shards",
+        description = "Checks that the manifests written by import --shard --shard-manifest "
+                + "cover every file exactly once",
+        mixinStandardHelpOptions = true
+)
+public class VerifyShardsCommand implements Callable<Integer> {
+    private static final int SUCCESS_EXIT_CODE = 0;
+    private static final int ERROR_EXIT_CODE = 1;
+
+    @Parameters(
+            paramLabel = "<manifest>",
+            arity = "1..*",
+            description = "Shard manifests, one per shard")
+    private List<Path> manifests;
+
+    @Option(
+            names = {"-d", "--directory"},
+            description = "Also scan this directory and check that the shards processed "
+                    + "exactly its files; use the scan options of the import")
+    private File directory;
+
+    @Mixin
+    private ScanOptions scanOptions = new ScanOptions();
+
+    @Override
+    public Integer call() {
+        List<ShardManifest> shards = manifests.stream()
+                .map(ShardManifest::read)
+                .collect(Collectors.toList());
+
+        Set<String> expectedFiles = null;
+        if (directory != null) {
+            List<File> files = scanOptions.apply(new TestFileScanner()).findTestFiles(directory);
+            expectedFiles = ShardManifest.relativePaths(
+                    directory.toPath().toAbsolutePath().normalize(), files);
+        }
+
+        List<String> problems = ShardManifest.verify(shards, expectedFiles);
+        if (!problems.isEmpty()) {
+            problems.forEach(problem -> System.err.println("  " + problem));
+            System.err.println("Shard verification failed with " + problems.size()
+                    + " problem(s)");
+            return ERROR_EXIT_CODE;
+        }
+
+        int files = shards.stream().mapToInt(shard -> shard.getFiles().size()).sum();
+        int tests = shards.stream().mapToInt(ShardManifest::getTests).sum();
+        System.out.println("All " + shards.get(0).getShardCount() + " shards together "
+                + "processed " + files + " files and " + tests + " tests");
+        return SUCCESS_EXIT_CODE;
+    }
+}
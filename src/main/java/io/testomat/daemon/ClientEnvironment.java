@@ -0,0 +1,145 @@
+package io.testomat.daemon;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import picocli.CommandLine;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
+
+/**
+ * The {@code TESTOMATIO*} environment of a client, which the daemon uses in place of its
+ * own. Option defaults such as {@code ${env:TESTOMATIO_MAX_RPS:-0}} are resolved against it
+ * as a picocli default value provider; a variable the client does not send is unset.
+ *
+ * <p>Variables read outside option defaults, such as {@code TESTOMATIO_CACHE_DIR}, and
+ * defaults without a fallback that the client leaves unset would still come from the
+ * daemon environment, so {@link #conflicts} lists those that differ and the daemon leaves
+ * such commands to a regular process.
+ */
+final class ClientEnvironment implements CommandLine.IDefaultValueProvider {
+    private static final String PREFIX = "TESTOMATIO";
+    private static final Pattern ENV_DEFAULT = Pattern.compile("\\$\\{env:(\\w+)(:-(.*))?}");
+
+    /**
+     * Read by the launcher scripts only, never by a command.
+     */
+    private static final Set<String> LAUNCHER_VARIABLES =
+            Set.of("TESTOMATIO_CDS", "TESTOMATIO_DAEMON");
+
+    private final Map<String, String> variables;
+
+    ClientEnvironment(Map<String, String> variables) {
+        this.variables = variables;
+    }
+
+    /**
+     * The {@code TESTOMATIO} and {@code TESTOMATIO_*} variables of an environment.
+     */
+    static Map<String, String> select(Map<String, String> environment) {
+        Map<String, String> selected = new TreeMap<>();
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            if (isTestomatio(entry.getKey())) {
+                selected.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public String defaultValue(ArgSpec argSpec) {
+        Matcher matcher = envDefault(argSpec);
+        if (matcher == null) {
+            return null;
+        }
+        String value = variables.get(matcher.group(1));
+        if (value == null) {
+            value = matcher.group(3);
+        }
+        // picocli interpolates provided defaults, so keep client values literal
+        return value == null ? null : value.replace("${", "$${");
+    }
+
+    /**
+     * Names of the variables that would make {@code commands} behave differently in the
+     * daemon than in a process started with the client environment.
+     *
+     * @param daemonVariables the {@code TESTOMATIO*} environment of the daemon
+     */
+    List<String> conflicts(CommandSpec commands, Map<String, String> daemonVariables) {
+        Set<String> resolved = new HashSet<>();
+        Set<String> withoutFallback = new HashSet<>();
+        collectEnvDefaults(commands, resolved, withoutFallback, new HashSet<>());
+
+        Set<String> names = new TreeSet<>(variables.keySet());
+        names.addAll(daemonVariables.keySet());
+        List<String> conflicts = new ArrayList<>();
+        for (String name : names) {
+            String client = variables.get(name);
+            String daemon = daemonVariables.get(name);
+            boolean conflict;
+            if (LAUNCHER_VARIABLES.contains(name)) {
+                conflict = false;
+            } else if (withoutFallback.contains(name)) {
+                conflict = client == null && daemon != null;
+            } else {
+                conflict = !resolved.contains(name) && !Objects.equals(client, daemon);
+            }
+            if (conflict) {
+                conflicts.add(name);
+            }
+        }
+        return conflicts;
+    }
+
+    private static void collectEnvDefaults(CommandSpec spec, Set<String> resolved,
+                                           Set<String> withoutFallback,
+                                           Set<CommandSpec> visited) {
+        if (!visited.add(spec)) {
+            return;
+        }
+        for (OptionSpec option : spec.options()) {
+            Matcher matcher = envDefault(option);
+            if (matcher != null) {
+                resolved.add(matcher.group(1));
+                if (matcher.group(2) == null) {
+                    withoutFallback.add(matcher.group(1));
+                }
+            }
+        }
+        for (CommandLine subcommand : spec.subcommands().values()) {
+            collectEnvDefaults(subcommand.getCommandSpec(), resolved, withoutFallback, visited);
+        }
+    }
+
+    /**
+     * Matches the default as written in the {@code @Option} annotation; picocli only hands
+     * out defaults with the variables of the daemon already filled in.
+     */
+    private static Matcher envDefault(ArgSpec argSpec) {
+        Object element = argSpec.userObject();
+        if (!(element instanceof AnnotatedElement)) {
+            return null;
+        }
+        CommandLine.Option option = ((AnnotatedElement) element)
+                .getAnnotation(CommandLine.Option.class);
+        if (option == null) {
+            return null;
+        }
+        Matcher matcher = ENV_DEFAULT.matcher(option.defaultValue());
+        return matcher.matches() ? matcher : null;
+    }
+
+    private static boolean isTestomatio(String name) {
+        return name.equals(PREFIX) || name.startsWith(PREFIX + "_");
+    }
+}
@@ -0,0 +1,62 @@
+package io.testomat.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends one request to a running daemon and replays its output. The shell client
+ * {@code testomatio-client} speaks the same protocol for the run requests of the launcher.
+ */
+public final class DaemonClient {
+
+    /**
+     * Exit code telling the caller to run the command itself: no daemon is reachable, the
+     * token was rejected or the daemon does not serve the command. It is {@code EX_TEMPFAIL}
+     * from {@code sysexits.h}.
+     */
+    public static final int UNAVAILABLE_EXIT_CODE = 75;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+    private final DaemonEndpoint endpoint;
+
+    public DaemonClient(DaemonEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Sends the request, copies the daemon output to {@code out} and {@code err} and returns
+     * the exit code of the command.
+     *
+     * @throws IOException if the daemon cannot be reached or drops the connection
+     */
+    public int send(DaemonRequest request, PrintStream out, PrintStream err) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    endpoint.getPort()), CONNECT_TIMEOUT_MILLIS);
+            request.writeTo(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8));
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("out ")) {
+                    out.println(line.substring(4));
+                } else if (line.startsWith("err ")) {
+                    err.println(line.substring(4));
+                } else if (line.startsWith("exit ")) {
+                    return Integer.parseInt(line.substring(5).trim());
+                }
+            }
+            throw new IOException("Daemon closed the connection before the command finished");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.testomat.daemon;
+
+import io.testomat.client.TestDataCache;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Where a running daemon listens and the token a client must present. The daemon publishes
+ * it in {@code daemon.properties} inside the cache directory, readable by the owner only,
+ * so that only the user who started the daemon can send it commands.
+ */
+public final class DaemonEndpoint {
+    private static final String STATE_FILE_NAME = "daemon.properties";
+    private static final String PORT_PROPERTY = "port";
+    private static final String TOKEN_PROPERTY = "token";
+    private static final String PID_PROPERTY = "pid";
+
+    private final int port;
+    private final String token;
+    private final long pid;
+
+    public DaemonEndpoint(int port, String token, long pid) {
+        this.port = port;
+        this.token = token;
+        this.pid = pid;
+    }
+
+    public static Path defaultStateFile() {
+        return TestDataCache.defaultCacheDirectory().resolve(STATE_FILE_NAME);
+    }
+
+    /**
+     * Reads the endpoint of a running daemon, or returns empty when none was published.
+     */
+    public static Optional<DaemonEndpoint> read(Path stateFile) {
+        if (!Files.isRegularFile(stateFile)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            properties.load(in);
+            return Optional.of(new DaemonEndpoint(
+                    Integer.parseInt(properties.getProperty(PORT_PROPERTY)),
+                    properties.getProperty(TOKEN_PROPERTY),
+                    Long.parseLong(properties.getProperty(PID_PROPERTY, "-1"))));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Publishes this endpoint, replacing the state file atomically.
+     */
+    public void write(Path stateFile) throws IOException {
+        Files.createDirectories(stateFile.toAbsolutePath().getParent());
+        Path temporary = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(temporary, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rw-------")));
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(PORT_PROPERTY, String.valueOf(port));
+        properties.setProperty(TOKEN_PROPERTY, token);
+        properties.setProperty(PID_PROPERTY, String.valueOf(pid));
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            properties.store(out, "testomatio daemon");
+        }
+        Files.move(temporary, stateFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Removes the state file if it still describes this endpoint; a newer daemon may have
+     * replaced it in the meantime.
+     */
+    public void delete(Path stateFile) {
+        Optional<DaemonEndpoint> published = read(stateFile);
+        if (published.isPresent() && token.equals(published.get().token)) {
+            try {
+                Files.deleteIfExists(stateFile);
+            } catch (IOException e) {
+                // a stale file is detected by the client when the connection is refused
+            }
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getPid() {
+        return pid;
+    }
+}
@@ -0,0 +1,301 @@
+package io.testomat.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import picocli.CommandLine;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
+
+/**
+ * One request to the daemon. The wire format is line based UTF-8 text, simple enough for
+ * the shell client to produce with {@code printf}:
+ * <pre>
+ * testomatio-daemon/1
+ * token &lt;token&gt;
+ * op run|status|stop
+ * cwd &lt;absolute working directory of the client&gt;
+ * env TESTOMATIO=&lt;value&gt;   (one line per TESTOMATIO* variable of the client)
+ * arg &lt;argument&gt;          (one line per command line argument)
+ * end
+ * </pre>
+ * The {@code env} lines carry the whole {@code TESTOMATIO*} environment of the client; a
+ * variable without a line is unset. The daemon answers with {@code out <line>} and
+ * {@code err <line>} lines and a final {@code exit <code>}.
+ */
+public final class DaemonRequest {
+    public static final String PROTOCOL = "testomatio-daemon/1";
+    public static final String OP_RUN = "run";
+    public static final String OP_STATUS = "status";
+    public static final String OP_STOP = "stop";
+
+    /**
+     * Commands the daemon runs; everything else is left to a regular process.
+     */
+    public static final Set<String> FORWARDED_COMMANDS =
+            Set.of("import", "pull-ids", "sync", "update-ids", "clean-ids");
+
+    /**
+     * Options taking a path, by their longest name.
+     */
+    private static final Set<String> PATH_OPTIONS = Set.of("--directory", "--stats-json",
+            "--shard-manifest", "--error-report");
+    private static final String DIRECTORY_OPTION = "--directory";
+
+    private final String token;
+    private final String op;
+    private final String cwd;
+    private final Map<String, String> env;
+    private final List<String> args;
+
+    public DaemonRequest(String token, String op, String cwd, Map<String, String> env,
+                         List<String> args) {
+        this.token = token;
+        this.op = op;
+        this.cwd = cwd;
+        this.env = env;
+        this.args = args;
+    }
+
+    /**
+     * Builds a request to run {@code args} as if they were typed in the current directory
+     * with the current environment.
+     */
+    public static DaemonRequest run(String token, List<String> args) {
+        return new DaemonRequest(token, OP_RUN, Paths.get("").toAbsolutePath().toString(),
+                ClientEnvironment.select(System.getenv()), args);
+    }
+
+    public static DaemonRequest control(String token, String op) {
+        return new DaemonRequest(token, op, null, Collections.emptyMap(),
+                Collections.emptyList());
+    }
+
+    /**
+     * Reads a request, failing on anything that does not follow the protocol.
+     */
+    public static DaemonRequest read(BufferedReader reader) throws IOException {
+        if (!PROTOCOL.equals(reader.readLine())) {
+            throw new IOException("Not a " + PROTOCOL + " request");
+        }
+        String token = null;
+        String op = null;
+        String cwd = null;
+        Map<String, String> env = new LinkedHashMap<>();
+        List<String> args = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null && !"end".equals(line)) {
+            int space = line.indexOf(' ');
+            String key = space < 0 ? line : line.substring(0, space);
+            String value = space < 0 ? "" : line.substring(space + 1);
+            switch (key) {
+                case "token":
+                    token = value;
+                    break;
+                case "op":
+                    op = value;
+                    break;
+                case "cwd":
+                    cwd = value;
+                    break;
+                case "env":
+                    int equals = value.indexOf('=');
+                    if (equals > 0) {
+                        env.put(value.substring(0, equals), value.substring(equals + 1));
+                    }
+                    break;
+                case "arg":
+                    args.add(value);
+                    break;
+                default:
+                    throw new IOException("Unknown request line: " + key);
+            }
+        }
+        if (line == null) {
+            throw new IOException("Request ended before 'end'");
+        }
+        if (op == null) {
+            throw new IOException("Request has no op");
+        }
+        return new DaemonRequest(token, op, cwd, env, args);
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(PROTOCOL + "\n");
+        writer.write("token " + token + "\n");
+        writer.write("op " + op + "\n");
+        if (cwd != null) {
+            writer.write("cwd " + cwd + "\n");
+        }
+        for (Map.Entry<String, String> entry : env.entrySet()) {
+            if (entry.getValue().indexOf('\n') >= 0) {
+                throw new IOException("Variables with line breaks cannot be forwarded");
+            }
+            writer.write("env " + entry.getKey() + "=" + entry.getValue() + "\n");
+        }
+        for (String arg : args) {
+            if (arg.indexOf('\n') >= 0) {
+                throw new IOException("Arguments with line breaks cannot be forwarded");
+            }
+            writer.write("arg " + arg + "\n");
+        }
+        writer.write("end\n");
+        writer.flush();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public String getCommand() {
+        return args.isEmpty() ? null : args.get(0);
+    }
+
+    /**
+     * Tells whether the daemon runs this command; watch mode never finishes and would
+     * block every other client.
+     */
+    public boolean isForwardable() {
+        return FORWARDED_COMMANDS.contains(getCommand()) && !args.contains("--watch");
+    }
+
+    /**
+     * Returns the option defaults of the client environment, to be used in place of those of
+     * the daemon process.
+     */
+    public CommandLine.IDefaultValueProvider defaultValues() {
+        return new ClientEnvironment(env);
+    }
+
+    /**
+     * Names the {@code TESTOMATIO*} variables that differ between the client and the daemon
+     * in a way {@link #defaultValues()} cannot make up for; if there are any, the command
+     * has to run in a process of its own.
+     *
+     * @param daemonEnv the environment of the daemon process
+     */
+    public List<String> environmentConflicts(CommandSpec commands,
+                                             Map<String, String> daemonEnv) {
+        return new ClientEnvironment(env).conflicts(commands,
+                ClientEnvironment.select(daemonEnv));
+    }
+
+    /**
+     * Returns the arguments to execute in the daemon process. Its working directory is that
+     * of whoever started the daemon, so relative paths are resolved against the client
+     * directory and the directory defaults to it. Options are recognised with the option
+     * names of the command in {@code commands}, in every form picocli accepts.
+     */
+    public String[] resolveArguments(CommandSpec commands) {
+        if (cwd == null) {
+            throw new IllegalStateException("Run request has no working directory");
+        }
+        CommandLine command = commands.subcommands().get(getCommand());
+        if (command == null) {
+            throw new IllegalStateException("Unknown command: " + getCommand());
+        }
+        CommandSpec spec = command.getCommandSpec();
+        Path base = Paths.get(cwd);
+        List<String> resolved = new ArrayList<>();
+        resolved.add(args.get(0));
+        boolean hasDirectory = false;
+        for (int i = 1; i < args.size(); i++) {
+            String arg = args.get(i);
+            if ("--".equals(arg)) {
+                resolved.addAll(args.subList(i, args.size()));
+                break;
+            }
+            OptionArgument option = OptionArgument.parse(spec, arg);
+            if (option == null) {
+                resolved.add(arg);
+                continue;
+            }
+            String name = option.spec.longestName();
+            boolean isPath = PATH_OPTIONS.contains(name);
+            hasDirectory |= DIRECTORY_OPTION.equals(name);
+            if (option.value != null) {
+                resolved.add(isPath ? option.prefix + resolve(base, option.value) : arg);
+            } else {
+                resolved.add(arg);
+                if (option.spec.arity().min() > 0 && i + 1 < args.size()) {
+                    String value = args.get(++i);
+                    resolved.add(isPath ? resolve(base, value) : value);
+                }
+            }
+        }
+        if (!hasDirectory) {
+            resolved.add(DIRECTORY_OPTION + "=" + base);
+        }
+        return resolved.toArray(new String[0]);
+    }
+
+    private static String resolve(Path base, String path) {
+        return base.resolve(path).normalize().toString();
+    }
+
+    /**
+     * One argument naming an option, split into the text up to the option value and the
+     * value, if it is attached.
+     */
+    private static final class OptionArgument {
+        private final OptionSpec spec;
+        private final String prefix;
+        private final String value;
+
+        private OptionArgument(OptionSpec spec, String prefix, String value) {
+            this.spec = spec;
+            this.prefix = prefix;
+            this.value = value;
+        }
+
+        /**
+         * Recognises {@code --name}, {@code --name=value}, {@code -n value},
+         * {@code -nvalue} and clustered flags such as {@code -vnvalue}, or returns
+         * {@code null} for anything else.
+         */
+        static OptionArgument parse(CommandSpec spec, String arg) {
+            if (!arg.startsWith("-") || arg.length() < 2) {
+                return null;
+            }
+            int equals = arg.indexOf('=');
+            String name = equals > 0 ? arg.substring(0, equals) : arg;
+            OptionSpec option = spec.optionsMap().get(name);
+            if (option != null) {
+                return new OptionArgument(option, name + "=",
+                        equals > 0 ? arg.substring(equals + 1) : null);
+            }
+            if (arg.startsWith("--")) {
+                return null;
+            }
+            for (int i = 1; i < arg.length(); i++) {
+                OptionSpec clustered = spec.posixOptionsMap().get(arg.charAt(i));
+                if (clustered == null) {
+                    return null;
+                }
+                if (clustered.arity().min() > 0) {
+                    String prefix = arg.substring(0, i + 1);
+                    String value = arg.substring(i + 1);
+                    if (value.startsWith("=")) {
+                        prefix += "=";
+                        value = value.substring(1);
+                    }
+                    return new OptionArgument(clustered, prefix,
+                            value.isEmpty() ? null : value);
+                }
+            }
+            return null;
+        }
+    }
+}
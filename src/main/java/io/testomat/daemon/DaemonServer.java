@@ -0,0 +1,288 @@
+package io.testomat.daemon;
+
+import io.testomat.progressbar.ProgressMode;
+import io.testomat.service.WarmState;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import picocli.CommandLine;
+
+/**
+ * Serves CLI commands from one long-lived process, so repeated runs skip JVM startup and
+ * JIT warmup and reuse the sources, scans and test maps kept in {@link WarmState}.
+ *
+ * <p>The server listens on a loopback port and accepts requests from clients that know the
+ * token published in the {@link DaemonEndpoint} state file. Requests run one at a time on
+ * the accepting thread: commands print through {@code System.out} and {@code System.err},
+ * which are redirected to the connection of the current request while it runs.
+ */
+public final class DaemonServer implements Closeable {
+    private static final int TOKEN_BYTES = 16;
+    private static final int REQUEST_READ_TIMEOUT_MILLIS = 10_000;
+
+    private final Supplier<CommandLine> commands;
+    private final Duration idleTimeout;
+    private final Path stateFile;
+    private final PrintStream console;
+    private ServerSocket serverSocket;
+    private DaemonEndpoint endpoint;
+    private volatile boolean running;
+    private long startMillis;
+    private long servedRequests;
+
+    /**
+     * Creates a server that runs each request on a fresh command line from {@code commands}.
+     *
+     * @param idleTimeout how long to wait for a request before exiting, zero for no limit
+     * @param stateFile where to publish the endpoint, or {@code null} to keep it private
+     */
+    public DaemonServer(Supplier<CommandLine> commands, Duration idleTimeout,
+                        Path stateFile) {
+        this.commands = commands;
+        this.idleTimeout = idleTimeout;
+        this.stateFile = stateFile;
+        this.console = System.out;
+    }
+
+    /**
+     * Binds the port, enables warm state for at most {@code maxCachedFiles} parsed sources
+     * and publishes the endpoint.
+     *
+     * @param port loopback port to listen on, zero for any free port
+     */
+    public DaemonEndpoint start(int port, int maxCachedFiles) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, idleTimeout.toMillis()));
+        endpoint = new DaemonEndpoint(serverSocket.getLocalPort(), newToken(),
+                ProcessHandle.current().pid());
+        if (stateFile != null) {
+            endpoint.write(stateFile);
+        }
+        WarmState.enable(maxCachedFiles);
+        startMillis = System.currentTimeMillis();
+        running = true;
+        return endpoint;
+    }
+
+    /**
+     * Serves requests until a stop request arrives, the idle timeout passes or the server
+     * is closed.
+     */
+    public void serve() {
+        while (running) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (SocketTimeoutException e) {
+                console.println("No requests for " + idleTimeout.toMinutes()
+                        + " minutes, stopping");
+                running = false;
+            } catch (SocketException e) {
+                if (running) {
+                    console.println("Daemon connection failed: " + e.getMessage());
+                }
+            } catch (IOException | RuntimeException e) {
+                console.println("Daemon request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        WarmState.disable();
+        if (endpoint != null && stateFile != null) {
+            endpoint.delete(stateFile);
+        }
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        socket.setSoTimeout(REQUEST_READ_TIMEOUT_MILLIS);
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        DaemonRequest request = DaemonRequest.read(reader);
+        socket.setSoTimeout(0);
+
+        if (!isAuthorized(request)) {
+            respond(writer, "err", "Rejected request with an invalid daemon token");
+            exit(writer, DaemonClient.UNAVAILABLE_EXIT_CODE);
+            return;
+        }
+
+        switch (request.getOp()) {
+            case DaemonRequest.OP_STATUS:
+                respond(writer, "out", "Daemon pid " + endpoint.getPid() + " on port "
+                        + endpoint.getPort() + ", up " + uptimeSeconds() + "s, served "
+                        + servedRequests + " requests");
+                respond(writer, "out", WarmState.get().describe());
+                exit(writer, 0);
+                break;
+            case DaemonRequest.OP_STOP:
+                respond(writer, "out", "Daemon stopped");
+                exit(writer, 0);
+                running = false;
+                break;
+            case DaemonRequest.OP_RUN:
+                exit(writer, run(request, writer));
+                break;
+            default:
+                respond(writer, "err", "Unknown daemon operation: " + request.getOp());
+                exit(writer, 2);
+        }
+    }
+
+    private int run(DaemonRequest request, Writer writer) {
+        if (!request.isForwardable()) {
+            return DaemonClient.UNAVAILABLE_EXIT_CODE;
+        }
+        CommandLine commandLine = commands.get();
+        List<String> conflicts = request.environmentConflicts(commandLine.getCommandSpec(),
+                System.getenv());
+        if (!conflicts.isEmpty()) {
+            console.println("Left " + request.getCommand() + " to the client, whose "
+                    + "environment differs in " + String.join(", ", conflicts));
+            return DaemonClient.UNAVAILABLE_EXIT_CODE;
+        }
+        commandLine.setDefaultValueProvider(request.defaultValues());
+
+        final long start = System.nanoTime();
+        FramedOutputStream outFrames = new FramedOutputStream(writer, "out");
+        FramedOutputStream errFrames = new FramedOutputStream(writer, "err");
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        int exitCode;
+        try {
+            System.setOut(new PrintStream(outFrames, true, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(errFrames, true, StandardCharsets.UTF_8));
+            // progress goes through a socket, never to a terminal the daemon could detect
+            ProgressMode.configure(ProgressMode.PLAIN);
+            exitCode = commandLine.execute(
+                    request.resolveArguments(commandLine.getCommandSpec()));
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            ProgressMode.configure(ProgressMode.AUTO);
+        }
+        outFrames.finish();
+        errFrames.finish();
+
+        servedRequests++;
+        console.println("Served " + request.getCommand() + " in "
+                + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms, exit code "
+                + exitCode);
+        return exitCode;
+    }
+
+    private boolean isAuthorized(DaemonRequest request) {
+        return request.getToken() != null && MessageDigest.isEqual(
+                endpoint.getToken().getBytes(StandardCharsets.UTF_8),
+                request.getToken().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long uptimeSeconds() {
+        return (System.currentTimeMillis() - startMillis) / 1000;
+    }
+
+    private static void respond(Writer writer, String kind, String text) throws IOException {
+        synchronized (writer) {
+            writer.write(kind + " " + text + "\n");
+            writer.flush();
+        }
+    }
+
+    private static void exit(Writer writer, int exitCode) throws IOException {
+        respond(writer, "exit", String.valueOf(exitCode));
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Turns everything written to it into {@code <kind> <line>} response lines. Partial
+     * lines are held back until their line break, or until {@link #finish()}.
+     */
+    private static final class FramedOutputStream extends OutputStream {
+        private final Writer writer;
+        private final String kind;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        FramedOutputStream(Writer writer, String kind) {
+            this.writer = writer;
+            this.kind = kind;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (b == '\n') {
+                emitLine();
+            } else {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length)
+                throws IOException {
+            int start = offset;
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, start, i - start);
+                    emitLine();
+                    start = i + 1;
+                }
+            }
+            line.write(bytes, start, offset + length - start);
+        }
+
+        synchronized void finish() {
+            if (line.size() > 0) {
+                try {
+                    emitLine();
+                } catch (IOException e) {
+                    // the client went away; the command has already completed
+                }
+            }
+        }
+
+        private void emitLine() throws IOException {
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            respond(writer, kind, text);
+        }
+    }
+}
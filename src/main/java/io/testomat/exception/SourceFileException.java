@@ -0,0 +1,45 @@
+package io.testomat.exception;
+
+/**
+ * A source file that could not be processed and was skipped, with the reason for the
+ * error report.
+ */
+public class SourceFileException extends CliException {
+
+    /**
+     * Why a file was skipped; the label is used in reports.
+     */
+    public enum Reason {
+        TOO_LARGE("too-large"),
+        TIMEOUT("timeout"),
+        UNREADABLE("unreadable"),
+        PARSE_ERROR("parse-error"),
+        ERROR("error");
+
+        private final String label;
+
+        Reason(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final Reason reason;
+
+    public SourceFileException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public SourceFileException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,18 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.testomat.Extract")
+@Label("Test Extraction")
+@Description("Test method extraction from one parsed source file")
+public class ExtractEvent extends PipelineEvent {
+
+    @Label("Framework")
+    private String framework;
+
+    public void setFramework(String framework) {
+        this.framework = framework;
+    }
+}
@@ -0,0 +1,29 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One HTTP exchange with the server. The path holds the request URL without its query
+ * string, so API keys never end up in a recording.
+ */
+@Name("io.testomat.HttpRequest")
+@Label("HTTP Request")
+@Description("Single request attempt sent to the testomat.io API")
+public class HttpRequestEvent extends PipelineEvent {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Status")
+    private int status;
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,18 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.testomat.Parse")
+@Label("Source Parse")
+@Description("JavaParser run over one source file")
+public class ParseEvent extends PipelineEvent {
+
+    @Label("Failed")
+    private boolean failed;
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+}
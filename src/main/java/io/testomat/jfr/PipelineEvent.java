@@ -0,0 +1,43 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the Java Flight Recorder events emitted by the CLI pipeline. Every event carries
+ * the file or URL it worked on, the number of bytes involved and the number of tests, next
+ * to the duration JFR records between {@link #begin()} and {@link #commit()}.
+ *
+ * <p>Events cost next to nothing unless a recording is running, so callers only fill in the
+ * fields after {@link #shouldCommit()} returns {@code true}. The shared fields are protected
+ * because JFR ignores private fields declared in a superclass.
+ */
+@Category({"Testomat CLI", "Pipeline"})
+@StackTrace(false)
+public abstract class PipelineEvent extends Event {
+
+    @Label("Path")
+    protected String path;
+
+    @Label("Size")
+    @DataAmount
+    protected long bytes;
+
+    @Label("Tests")
+    protected int testCount;
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setTestCount(int testCount) {
+        this.testCount = testCount;
+    }
+}
@@ -0,0 +1,11 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.testomat.Rewrite")
+@Label("Source Rewrite")
+@Description("Test ID annotations and imports written back to one source file")
+public class RewriteEvent extends PipelineEvent {
+}
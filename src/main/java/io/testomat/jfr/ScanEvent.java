@@ -0,0 +1,25 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.testomat.Scan")
+@Label("Source Scan")
+@Description("Directory tree walk looking for Java sources")
+public class ScanEvent extends PipelineEvent {
+
+    @Label("Directories")
+    private int directories;
+
+    @Label("Files")
+    private int files;
+
+    public void setDirectories(int directories) {
+        this.directories = directories;
+    }
+
+    public void setFiles(int files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,11 @@
+package io.testomat.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.testomat.Serialize")
+@Label("Batch Serialization")
+@Description("JSON request body built for one batch of tests")
+public class SerializeEvent extends PipelineEvent {
+}
@@ -0,0 +1,33 @@
+package io.testomat.model;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.Getter;
+
+/**
+ * A Maven or Gradle module found below the import directory: the directory that holds
+ * {@code src/<set>/java} source roots, together with the Java files found in them.
+ */
+@Getter
+public class SourceModule {
+    private final String name;
+    private final Path directory;
+    private final Set<Path> sourceRoots = new TreeSet<>();
+    private final List<File> files = new ArrayList<>();
+
+    public SourceModule(String name, Path directory) {
+        this.name = name;
+        this.directory = directory;
+    }
+
+    public void addFile(Path sourceRoot, File file) {
+        if (sourceRoot != null) {
+            sourceRoots.add(sourceRoot);
+        }
+        files.add(file);
+    }
+}
@@ -2,6 +2,10 @@ package io.testomat.model;
 
 import java.util.List;
 
+/**
+ * A test method as sent to Testomat.io. The suite and label lists produced by the
+ * extractor are unmodifiable and shared between test cases with the same values.
+ */
 public class TestCase {
     private String name;
     private List<String> suites;
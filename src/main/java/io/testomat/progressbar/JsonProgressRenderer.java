@@ -0,0 +1,73 @@
+package io.testomat.progressbar;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits progress as newline-delimited JSON, one object per event:
+ * <pre>
+ * {"event":"progress","task":"Parsing 120 files","current":40,"total":120,"timestamp":...}
+ * {"event":"finish","task":"Parsing 120 files","current":120,"total":120,"timestamp":...}
+ * {"event":"status","message":"Sending test data to server...","timestamp":...}
+ * </pre>
+ */
+public class JsonProgressRenderer implements ProgressRenderer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final PrintStream out;
+
+    public JsonProgressRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public long minIntervalNanos() {
+        return MIN_INTERVAL_NANOS;
+    }
+
+    @Override
+    public void update(String task, int current, int total) {
+        write(progressEvent("progress", task, current, total));
+    }
+
+    @Override
+    public void finish(String task, int total) {
+        write(progressEvent("finish", task, total, total));
+    }
+
+    public void status(String message) {
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("event", "status");
+        event.put("message", message);
+        event.put("timestamp", System.currentTimeMillis());
+        write(event);
+    }
+
+    private ObjectNode progressEvent(String type, String task, int current, int total) {
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("event", type);
+        event.put("task", task);
+        event.put("current", current);
+        event.put("total", total);
+        event.put("timestamp", System.currentTimeMillis());
+        return event;
+    }
+
+    private void write(ObjectNode event) {
+        String line;
+        try {
+            line = MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write progress event", e);
+        }
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
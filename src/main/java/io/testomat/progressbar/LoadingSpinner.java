@@ -2,6 +2,10 @@ package io.testomat.progressbar;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Shows that a step of unknown length is running. Only a terminal gets the animation; plain
+ * output prints the message once and {@code --progress=json} emits it as a status event.
+ */
 @Slf4j
 public class LoadingSpinner {
     private static final String[] SPINNER_CHARS = {"|", "/", "-", "\\"};
@@ -19,6 +23,19 @@ public class LoadingSpinner {
         }
 
         running = true;
+        ProgressMode mode = ProgressMode.active();
+        if (mode == ProgressMode.PLAIN) {
+            System.out.println(message);
+            return;
+        }
+        if (mode == ProgressMode.JSON) {
+            new JsonProgressRenderer(System.err).status(message);
+            return;
+        }
+        if (mode != ProgressMode.TTY) {
+            return;
+        }
+
         spinnerThread = new Thread(() -> {
             int index = 0;
             while (running) {
@@ -42,14 +59,16 @@ public class LoadingSpinner {
 
     public void stop() {
         running = false;
-        if (spinnerThread != null) {
-            spinnerThread.interrupt();
-            try {
-                spinnerThread.join(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        if (spinnerThread == null) {
+            return;
+        }
+        spinnerThread.interrupt();
+        try {
+            spinnerThread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        spinnerThread = null;
         // Clear the spinner line
         System.out.print("\r" + " ".repeat(message.length() + 2) + "\r");
         System.out.flush();
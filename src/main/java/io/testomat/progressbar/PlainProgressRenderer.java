@@ -0,0 +1,45 @@
+package io.testomat.progressbar;
+
+import java.io.PrintStream;
+
+/**
+ * Writes one log line per completed tenth of the work, for CI logs and other output that
+ * is not a terminal.
+ */
+public class PlainProgressRenderer implements ProgressRenderer {
+
+    private static final int STEPS = 10;
+
+    private final PrintStream out;
+    private int lastStep;
+
+    public PlainProgressRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public long minIntervalNanos() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void update(String task, int current, int total) {
+        int step = total > 0 ? (int) ((long) current * STEPS / total) : STEPS;
+        if (step > lastStep) {
+            lastStep = step;
+            print(task, current, total);
+        }
+    }
+
+    @Override
+    public synchronized void finish(String task, int total) {
+        if (lastStep < STEPS) {
+            lastStep = STEPS;
+            print(task, total, total);
+        }
+    }
+
+    private void print(String task, int current, int total) {
+        out.println(task + ": " + lastStep * (100 / STEPS) + "% (" + current + "/" + total + ")");
+    }
+}
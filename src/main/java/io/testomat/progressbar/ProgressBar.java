@@ -1,62 +1,70 @@
 package io.testomat.progressbar;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a task with a known amount of work. Workers on any thread report through a
+ * lock-free counter; drawing is throttled to the renderer's interval and done by whichever
+ * thread claims the next slot, so reporting never waits on terminal I/O.
+ */
 public class ProgressBar {
     private final int total;
-    private final int barLength;
-    private int current;
-    private String taskName;
+    private final String taskName;
+    private final ProgressRenderer renderer;
+    private final AtomicInteger current = new AtomicInteger();
+    private final AtomicLong nextRenderNanos;
+    private final AtomicBoolean finished = new AtomicBoolean();
 
     public ProgressBar(int total, String taskName) {
+        this(total, taskName, ProgressRenderer.forMode(ProgressMode.active()));
+    }
+
+    public ProgressBar(int total, String taskName, ProgressRenderer renderer) {
         this.total = total;
-        this.barLength = 50;
-        this.current = 0;
         this.taskName = taskName;
+        this.renderer = renderer;
+        this.nextRenderNanos = new AtomicLong(System.nanoTime());
     }
 
+    /**
+     * Moves progress forward to {@code current}; lower values reported late by a slower
+     * worker are ignored.
+     */
     public void update(int current) {
-        this.current = current;
-        printProgress();
+        this.current.accumulateAndGet(current, Math::max);
+        render();
     }
 
     public void increment() {
-        this.current++;
-        printProgress();
+        current.incrementAndGet();
+        render();
     }
 
     public void finish() {
-        this.current = total;
-        printProgress();
-        System.out.println();
+        if (finished.compareAndSet(false, true)) {
+            current.set(total);
+            renderer.finish(taskName, total);
+        }
     }
 
     public int getTotal() {
         return total;
     }
 
-    private void printProgress() {
-        double percentage = (double) current / total;
-        int progress = (int) (percentage * barLength);
-
-        StringBuilder bar = new StringBuilder();
-        bar.append("\r").append(taskName).append(" [");
+    public int getCurrent() {
+        return current.get();
+    }
 
-        for (int i = 0; i < barLength; i++) {
-            if (i < progress) {
-                bar.append("█");
-            } else {
-                bar.append("░");
-            }
+    private void render() {
+        long now = System.nanoTime();
+        long next = nextRenderNanos.get();
+        if (now - next < 0 || finished.get()) {
+            return;
+        }
+        if (nextRenderNanos.compareAndSet(next, now + renderer.minIntervalNanos())) {
+            renderer.update(taskName, current.get(), total);
         }
-
-        bar.append("] ")
-                .append(String.format("%.1f%%", percentage * 100))
-                .append(" (")
-                .append(current)
-                .append("/")
-                .append(total)
-                .append(")");
-
-        System.out.print(bar.toString());
-        System.out.flush();
     }
 }
@@ -0,0 +1,41 @@
+package io.testomat.progressbar;
+
+import java.util.Locale;
+
+/**
+ * How progress is reported. The mode is process wide and chosen once by the command line;
+ * {@link #AUTO} picks {@link #TTY} when attached to a terminal and {@link #PLAIN} otherwise.
+ */
+public enum ProgressMode {
+    AUTO,
+    TTY,
+    PLAIN,
+    JSON,
+    NONE;
+
+    private static volatile ProgressMode configured = AUTO;
+
+    public static void configure(ProgressMode mode) {
+        configured = mode;
+    }
+
+    /**
+     * Returns the configured mode with {@link #AUTO} resolved against the current console.
+     */
+    public static ProgressMode active() {
+        ProgressMode mode = configured;
+        if (mode != AUTO) {
+            return mode;
+        }
+        return System.console() != null ? TTY : PLAIN;
+    }
+
+    public static ProgressMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown progress mode '" + value
+                    + "', expected one of auto, tty, plain, json, none");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.testomat.progressbar;
+
+/**
+ * Draws the state of a {@link ProgressBar}. Renderers are called from whichever worker
+ * thread wins the throttle, so implementations synchronize their own output.
+ */
+public interface ProgressRenderer {
+
+    ProgressRenderer SILENT = new ProgressRenderer() {
+        @Override
+        public long minIntervalNanos() {
+            return 0;
+        }
+
+        @Override
+        public void update(String task, int current, int total) {
+        }
+
+        @Override
+        public void finish(String task, int total) {
+        }
+    };
+
+    /**
+     * Minimum time between two {@link #update} calls for the same bar.
+     */
+    long minIntervalNanos();
+
+    void update(String task, int current, int total);
+
+    void finish(String task, int total);
+
+    static ProgressRenderer forMode(ProgressMode mode) {
+        switch (mode) {
+            case TTY:
+                return new TtyProgressRenderer(System.out);
+            case JSON:
+                return new JsonProgressRenderer(System.err);
+            case NONE:
+                return SILENT;
+            default:
+                return new PlainProgressRenderer(System.out);
+        }
+    }
+}
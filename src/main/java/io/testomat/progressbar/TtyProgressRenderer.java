@@ -0,0 +1,54 @@
+package io.testomat.progressbar;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redraws a single terminal line with a carriage return, at most ten times a second.
+ */
+public class TtyProgressRenderer implements ProgressRenderer {
+
+    private static final int BAR_LENGTH = 50;
+    private static final String FILLED = "█".repeat(BAR_LENGTH);
+    private static final String EMPTY = "░".repeat(BAR_LENGTH);
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final PrintStream out;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public TtyProgressRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public long minIntervalNanos() {
+        return MIN_INTERVAL_NANOS;
+    }
+
+    @Override
+    public synchronized void update(String task, int current, int total) {
+        draw(task, current, total);
+        out.flush();
+    }
+
+    @Override
+    public synchronized void finish(String task, int total) {
+        draw(task, total, total);
+        out.println();
+        out.flush();
+    }
+
+    private void draw(String task, int current, int total) {
+        long permille = total > 0 ? current * 1000L / total : 1000;
+        int filled = (int) (permille * BAR_LENGTH / 1000);
+
+        line.setLength(0);
+        line.append('\r').append(task).append(" [")
+                .append(FILLED, 0, filled)
+                .append(EMPTY, filled, BAR_LENGTH)
+                .append("] ")
+                .append(permille / 10).append('.').append(permille % 10).append("% (")
+                .append(current).append('/').append(total).append(')');
+        out.print(line);
+    }
+}
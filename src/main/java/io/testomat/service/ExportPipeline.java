@@ -0,0 +1,186 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import io.testomat.model.TestCase;
+import io.testomat.stats.Phase;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads tests while files are still being parsed. The parsing thread hands the tests of
+ * each file to {@link #accept}, which cuts them into batches and puts those on a bounded
+ * queue; uploader threads take the batches off the queue and send them. While the queue is
+ * full {@code accept} waits, so no more than the queued batches, one per uploader and the
+ * batch being filled are held at a time, however large the repository.
+ *
+ * <p>Batches are cut in the order the tests are accepted, with the framework of the first
+ * file, so request bodies and the checkpoint journal entries made from them are the same
+ * as when all tests are collected first. The first failed upload stops the other uploaders
+ * and is thrown from the next {@code accept} or from {@link #finish()}.
+ */
+final class ExportPipeline implements AutoCloseable {
+    private static final Batch END = new Batch(List.of(), null);
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    /**
+     * Sends one batch; called from several uploader threads at once.
+     */
+    interface BatchUploader {
+        void upload(List<TestCase> testCases, String framework) throws Exception;
+    }
+
+    private final int batchSize;
+    private final int uploaderCount;
+    private final BatchUploader uploader;
+    private final BlockingQueue<Batch> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private ExecutorService uploaders;
+    private Timer uploadTimer;
+    private List<TestCase> pending;
+    private String framework;
+    private int acceptedCount;
+
+    /**
+     * @param queueCapacity batches that may wait for an uploader before {@code accept} blocks
+     */
+    ExportPipeline(int batchSize, int uploaderCount, int queueCapacity,
+                   BatchUploader uploader) {
+        this.batchSize = batchSize;
+        this.uploaderCount = Math.max(1, uploaderCount);
+        this.uploader = uploader;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.pending = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Adds the tests of one file, waiting while the queue is full. Uploaders are started
+     * with the first batch, so a run without tests starts no threads.
+     *
+     * @throws CliException if an upload failed or the thread was interrupted
+     */
+    void accept(List<TestCase> testCases, String testFramework) {
+        if (framework == null) {
+            framework = testFramework;
+        }
+        for (TestCase testCase : testCases) {
+            pending.add(testCase);
+            if (pending.size() == batchSize) {
+                put(new Batch(pending, framework));
+                pending = new ArrayList<>(batchSize);
+            }
+        }
+        acceptedCount += testCases.size();
+    }
+
+    int getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /**
+     * Sends the last partial batch and waits until every batch is uploaded.
+     *
+     * @return number of tests uploaded
+     * @throws CliException if an upload failed or the thread was interrupted
+     */
+    int finish() {
+        try {
+            if (!pending.isEmpty()) {
+                put(new Batch(pending, framework));
+                pending = new ArrayList<>();
+            }
+            if (uploaders != null) {
+                for (int i = 0; i < uploaderCount; i++) {
+                    put(END);
+                }
+                uploaders.shutdown();
+                uploaders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            checkFailure();
+            return acceptedCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Interrupted while uploading tests", e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Stops the uploaders without waiting for queued batches.
+     */
+    @Override
+    public void close() {
+        if (uploaders != null) {
+            uploaders.shutdownNow();
+        }
+        if (uploadTimer != null) {
+            uploadTimer.close();
+            uploadTimer = null;
+        }
+    }
+
+    private void put(Batch batch) {
+        start();
+        try {
+            checkFailure();
+            while (!queue.offer(batch, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                // every uploader may have stopped after a failure
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Interrupted while uploading tests", e);
+        }
+    }
+
+    private void start() {
+        if (uploaders != null) {
+            return;
+        }
+        uploadTimer = RunStats.get().time(Phase.UPLOAD);
+        uploaders = IoThreads.newExecutor("upload", uploaderCount);
+        for (int i = 0; i < uploaderCount; i++) {
+            uploaders.execute(this::uploadBatches);
+        }
+    }
+
+    private void uploadBatches() {
+        try {
+            while (failure.get() == null) {
+                Batch batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                uploader.upload(batch.testCases, batch.framework);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception | Error e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new CliException("Error while executing request", cause);
+        }
+    }
+
+    private static final class Batch {
+        private final List<TestCase> testCases;
+        private final String framework;
+
+        Batch(List<TestCase> testCases, String framework) {
+            this.testCases = testCases;
+            this.framework = framework;
+        }
+    }
+}
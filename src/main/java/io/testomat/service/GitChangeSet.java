@@ -0,0 +1,193 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Java sources that changed between a git ref and the working tree, as reported by the
+ * {@code git} command line client.
+ *
+ * <p>The comparison starts at the merge base of the ref and {@code HEAD}, so changes that
+ * only happened on the base branch do not count, and includes uncommitted and untracked
+ * files. A renamed file counts as deleted at its old path and changed at its new one.
+ */
+public class GitChangeSet {
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final Set<Path> changed;
+    private final Set<Path> deleted;
+
+    GitChangeSet(Set<Path> changed, Set<Path> deleted) {
+        this.changed = changed;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Collects the Java sources below {@code directory} that changed since {@code ref}.
+     *
+     * @throws CliException if git is not available, the directory is not in a repository or
+     *                      the ref does not exist
+     */
+    public static GitChangeSet since(String ref, Path directory) {
+        Path root = Paths.get(git(directory, "rev-parse", "--show-toplevel").trim());
+        String base = mergeBase(directory, ref);
+
+        String diff = git(directory, "diff", "--name-status", "-z", "--find-renames",
+                "--no-ext-diff", base, "--", ".");
+        String untracked = git(directory, "ls-files", "--others", "--exclude-standard",
+                "--full-name", "-z", "--", ".");
+        GitChangeSet changes = parse(root, diff);
+        for (String path : split(untracked)) {
+            changes.addChanged(root.resolve(path));
+        }
+        return changes;
+    }
+
+    /**
+     * Parses {@code git diff --name-status -z} output with paths relative to {@code root}.
+     */
+    static GitChangeSet parse(Path root, String nameStatus) {
+        GitChangeSet changes = new GitChangeSet(new LinkedHashSet<>(), new LinkedHashSet<>());
+        List<String> fields = split(nameStatus);
+        int i = 0;
+        while (i < fields.size()) {
+            String status = fields.get(i++);
+            char kind = status.isEmpty() ? '?' : status.charAt(0);
+            if (kind == 'R' || kind == 'C') {
+                Path source = root.resolve(fields.get(i++));
+                Path target = root.resolve(fields.get(i++));
+                if (kind == 'R') {
+                    changes.addDeleted(source);
+                }
+                changes.addChanged(target);
+            } else if (kind == 'D') {
+                changes.addDeleted(root.resolve(fields.get(i++)));
+            } else {
+                changes.addChanged(root.resolve(fields.get(i++)));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Changed, added, copied and renamed-to sources that may need to be exported.
+     */
+    public Set<Path> getChanged() {
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Deleted and renamed-from sources; their tests stay on the server.
+     */
+    public Set<Path> getDeleted() {
+        return Collections.unmodifiableSet(deleted);
+    }
+
+    private void addChanged(Path path) {
+        if (isJavaSource(path)) {
+            changed.add(path.normalize());
+        }
+    }
+
+    private void addDeleted(Path path) {
+        if (isJavaSource(path)) {
+            deleted.add(path.normalize());
+        }
+    }
+
+    private static boolean isJavaSource(Path path) {
+        return path.getFileName().toString().endsWith(JAVA_FILE_EXTENSION);
+    }
+
+    private static String mergeBase(Path directory, String ref) {
+        try {
+            git(directory, "rev-parse", "--verify", "--quiet", ref + "^{commit}");
+        } catch (CliException e) {
+            throw new CliException("Unknown git ref '" + ref + "' in " + directory, e);
+        }
+        try {
+            return git(directory, "merge-base", ref, "HEAD").trim();
+        } catch (CliException e) {
+            // no common history, e.g. in a shallow clone: compare with the ref itself
+            return ref;
+        }
+    }
+
+    private static List<String> split(String output) {
+        List<String> fields = new ArrayList<>(Arrays.asList(output.split("\0")));
+        fields.removeIf(String::isEmpty);
+        return fields;
+    }
+
+    private static String git(Path directory, String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(Arrays.asList(args));
+
+        // stderr goes to a file: a pipe that nobody reads while stdout is drained would
+        // block git once it fills, e.g. with a line-ending warning per file
+        Path errorFile;
+        try {
+            errorFile = Files.createTempFile("testomatio-git", ".err");
+        } catch (IOException e) {
+            throw new CliException("Failed to run git " + args[0], e);
+        }
+        try {
+            return run(command, errorFile, args[0]);
+        } finally {
+            try {
+                Files.deleteIfExists(errorFile);
+            } catch (IOException e) {
+                // left in the temporary directory
+            }
+        }
+    }
+
+    private static String run(List<String> command, Path errorFile, String subcommand) {
+        Process process;
+        try {
+            process = new ProcessBuilder(command)
+                    .redirectError(errorFile.toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new CliException("--changed-since needs the git command line client: "
+                    + e.getMessage(), e);
+        }
+        try {
+            process.getOutputStream().close();
+            String output = read(process.getInputStream());
+            if (process.waitFor() != 0) {
+                String errors = Files.readString(errorFile, StandardCharsets.UTF_8);
+                throw new CliException("git " + subcommand + " failed"
+                        + (errors.isBlank() ? "" : ": " + errors.trim()));
+            }
+            return output;
+        } catch (IOException e) {
+            throw new CliException("Failed to run git " + subcommand, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            throw new CliException("Interrupted while running git " + subcommand, e);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        in.transferTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import io.testomat.util.Hashing;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only journal of import batches acknowledged by the server.
+ * Each line holds the SHA-256 of one request body, so a resumed run can skip batches
+ * that were already delivered even if the previous run died half way.
+ */
+public class ImportCheckpoint {
+
+    private final Path journalFile;
+    private final Set<String> acknowledged = new HashSet<>();
+    private int skippedBatches;
+
+    private ImportCheckpoint(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Opens the journal at the given location.
+     *
+     * @param journalFile journal location
+     * @param resume      keep batches recorded by a previous run; otherwise start fresh
+     */
+    public static ImportCheckpoint open(Path journalFile, boolean resume) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(journalFile);
+        try {
+            if (resume && Files.isRegularFile(journalFile)) {
+                List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    if (!line.trim().isEmpty()) {
+                        checkpoint.acknowledged.add(line.trim());
+                    }
+                }
+            } else {
+                Files.deleteIfExists(journalFile);
+            }
+        } catch (IOException e) {
+            throw new CliException("Failed to open import checkpoint " + journalFile, e);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Default journal location for an import of {@code directory} into the given project.
+     */
+    public static Path defaultJournalFile(Path cacheDirectory, String serverUrl, String apiKey,
+                                          Path directory) {
+        String key = serverUrl + "\n" + apiKey + "\n"
+                + directory.toAbsolutePath().normalize();
+        return cacheDirectory.resolve("checkpoints").resolve(hash(key) + ".journal");
+    }
+
+    /**
+     * Checks whether the batch was delivered by a previous run and counts it as skipped.
+     */
+    public synchronized boolean isAcknowledged(String requestBody) {
+        boolean delivered = acknowledged.contains(hash(requestBody));
+        if (delivered) {
+            skippedBatches++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Records a delivered batch. The line is synced to disk before returning.
+     */
+    public synchronized void markAcknowledged(String requestBody) {
+        String batchHash = hash(requestBody);
+        if (!acknowledged.add(batchHash)) {
+            return;
+        }
+        try {
+            Files.createDirectories(journalFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                    StandardOpenOption.DSYNC)) {
+                writer.write(batchHash);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new CliException("Failed to update import checkpoint " + journalFile, e);
+        }
+    }
+
+    /**
+     * Removes the journal after every batch was delivered.
+     */
+    public synchronized void complete() {
+        try {
+            Files.deleteIfExists(journalFile);
+        } catch (IOException e) {
+            throw new CliException("Failed to remove import checkpoint " + journalFile, e);
+        }
+    }
+
+    public synchronized int getAcknowledgedCount() {
+        return acknowledged.size();
+    }
+
+    public synchronized int getSkippedBatches() {
+        return skippedBatches;
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    private static String hash(String value) {
+        return Hashing.sha256Hex(value);
+    }
+}
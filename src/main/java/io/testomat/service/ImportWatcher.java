@@ -0,0 +1,273 @@
+package io.testomat.service;
+
+import io.testomat.model.TestCase;
+import io.testomat.util.Hashing;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an import up to date after it ran: watches the directories {@link TestFileScanner}
+ * walks and, once a burst of file system events has settled, re-parses only the files that
+ * changed and exports only the tests whose content differs from what was sent last time.
+ * What the initial import sent is learned through {@link #remember}.
+ *
+ * <p>Directories created later are registered as they appear. Deleted files and removed
+ * tests are reported but stay on the server, since the import API only adds and updates.
+ */
+public class ImportWatcher implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ImportWatcher.class);
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final TestFileScanner scanner;
+    private final TestExportService exportService;
+    private final Duration debounce;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<String, Map<String, String>> exportedTests = new ConcurrentHashMap<>();
+    private File root;
+
+    public ImportWatcher(TestFileScanner scanner, TestExportService exportService,
+                         Duration debounce) throws IOException {
+        this.scanner = scanner;
+        this.exportService = exportService;
+        this.debounce = debounce;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Registers the source directories below {@code root}.
+     *
+     * @return number of directories being watched
+     */
+    public int register(File root) throws IOException {
+        this.root = root;
+        for (Path directory : scanner.findSourceDirectories(root)) {
+            registerDirectory(directory);
+        }
+        return watchedDirectories.size();
+    }
+
+    /**
+     * Records the tests of a file as exported, so that a later change to the file only
+     * exports the tests it affects. Meant for the files of the initial import, e.g. as the
+     * {@link TestExportService#setParsedFileListener parsed file listener}; safe to call
+     * from several threads.
+     */
+    public void remember(File file, List<TestCase> testCases) {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (TestCase testCase : testCases) {
+            fingerprints.put(key(testCase), fingerprint(testCase));
+        }
+        exportedTests.put(file.getAbsolutePath(), fingerprints);
+    }
+
+    /**
+     * Exports changes until the watcher is closed or the thread is interrupted.
+     */
+    public void watch(String apiKey, String serverUrl, boolean dryRun, boolean verbose,
+                      boolean structure) {
+        try {
+            while (true) {
+                Set<Path> changed = awaitChanges();
+                if (!changed.isEmpty()) {
+                    exportChanges(changed, apiKey, serverUrl, dryRun, verbose, structure);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed by another thread, the normal way to stop watching
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Blocks for the first event, then keeps collecting until no event arrived for the
+     * debounce interval, so that an editor saving several files counts as one change.
+     */
+    private Set<Path> awaitChanges() throws InterruptedException {
+        Set<Path> changed = new LinkedHashSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            collectChanges(key, changed);
+            key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return changed;
+    }
+
+    private void collectChanges(WatchKey key, Set<Path> changed) {
+        Path directory = watchedDirectories.get(key);
+        if (directory == null) {
+            key.reset();
+            return;
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost; look at this directory again, but nothing beyond it
+                addJavaFiles(directory, changed);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(path)) {
+                registerNewDirectory(path, changed);
+            } else if (path.getFileName().toString().endsWith(JAVA_FILE_EXTENSION)) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * Registers a directory created while watching, and everything already below it. Each
+     * directory is registered before it is listed, so entries created in the meantime are
+     * either listed or reported by an event.
+     */
+    private void registerNewDirectory(Path directory, Set<Path> changed) {
+        if (scanner.shouldSkipDirectory(directory.getFileName().toString())
+                || Files.isSymbolicLink(directory)) {
+            return;
+        }
+        try {
+            registerDirectory(directory);
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        registerNewDirectory(entry, changed);
+                    } else if (entry.getFileName().toString().endsWith(JAVA_FILE_EXTENSION)) {
+                        changed.add(entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot watch new directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void registerDirectory(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(key, directory);
+    }
+
+    private void addJavaFiles(Path directory, Set<Path> changed) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory,
+                "*" + JAVA_FILE_EXTENSION)) {
+            entries.forEach(changed::add);
+        } catch (IOException e) {
+            log.warn("Cannot list {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void exportChanges(Set<Path> changed, String apiKey, String serverUrl,
+                               boolean dryRun, boolean verbose, boolean structure) {
+        List<Path> existing = new ArrayList<>();
+        for (Path path : changed) {
+            if (Files.isRegularFile(path)) {
+                existing.add(path);
+            } else if (exportedTests.remove(path.toAbsolutePath().toString()) != null) {
+                log.info("{} was deleted; its tests stay in Testomat.io", path);
+            }
+        }
+        // the same include, exclude and .gitignore rules as the initial import
+        List<File> files = scanner.filterSourceFiles(root, existing);
+        if (files.isEmpty()) {
+            return;
+        }
+
+        List<TestCase> affected = new ArrayList<>();
+        String framework = null;
+        for (File file : files) {
+            TestExportService.ProcessingResult result = exportService.collectTestCases(
+                    List.of(file), verbose);
+            affected.addAll(selectAffectedTests(file, result.getAllTestCases()));
+            if (framework == null) {
+                framework = result.getPrimaryFramework();
+            }
+        }
+        if (affected.isEmpty()) {
+            log.info("{} changed file(s), no test changes", files.size());
+            return;
+        }
+
+        try {
+            int exported = exportService.exportTestCases(affected, framework, apiKey,
+                    serverUrl, dryRun, structure);
+            log.info("Re-imported {} test(s) from {} changed file(s)", exported, files.size());
+        } catch (RuntimeException e) {
+            // forget what was sent for these files so that the next change retries them
+            files.forEach(file -> exportedTests.remove(file.getAbsolutePath()));
+            log.error("Export of changed tests failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the tests of a changed file that are new or differ from the last export, and
+     * remembers the current state of the file.
+     */
+    private List<TestCase> selectAffectedTests(File file, List<TestCase> testCases) {
+        Map<String, String> current = new HashMap<>();
+        Map<String, String> previous = exportedTests.put(file.getAbsolutePath(), current);
+
+        List<TestCase> affected = new ArrayList<>();
+        for (TestCase testCase : testCases) {
+            String key = key(testCase);
+            String fingerprint = fingerprint(testCase);
+            current.put(key, fingerprint);
+            if (previous == null || !fingerprint.equals(previous.get(key))) {
+                affected.add(testCase);
+            }
+        }
+
+        if (previous != null) {
+            long removed = previous.keySet().stream()
+                    .filter(key -> !current.containsKey(key))
+                    .count();
+            if (removed > 0) {
+                log.info("{} test(s) were removed from {}; they stay in Testomat.io",
+                        removed, file);
+            }
+        }
+        return affected;
+    }
+
+    private static String key(TestCase testCase) {
+        return testCase.getSuites() + "#" + testCase.getName();
+    }
+
+    /**
+     * A digest rather than the text, since the tests of the whole import are remembered.
+     */
+    private static String fingerprint(TestCase testCase) {
+        return Hashing.sha256Hex(String.join("\u0000", String.valueOf(testCase.getSuites()),
+                String.valueOf(testCase.getLabels()), String.valueOf(testCase.isSkipped()),
+                String.valueOf(testCase.getCode())));
+    }
+}
@@ -0,0 +1,163 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Threads for work that mostly waits on the disk or the network: reading and rewriting
+ * source files and sending requests.
+ *
+ * <p>On Java 21 and later every task gets its own virtual thread and a semaphore limits
+ * how many run at once, so a waiting task holds no platform thread. Older runtimes, or
+ * {@code TESTOMATIO_VIRTUAL_THREADS=false}, use a fixed pool of daemon platform threads of
+ * the same size. The choice is made by {@link VirtualThreads}, which the multi-release jar
+ * replaces on Java 21.
+ */
+public final class IoThreads {
+
+    /**
+     * Files read, parsed and written at the same time by {@code clean-ids} and {@code sync}.
+     * Parsing keeps the processors busy while other tasks wait on the disk.
+     */
+    public static final int FILE_CONCURRENCY =
+            Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static final boolean VIRTUAL = VirtualThreads.isSupported()
+            && !"false".equalsIgnoreCase(System.getenv("TESTOMATIO_VIRTUAL_THREADS"));
+
+    private IoThreads() {
+    }
+
+    /**
+     * Whether tasks run on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL;
+    }
+
+    /**
+     * An executor that runs at most {@code maxConcurrency} tasks at a time on threads named
+     * after {@code name}. Shut it down when done.
+     */
+    public static ExecutorService newExecutor(String name, int maxConcurrency) {
+        int limit = Math.max(1, maxConcurrency);
+        if (VIRTUAL) {
+            return bounded(VirtualThreads.newThreadPerTaskExecutor(name), limit);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(limit, task -> {
+            Thread thread = new Thread(task, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Applies the task to every item, at most {@code maxConcurrency} at a time, and returns
+     * the results in item order. The first failure, in item order, is rethrown once the
+     * tasks before it are done; the remaining tasks are cancelled.
+     */
+    public static <T, R> List<R> map(String name, int maxConcurrency, List<T> items,
+                                     Function<? super T, ? extends R> task) {
+        ExecutorService executor = newExecutor(name, Math.min(maxConcurrency, items.size()));
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            }
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CliException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Interrupted while waiting for " + name + " tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Limits an executor that starts a thread per task to {@code permits} running tasks.
+     * The others wait on their own thread, which for virtual threads costs next to nothing.
+     */
+    static ExecutorService bounded(ExecutorService threadPerTask, int permits) {
+        return new BoundedExecutor(threadPerTask, permits);
+    }
+
+    private static final class BoundedExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutor(ExecutorService delegate, int permits) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(permits);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // shut down before the task got a turn
+                    if (task instanceof Future) {
+                        ((Future<?>) task).cancel(false);
+                    }
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
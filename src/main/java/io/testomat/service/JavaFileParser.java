@@ -1,14 +1,80 @@
 package io.testomat.service;
 
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import io.testomat.exception.CliException;
+import io.testomat.exception.SourceFileException;
+import io.testomat.jfr.ParseEvent;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
+import java.io.File;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Parses source files with the given {@link ParserSettings}. The settings create a parser
+ * per call, so one instance may be used by several threads.
+ *
+ * <p>Files are read once through {@link SourceLoader}, and the text stays attached to the
+ * tree for {@link MinimalFileModificationService}. Files over the size limit are skipped
+ * without being read. With a time limit, files of {@link #INLINE_PARSE_BYTES} or more are
+ * parsed on a helper thread that the caller stops waiting for once the limit is over; the
+ * abandoned parse is interrupted and gives up the next time it reads from the file.
+ * Abandoned parses are logged and counted, so one that keeps its thread busy shows up.
+ * Smaller files are parsed on the calling thread and only stopped at their next read.
+ * Skipped and broken files are reported as {@link SourceFileException}.
+ */
 public class JavaFileParser {
-    private final Object lock = new Object();
+    /**
+     * Files smaller than this parse in milliseconds, far below any useful time limit, so
+     * handing them to a helper thread would only add overhead.
+     */
+    static final int INLINE_PARSE_BYTES = 64 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(JavaFileParser.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final AtomicInteger ABANDONED_RUNNING = new AtomicInteger();
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+    private static final ExecutorService PARSE_THREADS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "java-parse-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ParseLimits limits;
+    private final ParserSettings settings;
+
+    public JavaFileParser() {
+        this(ParseLimits.DEFAULT, ParserSettings.DEFAULT);
+    }
+
+    public JavaFileParser(ParseLimits limits) {
+        this(limits, ParserSettings.DEFAULT);
+    }
+
+    public JavaFileParser(ParseLimits limits, ParserSettings settings) {
+        this.limits = limits;
+        this.settings = settings;
+    }
 
     public CompilationUnit parseFile(String filepath) {
         Path filePath = Paths.get(filepath);
@@ -16,19 +82,240 @@ public class JavaFileParser {
         if (!filePath.toFile().exists()) {
             return null;
         }
+        checkReadable(filePath);
 
+        WarmState.SourceKey sourceKey = WarmState.get().sourceKey(filePath, settings);
+        CompilationUnit cached = cachedSource(sourceKey);
+        if (cached != null) {
+            return cached;
+        }
+        return parse(read(filePath), sourceKey);
+    }
+
+    /**
+     * Reads a file within the size limit, so that the prefilter and the parser can share
+     * its text, or returns {@code null} when the file does not exist.
+     */
+    public SourceText load(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        checkReadable(file.toPath());
+        return read(file.toPath());
+    }
+
+    /**
+     * Parses text returned by {@link #load(File)}.
+     */
+    public CompilationUnit parse(SourceText source) {
+        WarmState.SourceKey sourceKey = WarmState.get().sourceKey(source, settings);
+        CompilationUnit cached = cachedSource(sourceKey);
+        if (cached != null) {
+            return cached;
+        }
+        return parse(source, sourceKey);
+    }
+
+    private CompilationUnit parse(SourceText source, WarmState.SourceKey sourceKey) {
+        PhaseStats stats = RunStats.get().phase(Phase.PARSE);
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        try (Timer ignored = stats.time()) {
+            stats.increment(PhaseStats.FILES);
+            CompilationUnit compilationUnit = parseWithinLimit(source);
+            WarmState.get().storeSource(sourceKey, compilationUnit);
+            return compilationUnit;
+        } catch (CliException e) {
+            stats.increment(PhaseStats.FAILURES);
+            event.setFailed(true);
+            throw e;
+        } catch (Exception e) {
+            stats.increment(PhaseStats.FAILURES);
+            event.setFailed(true);
+            throw new SourceFileException(SourceFileException.Reason.PARSE_ERROR,
+                    "Failed to parse file " + source.getPath(), e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPath(source.getPath().toString());
+                event.setBytes(source.getSize());
+                event.commit();
+            }
+        }
+    }
+
+    private static CompilationUnit cachedSource(WarmState.SourceKey sourceKey) {
+        CompilationUnit cached = WarmState.get().cachedSource(sourceKey);
+        if (cached != null) {
+            RunStats.get().phase(Phase.PARSE).increment(PhaseStats.CACHED);
+        }
+        return cached;
+    }
+
+    private static void checkReadable(Path filePath) {
         if (!filePath.toFile().canRead()) {
-            throw new CliException("Cannot read file: " + filepath);
+            throw new SourceFileException(SourceFileException.Reason.UNREADABLE,
+                    "Cannot read file: " + filePath);
+        }
+    }
+
+    private SourceText read(Path filePath) {
+        long bytes = filePath.toFile().length();
+        if (limits.getMaxFileBytes() > 0 && bytes > limits.getMaxFileBytes()) {
+            RunStats.get().phase(Phase.PARSE).increment(PhaseStats.SKIPPED);
+            throw new SourceFileException(SourceFileException.Reason.TOO_LARGE,
+                    "Skipped " + filePath + ": " + bytes + " bytes is over the limit of "
+                            + limits.getMaxFileBytes());
+        }
+        try {
+            return SourceLoader.load(filePath);
+        } catch (IOException e) {
+            throw new SourceFileException(SourceFileException.Reason.UNREADABLE,
+                    "Cannot read file: " + filePath, e);
         }
+    }
 
+    private CompilationUnit parseWithinLimit(SourceText source) throws IOException {
+        Path filePath = source.getPath();
+        if (!limits.hasTimeout()) {
+            return parseText(source, null);
+        }
+        long timeoutNanos = limits.getTimeout().toNanos();
+        long deadline = System.nanoTime() + timeoutNanos;
+        if (source.getSize() < INLINE_PARSE_BYTES) {
+            return parseText(source, deadline);
+        }
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Future<CompilationUnit> future = PARSE_THREADS.submit(() -> {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null;
+            }
+            try {
+                return parseText(source, deadline);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    ABANDONED_RUNNING.decrementAndGet();
+                    log.debug("Abandoned parse of {} ended", filePath);
+                }
+            }
+        });
         try {
-            synchronized (lock) {
-                return StaticJavaParser.parse(filePath, StandardCharsets.UTF_8);
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, state, filePath);
+            throw timeout(filePath);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CliException("Interrupted while parsing " + filePath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Parses the text, giving up at the next read after {@code deadlineNanos} if not null.
+     */
+    private CompilationUnit parseText(SourceText source, Long deadlineNanos) throws IOException {
+        Path filePath = source.getPath();
+        Reader text = new StringReader(source.getText());
+        DeadlineReader deadlineReader = deadlineNanos == null
+                ? null
+                : new DeadlineReader(text, deadlineNanos);
+        try (Reader reader = deadlineReader == null ? text : deadlineReader) {
+            CompilationUnit compilationUnit = settings.parse(reader);
+            // the parser may treat a failed read as the end of the file
+            if (deadlineReader != null && deadlineReader.isExpired()) {
+                throw timeout(filePath);
+            }
+            compilationUnit.setStorage(filePath, StandardCharsets.UTF_8);
+            SourceText.attach(compilationUnit, source);
+            return compilationUnit;
+        } catch (InterruptedIOException e) {
+            throw timeout(filePath);
+        } catch (StackOverflowError e) {
+            throw new SourceFileException(SourceFileException.Reason.PARSE_ERROR,
+                    "Failed to parse file " + filePath + ": nested too deeply", e);
+        } catch (RuntimeException e) {
+            if (deadlineReader != null && deadlineReader.isExpired()) {
+                throw timeout(filePath);
             }
-        } catch (CliException e) {
             throw e;
-        } catch (Exception e) {
-            throw new CliException("Failed to parse file " + filepath, e);
+        }
+    }
+
+    /**
+     * Number of parses that ran over their time limit and have not stopped yet.
+     */
+    static int getAbandonedRunning() {
+        return ABANDONED_RUNNING.get();
+    }
+
+    private static void abandon(Future<CompilationUnit> future, AtomicInteger state,
+                                Path filePath) {
+        // counted before the worker can see the state, so it never decrements first
+        final int running = ABANDONED_RUNNING.incrementAndGet();
+        boolean stillRunning = state.compareAndSet(RUNNING, ABANDONED);
+        future.cancel(true);
+        if (!stillRunning) {
+            // never started, or finished just now
+            state.compareAndSet(QUEUED, DONE);
+            ABANDONED_RUNNING.decrementAndGet();
+            return;
+        }
+        RunStats.get().phase(Phase.PARSE).increment(PhaseStats.ABANDONED);
+        log.warn("Parsing {} ran over the time limit; its worker thread was interrupted "
+                + "and is abandoned ({} abandoned parses still running)", filePath, running);
+    }
+
+    private SourceFileException timeout(Path filePath) {
+        return new SourceFileException(SourceFileException.Reason.TIMEOUT,
+                "Skipped " + filePath + ": parsing took longer than "
+                        + limits.getTimeout().toMillis() + " ms");
+    }
+
+    /**
+     * Fails reads once the deadline passed or the parsing thread was interrupted, so that
+     * an abandoned parse stops instead of running on in the background.
+     */
+    private static final class DeadlineReader extends FilterReader {
+        private final long deadlineNanos;
+        private volatile boolean expired;
+
+        DeadlineReader(Reader in, long deadlineNanos) {
+            super(in);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            return super.read(buffer, offset, length);
+        }
+
+        boolean isExpired() {
+            return expired;
+        }
+
+        private void checkDeadline() throws InterruptedIOException {
+            if (Thread.currentThread().isInterrupted()
+                    || System.nanoTime() - deadlineNanos > 0) {
+                expired = true;
+                throw new InterruptedIOException("Parse time limit exceeded");
+            }
         }
     }
 }
@@ -3,7 +3,9 @@ package io.testomat.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.testomat.jfr.SerializeEvent;
 import io.testomat.model.TestCase;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class JsonBuilder {
@@ -17,6 +19,8 @@ public class JsonBuilder {
     }
 
     public String buildRequestBody(List<TestCase> testCases, String framework, boolean structure) {
+        SerializeEvent event = new SerializeEvent();
+        event.begin();
         try {
             ObjectNode rootNode = objectMapper.createObjectNode();
             
@@ -33,7 +37,16 @@ public class JsonBuilder {
             }
             rootNode.set("tests", testsArray);
             
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(rootNode);
+            String body = objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(rootNode);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.setTestCount(testCases.size());
+                event.setBytes(body.getBytes(StandardCharsets.UTF_8).length);
+                event.commit();
+            }
+            return body;
         } catch (Exception e) {
             throw new RuntimeException("Failed to build JSON request body", e);
         }
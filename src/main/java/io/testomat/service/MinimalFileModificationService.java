@@ -7,6 +7,11 @@ import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.expr.AnnotationExpr;
 import io.testomat.exception.CliException;
+import io.testomat.jfr.RewriteEvent;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -101,8 +106,11 @@ public class MinimalFileModificationService {
 
         Path filePath = cu.getStorage().get().getPath();
 
-        try {
-            List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
+        PhaseStats stats = RunStats.get().phase(Phase.WRITE);
+        RewriteEvent event = new RewriteEvent();
+        event.begin();
+        try (Timer ignored = stats.time()) {
+            List<String> lines = readLines(cu, filePath);
             List<TextModification> modifications = new ArrayList<>();
 
             // Step 1: Remove annotations
@@ -148,7 +156,18 @@ public class MinimalFileModificationService {
 
             // Step 6: Write the file back
             Files.write(filePath, lines, StandardCharsets.UTF_8);
+            stats.increment(PhaseStats.FILES);
+            if (RunStats.get().isEnabled()) {
+                stats.add(PhaseStats.BYTES, Files.size(filePath));
+            }
 
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPath(filePath.toString());
+                event.setBytes(Files.size(filePath));
+                event.setTestCount(modification.getMethodAnnotations().size());
+                event.commit();
+            }
         } catch (IOException e) {
             throw new CliException("Failed to modify file: " + filePath, e);
         }
@@ -172,6 +191,21 @@ public class MinimalFileModificationService {
         }
     }
 
+    /**
+     * Lines of the text the tree was parsed from while the file is unchanged on disk,
+     * otherwise lines read from the file.
+     */
+    private List<String> readLines(CompilationUnit cu, Path filePath) throws IOException {
+        Optional<SourceText> source = SourceText.of(cu)
+                .filter(text -> text.getPath().equals(filePath))
+                .filter(SourceText::isLossless)
+                .filter(SourceText::isCurrent);
+        if (source.isPresent()) {
+            return source.get().lines();
+        }
+        return Files.readAllLines(filePath, StandardCharsets.UTF_8);
+    }
+
     /**
      * Creates a removal for an annotation.
      */
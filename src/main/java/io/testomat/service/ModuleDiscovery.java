@@ -0,0 +1,63 @@
+package io.testomat.service;
+
+import io.testomat.model.SourceModule;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Groups scanned Java files by the module they belong to. A file inside a
+ * {@code src/<set>/java} source root belongs to the directory that contains {@code src};
+ * the innermost such root wins, so nested modules of a monorepo stay separate. Files
+ * outside any source root belong to the module of the import directory itself.
+ */
+public class ModuleDiscovery {
+    public static final String ROOT_MODULE = ".";
+
+    private static final String SOURCE_DIRECTORY = "src";
+    private static final String JAVA_DIRECTORY = "java";
+
+    /**
+     * Returns the modules below {@code directory}, sorted by name, each with its files in
+     * scan order.
+     */
+    public List<SourceModule> discover(File directory, List<File> files) {
+        Path root = directory.toPath().toAbsolutePath().normalize();
+        Map<String, SourceModule> modules = new TreeMap<>();
+        for (File file : files) {
+            Path path = file.toPath().toAbsolutePath().normalize();
+            Path relative = path.startsWith(root) ? root.relativize(path) : path.getFileName();
+            int src = findSourceRoot(relative);
+
+            String name = src > 0 ? toName(relative.subpath(0, src)) : ROOT_MODULE;
+            Path moduleDirectory = src > 0 ? root.resolve(relative.subpath(0, src)) : root;
+            Path sourceRoot = src >= 0 ? moduleDirectory.resolve(relative.subpath(src, src + 3))
+                    : null;
+            modules.computeIfAbsent(name, key -> new SourceModule(key, moduleDirectory))
+                    .addFile(sourceRoot, file);
+        }
+        return new ArrayList<>(modules.values());
+    }
+
+    /**
+     * Index of the {@code src} segment of the innermost {@code src/<set>/java} directory
+     * that contains the file, or {@code -1}.
+     */
+    private static int findSourceRoot(Path relative) {
+        // the last segment is the file name, so a source root needs three more before it
+        for (int i = relative.getNameCount() - 4; i >= 0; i--) {
+            if (SOURCE_DIRECTORY.equals(relative.getName(i).toString())
+                    && JAVA_DIRECTORY.equals(relative.getName(i + 2).toString())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toName(Path relative) {
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+}
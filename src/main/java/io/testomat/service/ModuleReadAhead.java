@@ -0,0 +1,112 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import io.testomat.model.TestCase;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Passes the tests of modules parsed in parallel to one consumer, module by module in
+ * order, while they are being parsed. The module the consumer is at hands over its tests as
+ * they come; modules after it may parse ahead until they hold {@code readAheadTests} tests
+ * between them and then wait for the consumer to reach them, so memory is bounded by that
+ * limit rather than by the size of a module.
+ *
+ * <p>Modules must be started in order, as a thread pool with a queue does, so that the
+ * module the consumer waits for is always running or done.
+ */
+final class ModuleReadAhead {
+    private static final Object DONE = new Object();
+
+    private final int readAheadTests;
+    private final List<Queue<Object>> modules;
+    private final Throwable[] failures;
+    private int current;
+    private int bufferedTests;
+
+    ModuleReadAhead(int moduleCount, int readAheadTests) {
+        this.readAheadTests = readAheadTests;
+        this.modules = new ArrayList<>(moduleCount);
+        for (int i = 0; i < moduleCount; i++) {
+            modules.add(new ArrayDeque<>());
+        }
+        this.failures = new Throwable[moduleCount];
+    }
+
+    /**
+     * Where the worker parsing module {@code index} puts its tests. Once the read-ahead is
+     * used up it waits until the consumer reaches the module.
+     *
+     * @throws CliException if the worker is interrupted while waiting
+     */
+    TestExportService.TestSink sink(int index) {
+        return (testCases, framework) -> {
+            synchronized (this) {
+                while (index != current && bufferedTests >= readAheadTests) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CliException("Interrupted while parsing modules", e);
+                    }
+                }
+                modules.get(index).add(new Tests(testCases, framework));
+                bufferedTests += testCases.size();
+                notifyAll();
+            }
+        };
+    }
+
+    /**
+     * Marks module {@code index} as done, with the failure that stopped it or {@code null}.
+     */
+    synchronized void complete(int index, Throwable failure) {
+        failures[index] = failure;
+        modules.get(index).add(DONE);
+        notifyAll();
+    }
+
+    /**
+     * Hands the tests of module {@code index} to the consumer as they come, in the order
+     * the worker produced them, and waits until the module is done.
+     *
+     * @return the failure that stopped the module, or {@code null}
+     */
+    Throwable drain(int index, TestExportService.TestSink consumer)
+            throws InterruptedException {
+        synchronized (this) {
+            current = index;
+            notifyAll();
+        }
+        while (true) {
+            Object next;
+            synchronized (this) {
+                Queue<Object> queue = modules.get(index);
+                while (queue.isEmpty()) {
+                    wait();
+                }
+                next = queue.remove();
+                if (next == DONE) {
+                    return failures[index];
+                }
+                bufferedTests -= ((Tests) next).testCases.size();
+                notifyAll();
+            }
+            // outside the lock: the consumer may wait for uploads
+            Tests tests = (Tests) next;
+            consumer.add(tests.testCases, tests.framework);
+        }
+    }
+
+    private static final class Tests {
+        private final List<TestCase> testCases;
+        private final String framework;
+
+        Tests(List<TestCase> testCases, String framework) {
+            this.testCases = testCases;
+            this.framework = framework;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.testomat.service;
+
+import java.time.Duration;
+
+/**
+ * Per-file limits that keep one pathological source, such as a huge generated file, from
+ * stalling a run. A limit of zero is off.
+ */
+public final class ParseLimits {
+    public static final long DEFAULT_MAX_FILE_BYTES = 5L * 1024 * 1024;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    public static final ParseLimits DEFAULT =
+            new ParseLimits(DEFAULT_MAX_FILE_BYTES, DEFAULT_TIMEOUT);
+    public static final ParseLimits NONE = new ParseLimits(0, Duration.ZERO);
+
+    private final long maxFileBytes;
+    private final Duration timeout;
+
+    public ParseLimits(long maxFileBytes, Duration timeout) {
+        this.maxFileBytes = Math.max(0, maxFileBytes);
+        this.timeout = timeout.isNegative() ? Duration.ZERO : timeout;
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public boolean hasTimeout() {
+        return !timeout.isZero();
+    }
+}
@@ -0,0 +1,106 @@
+package io.testomat.service;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * How sources are parsed: the Java language level, and whether comments are attached to
+ * the nodes they belong to, which only the comment labels of {@code import} need.
+ *
+ * <p>Lexical preservation is off and no symbol resolver is set. Tokens are still stored,
+ * because node positions, which {@link MinimalFileModificationService} edits by, and
+ * comments are taken from them. The configuration is never changed
+ * after construction and every parse creates its own {@link JavaParser}, so one instance
+ * can be shared by all threads. This replaces the per-thread global configuration of
+ * {@code StaticJavaParser}, which helper threads would not see.
+ */
+public final class ParserSettings {
+    public static final LanguageLevel DEFAULT_LANGUAGE_LEVEL = LanguageLevel.JAVA_21;
+
+    /**
+     * Settings for reading tests and their labels.
+     */
+    public static final ParserSettings DEFAULT = new ParserSettings(DEFAULT_LANGUAGE_LEVEL, true);
+
+    private final LanguageLevel languageLevel;
+    private final boolean attributeComments;
+    private final ParserConfiguration configuration;
+
+    public ParserSettings(LanguageLevel languageLevel, boolean attributeComments) {
+        this.languageLevel = languageLevel;
+        this.attributeComments = attributeComments;
+        this.configuration = new ParserConfiguration()
+                .setLanguageLevel(languageLevel)
+                .setAttributeComments(attributeComments)
+                .setLexicalPreservationEnabled(false);
+    }
+
+    /**
+     * Parses a language level such as {@code 17}, {@code 1.8}, {@code JAVA_17} or
+     * {@code raw}, which accepts any syntax the parser knows.
+     */
+    public static LanguageLevel parseLanguageLevel(String value) {
+        String name = value.trim().toUpperCase(Locale.ROOT).replace('.', '_');
+        if (name.matches("1_[5-9]")) {
+            name = name.substring(2);
+        }
+        if (!name.isEmpty() && Character.isDigit(name.charAt(0))) {
+            name = "JAVA_" + name;
+        }
+        if (name.equals("RAW")) {
+            return LanguageLevel.RAW;
+        }
+        try {
+            return LanguageLevel.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown Java language level '" + value
+                    + "', expected e.g. 8, 11, 17, 21 or raw");
+        }
+    }
+
+    public LanguageLevel getLanguageLevel() {
+        return languageLevel;
+    }
+
+    public boolean isAttributeComments() {
+        return attributeComments;
+    }
+
+    /**
+     * A new parser with these settings, to be used by one thread at a time.
+     */
+    public JavaParser newParser() {
+        return new JavaParser(configuration);
+    }
+
+    /**
+     * Parses a compilation unit, throwing {@link ParseProblemException} on syntax errors.
+     */
+    public CompilationUnit parse(Reader source) {
+        ParseResult<CompilationUnit> result = newParser().parse(source);
+        if (!result.isSuccessful() || !result.getResult().isPresent()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        return result.getResult().get();
+    }
+
+    /**
+     * Whether a tree parsed with these settings can stand in for one parsed with
+     * {@code requested}: the same language level, and comments if those are wanted.
+     */
+    public boolean covers(ParserSettings requested) {
+        return languageLevel == requested.languageLevel
+                && (attributeComments || !requested.attributeComments);
+    }
+
+    @Override
+    public String toString() {
+        return languageLevel + (attributeComments ? " with comments" : "");
+    }
+}
@@ -2,9 +2,13 @@ package io.testomat.service;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PathUtils {
 
+    private static final Pattern SOURCE_ROOT = Pattern.compile("(?<![^/])src/[^/]+/java/");
+
     private static final boolean IS_WINDOWS =
             System.getProperty("os.name").toLowerCase().contains("win");
 
@@ -15,14 +19,15 @@ public class PathUtils {
 
         String normalizedPath = normalizePath(filepath);
 
-        if (normalizedPath.contains("src/test/java/")) {
-            int index = normalizedPath.indexOf("src/test/java/");
-            return normalizedPath.substring(index + "src/test/java/".length());
+        // the innermost src/<set>/java root, so that modules nested in a monorepo and
+        // source sets such as src/integrationTest/java resolve to the package path
+        Matcher sourceRoot = SOURCE_ROOT.matcher(normalizedPath);
+        int packageStart = -1;
+        while (sourceRoot.find()) {
+            packageStart = sourceRoot.end();
         }
-
-        if (normalizedPath.contains("src/main/java/")) {
-            int index = normalizedPath.indexOf("src/main/java/");
-            return normalizedPath.substring(index + "src/main/java/".length());
+        if (packageStart >= 0) {
+            return normalizedPath.substring(packageStart);
         }
 
         if (normalizedPath.contains("src/") && normalizedPath.contains("/java/")) {
@@ -1,10 +1,10 @@
 package io.testomat.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.testomat.exception.CliException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -46,13 +46,21 @@ public class ResponseParser {
         return testsNode;
     }
 
+    /**
+     * Reads the tests object field by field instead of binding it, so no deserializer has to
+     * be built reflectively; this also keeps the native image free of reflection config.
+     */
     private Map<String, String> convertTestsNodeToMap(JsonNode testsNode) {
-        try {
-            return objectMapper.convertValue(testsNode, new TypeReference<Map<String, String>>() {
-            });
-        } catch (IllegalArgumentException e) {
-            throw new CliException("Failed to convert tests data: " + e.getMessage(), e);
+        Map<String, String> testsMap = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> field : testsNode.properties()) {
+            JsonNode value = field.getValue();
+            if (!value.isValueNode()) {
+                throw new CliException("Failed to convert tests data: value of '"
+                        + field.getKey() + "' is not a string");
+            }
+            testsMap.put(field.getKey(), value.isNull() ? null : value.asText());
         }
+        return testsMap;
     }
 
     private void validateTestsMap(Map<String, String> testsMap) {
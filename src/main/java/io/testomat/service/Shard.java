@@ -0,0 +1,98 @@
+package io.testomat.service;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One of {@code N} deterministic partitions of the source files, so that several CI nodes
+ * can split an import. A file belongs to the shard picked by a 64-bit FNV-1a hash of its
+ * path relative to the scanned directory, which is the same on every node and operating
+ * system regardless of where the repository is checked out.
+ */
+public final class Shard {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int index;
+    private final int count;
+
+    public Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/N with 1 <= i <= N, got "
+                    + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parses {@code i/N}, with shards numbered from 1.
+     */
+    public static Shard parse(String value) {
+        int slash = value.indexOf('/');
+        try {
+            if (slash > 0) {
+                return new Shard(Integer.parseInt(value.substring(0, slash).trim()),
+                        Integer.parseInt(value.substring(slash + 1).trim()));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Shard must look like i/N, e.g. 1/4, got '"
+                + value + "'");
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Keeps the files below {@code directory} that belong to this shard, in their order.
+     */
+    public List<File> select(File directory, List<File> files) {
+        Path root = directory.toPath().toAbsolutePath().normalize();
+        List<File> selected = new ArrayList<>();
+        for (File file : files) {
+            if (contains(relativePath(root, file.toPath()))) {
+                selected.add(file);
+            }
+        }
+        return selected;
+    }
+
+    public boolean contains(String relativePath) {
+        return shardOf(relativePath, count) == index;
+    }
+
+    /**
+     * The 1-based shard of a relative path with {@code /} separators.
+     */
+    static int shardOf(String relativePath, int count) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : relativePath.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return (int) Long.remainderUnsigned(hash, count) + 1;
+    }
+
+    /**
+     * Path of {@code file} relative to {@code root}, with {@code /} separators.
+     */
+    public static String relativePath(Path root, Path file) {
+        Path relative = root.relativize(file.toAbsolutePath().normalize());
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
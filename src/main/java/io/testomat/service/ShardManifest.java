@@ -0,0 +1,191 @@
+package io.testomat.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.testomat.exception.CliException;
+import io.testomat.util.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * What one shard of a sharded import processed: the files of the shard and a digest of the
+ * full file list the node partitioned. {@link #verify} checks that the manifests of all
+ * nodes agree on that list and together cover every file exactly once.
+ */
+public final class ShardManifest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int FORMAT_VERSION = 1;
+
+    private final int shard;
+    private final int shardCount;
+    private final int totalFiles;
+    private final String filesDigest;
+    private final List<String> files;
+    private final int tests;
+
+    ShardManifest(int shard, int shardCount, int totalFiles, String filesDigest,
+                  List<String> files, int tests) {
+        this.shard = shard;
+        this.shardCount = shardCount;
+        this.totalFiles = totalFiles;
+        this.filesDigest = filesDigest;
+        this.files = files;
+        this.tests = tests;
+    }
+
+    /**
+     * Describes a finished shard.
+     *
+     * @param allFiles files of all shards, before partitioning
+     * @param selected files of this shard
+     * @param tests    number of tests the shard exported
+     */
+    public static ShardManifest of(Shard shard, File directory, List<File> allFiles,
+                                   List<File> selected, int tests) {
+        Path root = directory.toPath().toAbsolutePath().normalize();
+        return new ShardManifest(shard.getIndex(), shard.getCount(), allFiles.size(),
+                digest(relativePaths(root, allFiles)), new ArrayList<>(
+                        relativePaths(root, selected)), tests);
+    }
+
+    public static ShardManifest read(Path file) {
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(file.toFile());
+            if (root.path("version").asInt() != FORMAT_VERSION) {
+                throw new CliException("Unsupported shard manifest version in " + file);
+            }
+            List<String> files = new ArrayList<>();
+            root.path("files").forEach(node -> files.add(node.asText()));
+            return new ShardManifest(root.path("shard").asInt(),
+                    root.path("shardCount").asInt(), root.path("totalFiles").asInt(),
+                    root.path("filesDigest").asText(), files, root.path("tests").asInt());
+        } catch (IOException e) {
+            throw new CliException("Cannot read shard manifest " + file + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    public void write(Path file) {
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        root.put("version", FORMAT_VERSION);
+        root.put("shard", shard);
+        root.put("shardCount", shardCount);
+        root.put("totalFiles", totalFiles);
+        root.put("filesDigest", filesDigest);
+        root.put("tests", tests);
+        ArrayNode filesNode = root.putArray("files");
+        files.forEach(filesNode::add);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+        } catch (IOException e) {
+            throw new CliException("Failed to write shard manifest " + file, e);
+        }
+    }
+
+    /**
+     * Checks that the manifests come from the same partitioning, that every shard is
+     * present once and that each file was processed by exactly one shard.
+     *
+     * @param expectedFiles relative paths that must be covered, e.g. from a local scan,
+     *                      or {@code null} to rely on the recorded digest and count
+     * @return problems found, empty if the shards covered every file
+     */
+    public static List<String> verify(List<ShardManifest> manifests,
+                                      Collection<String> expectedFiles) {
+        List<String> problems = new ArrayList<>();
+        if (manifests.isEmpty()) {
+            problems.add("No shard manifests given");
+            return problems;
+        }
+        ShardManifest first = manifests.get(0);
+        Map<Integer, ShardManifest> byShard = new TreeMap<>();
+        for (ShardManifest manifest : manifests) {
+            if (manifest.shardCount != first.shardCount
+                    || !manifest.filesDigest.equals(first.filesDigest)) {
+                problems.add("Shard " + manifest.label() + " partitioned a different file "
+                        + "list than shard " + first.label());
+            }
+            if (byShard.put(manifest.shard, manifest) != null) {
+                problems.add("Shard " + manifest.label() + " was given more than once");
+            }
+        }
+        for (int i = 1; i <= first.shardCount; i++) {
+            if (!byShard.containsKey(i)) {
+                problems.add("Shard " + i + "/" + first.shardCount + " is missing");
+            }
+        }
+
+        Map<String, Integer> owners = new TreeMap<>();
+        for (ShardManifest manifest : byShard.values()) {
+            for (String file : manifest.files) {
+                Integer previous = owners.put(file, manifest.shard);
+                if (previous != null) {
+                    problems.add(file + " was processed by shards " + previous + " and "
+                            + manifest.shard);
+                }
+            }
+        }
+        if (expectedFiles != null) {
+            Set<String> missing = new TreeSet<>(expectedFiles);
+            missing.removeAll(owners.keySet());
+            missing.forEach(file -> problems.add(file + " was not processed by any shard"));
+            Set<String> unexpected = new TreeSet<>(owners.keySet());
+            unexpected.removeAll(expectedFiles);
+            unexpected.forEach(file -> problems.add(file + " was processed but is not in "
+                    + "the directory"));
+        } else if (problems.isEmpty() && owners.size() != first.totalFiles) {
+            problems.add("Shards processed " + owners.size() + " files, but the directory "
+                    + "had " + first.totalFiles);
+        }
+        return problems;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public int getTests() {
+        return tests;
+    }
+
+    private String label() {
+        return shard + "/" + shardCount;
+    }
+
+    public static Set<String> relativePaths(Path root, Collection<File> files) {
+        Set<String> paths = new TreeSet<>();
+        files.forEach(file -> paths.add(Shard.relativePath(root, file.toPath())));
+        return paths;
+    }
+
+    private static String digest(Set<String> sortedPaths) {
+        return Hashing.sha256Hex(sortedPaths);
+    }
+}
@@ -0,0 +1,137 @@
+package io.testomat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.testomat.exception.CliException;
+import io.testomat.exception.SourceFileException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Files a run skipped because they were too large, too slow to parse or broken. Workers
+ * record into it from any thread and processing goes on; the command prints a summary and
+ * can write the details as JSON.
+ */
+public class SkippedFilesReport {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public void record(File file, Throwable error) {
+        SourceFileException.Reason reason = error instanceof SourceFileException
+                ? ((SourceFileException) error).getReason()
+                : SourceFileException.Reason.ERROR;
+        Entry entry = new Entry(file.getPath(), reason, describe(error), file.length());
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (entries) {
+            return entries.isEmpty();
+        }
+    }
+
+    /**
+     * Skipped files ordered by path.
+     */
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return entries.stream()
+                    .sorted(Comparator.comparing(Entry::getFile))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * One line such as {@code Skipped 3 files: 1 too-large, 2 parse-error}.
+     */
+    public String summary() {
+        Map<SourceFileException.Reason, Integer> counts =
+                new EnumMap<>(SourceFileException.Reason.class);
+        List<Entry> skipped = getEntries();
+        skipped.forEach(entry -> counts.merge(entry.getReason(), 1, Integer::sum));
+        return "Skipped " + skipped.size() + " files: " + counts.entrySet().stream()
+                .map(count -> count.getValue() + " " + count.getKey().getLabel())
+                .collect(Collectors.joining(", "));
+    }
+
+    public void writeJson(Path file) {
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        List<Entry> skipped = getEntries();
+        root.put("skipped", skipped.size());
+        ArrayNode files = root.putArray("files");
+        for (Entry entry : skipped) {
+            files.addObject()
+                    .put("file", entry.getFile())
+                    .put("reason", entry.getReason().getLabel())
+                    .put("bytes", entry.getBytes())
+                    .put("message", entry.getMessage());
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+        } catch (IOException e) {
+            throw new CliException("Failed to write error report to " + file, e);
+        }
+    }
+
+    /**
+     * The message of the error and of its innermost cause, which for parse errors holds the
+     * line and column.
+     */
+    private static String describe(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = String.valueOf(error.getMessage());
+        if (root != error && root.getMessage() != null) {
+            message += ": " + root.getMessage().lines().findFirst().orElse("");
+        }
+        return message;
+    }
+
+    public static final class Entry {
+        private final String file;
+        private final SourceFileException.Reason reason;
+        private final String message;
+        private final long bytes;
+
+        Entry(String file, SourceFileException.Reason reason, String message, long bytes) {
+            this.file = file;
+            this.reason = reason;
+            this.message = message;
+            this.bytes = bytes;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public SourceFileException.Reason getReason() {
+            return reason;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.testomat.service;
+
+import io.testomat.util.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes a cheap fingerprint of a set of source files from their paths, sizes and
+ * modification times, without reading file contents.
+ */
+public class SourceFingerprint {
+
+    private SourceFingerprint() {
+    }
+
+    public static String compute(List<Path> files) {
+        List<String> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            entries.add(describe(file));
+        }
+        Collections.sort(entries);
+
+        return Hashing.sha256Hex(entries);
+    }
+
+    private static String describe(Path file) {
+        String path = file.toAbsolutePath().normalize().toString();
+        try {
+            BasicFileAttributes attributes =
+                    Files.readAttributes(file, BasicFileAttributes.class);
+            return path + "|" + attributes.size() + "|"
+                    + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return path + "|missing";
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.testomat.service;
+
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads source files once and decodes them as UTF-8, replacing malformed bytes the way the
+ * parser's reader used to.
+ *
+ * <p>Small files are read into byte arrays taken from a shared pool, so reading a tree of
+ * typical test classes does not allocate a buffer per file. Larger files are read with a
+ * plain channel read into a heap array of their size. They are not memory-mapped: the text
+ * is copied into a {@code String} anyway, and a mapping stays open until it is garbage
+ * collected, which on Windows blocks rewriting the file.
+ */
+public final class SourceLoader {
+    private static final int POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    private SourceLoader() {
+    }
+
+    public static SourceText load(Path file) throws IOException {
+        PhaseStats stats = RunStats.get().phase(Phase.READ);
+        try (Timer ignored = stats.time()) {
+            final long readMillis = System.currentTimeMillis();
+            BasicFileAttributes attributes = Files.readAttributes(file,
+                    BasicFileAttributes.class);
+            long size = attributes.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to read: " + size + " bytes");
+            }
+            String text;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                text = read(channel, (int) size);
+            }
+            stats.increment(PhaseStats.FILES);
+            stats.add(PhaseStats.BYTES, size);
+            return new SourceText(file, text, size, attributes.lastModifiedTime(),
+                    readMillis);
+        }
+    }
+
+    private static String read(FileChannel channel, int size) throws IOException {
+        if (size > POOLED_BUFFER_SIZE) {
+            return new String(readFully(channel, new byte[size], size), 0, size,
+                    StandardCharsets.UTF_8);
+        }
+        byte[] buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new byte[POOLED_BUFFER_SIZE];
+        }
+        try {
+            return new String(readFully(channel, buffer, size), 0, size,
+                    StandardCharsets.UTF_8);
+        } finally {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    private static byte[] readFully(FileChannel channel, byte[] buffer, int size)
+            throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, size);
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new EOFException("File shrank while it was read");
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,421 @@
+package io.testomat.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which directories and files a scan visits, on top of the fixed exclusions of
+ * {@link TestFileScanner}: {@code --include} and {@code --exclude} globs and, optionally,
+ * {@code .gitignore} files.
+ *
+ * <p>Globs are matched against paths relative to the scanned directory with {@code /} as
+ * separator. {@code *} and {@code ?} stay within a path segment, {@code **} spans segments,
+ * and {@code [a-z]} and {@code {a,b}} work as in shells. A glob without {@code /} matches
+ * at any depth. All globs of one kind are compiled once into a single regular expression.
+ *
+ * <p>An excluded directory is pruned before it is listed. Includes select files; a
+ * directory is only entered if some include can match below it, judging by the literal
+ * leading segments of the include globs.
+ */
+public final class SourcePathFilter {
+    public static final SourcePathFilter NONE =
+            new SourcePathFilter(Collections.emptyList(), Collections.emptyList(), false);
+
+    private static final String GITIGNORE = ".gitignore";
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final boolean gitignore;
+    private final Pattern includePattern;
+    private final Pattern excludePattern;
+    private final List<String> includePrefixes;
+
+    private SourcePathFilter(List<String> includes, List<String> excludes, boolean gitignore) {
+        this.includes = List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.gitignore = gitignore;
+        this.includePattern = compile(includes, false);
+        this.excludePattern = compile(excludes, true);
+        this.includePrefixes = includes.stream()
+                .map(SourcePathFilter::literalPrefix)
+                .collect(Collectors.toList());
+    }
+
+    public static SourcePathFilter of(List<String> includes, List<String> excludes,
+                                      boolean gitignore) {
+        if (includes.isEmpty() && excludes.isEmpty() && !gitignore) {
+            return NONE;
+        }
+        return new SourcePathFilter(includes, excludes, gitignore);
+    }
+
+    /**
+     * Identifies the filter in cache keys; scans with different filters differ.
+     */
+    public String describe() {
+        if (this == NONE) {
+            return "";
+        }
+        return "include=" + includes + ";exclude=" + excludes + ";gitignore=" + gitignore;
+    }
+
+    /**
+     * Starts a scan of {@code root}. With {@code .gitignore} support this loads the ignore
+     * files of the enclosing git repository above {@code root}.
+     */
+    public Scope scope(Path root) {
+        Path absoluteRoot = root.toAbsolutePath().normalize();
+        Scope scope = new Scope(absoluteRoot, null, null, new ArrayList<>());
+        if (gitignore) {
+            Path repositoryRoot = findRepositoryRoot(absoluteRoot);
+            if (repositoryRoot != null) {
+                scope = scope.withIgnoreFile(repositoryRoot.resolve(".git/info/exclude"),
+                        repositoryRoot);
+                List<Path> ancestors = new ArrayList<>();
+                for (Path dir = absoluteRoot.getParent();
+                        dir != null && dir.startsWith(repositoryRoot); dir = dir.getParent()) {
+                    ancestors.add(0, dir);
+                }
+                for (Path ancestor : ancestors) {
+                    scope = scope.withIgnoreFile(ancestor.resolve(GITIGNORE), ancestor);
+                }
+            }
+            scope = scope.withIgnoreFile(absoluteRoot.resolve(GITIGNORE), absoluteRoot);
+        }
+        return scope;
+    }
+
+    private static Path findRepositoryRoot(Path directory) {
+        for (Path dir = directory; dir != null; dir = dir.getParent()) {
+            if (Files.exists(dir.resolve(".git"))) {
+                return dir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Filter state for one directory of a scan: the scan root plus the {@code .gitignore}
+     * rules that apply here, outermost first.
+     */
+    public final class Scope {
+        private final Path root;
+        private final Scope parent;
+        private final IgnoreRules rules;
+        private final List<Path> ignoreFiles;
+
+        private Scope(Path root, Scope parent, IgnoreRules rules, List<Path> ignoreFiles) {
+            this.root = root;
+            this.parent = parent;
+            this.rules = rules;
+            this.ignoreFiles = ignoreFiles;
+        }
+
+        /**
+         * Returns the scope for a subdirectory, adding its {@code .gitignore} if any.
+         */
+        public Scope enter(Path directory) {
+            return gitignore
+                    ? withIgnoreFile(directory.resolve(GITIGNORE),
+                            directory.toAbsolutePath().normalize())
+                    : this;
+        }
+
+        /**
+         * Tells whether a subdirectory is excluded and must not be listed.
+         */
+        public boolean isExcludedDirectory(Path directory) {
+            String relative = relativize(directory);
+            if (relative.isEmpty()) {
+                return false;
+            }
+            if (excludePattern != null && excludePattern.matcher(relative).matches()) {
+                return true;
+            }
+            if (includePattern != null && !mayContainIncludes(relative)) {
+                return true;
+            }
+            return isIgnored(directory, true);
+        }
+
+        public boolean isIncludedFile(Path file) {
+            String relative = relativize(file);
+            if (excludePattern != null && excludePattern.matcher(relative).matches()) {
+                return false;
+            }
+            if (includePattern != null && !includePattern.matcher(relative).matches()) {
+                return false;
+            }
+            return !isIgnored(file, false);
+        }
+
+        /**
+         * The {@code .gitignore} files read so far, so that cached scans can be checked
+         * for edits to them.
+         */
+        public List<Path> getIgnoreFiles() {
+            return Collections.unmodifiableList(ignoreFiles);
+        }
+
+        private Scope withIgnoreFile(Path ignoreFile, Path base) {
+            if (!Files.isRegularFile(ignoreFile)) {
+                return this;
+            }
+            try {
+                IgnoreRules loaded = IgnoreRules.parse(base,
+                        Files.readAllLines(ignoreFile, StandardCharsets.UTF_8));
+                ignoreFiles.add(ignoreFile);
+                return loaded.isEmpty() ? this : new Scope(root, this, loaded, ignoreFiles);
+            } catch (IOException e) {
+                return this;
+            }
+        }
+
+        private boolean isIgnored(Path path, boolean directory) {
+            if (rules == null) {
+                return false;
+            }
+            Path absolute = path.toAbsolutePath().normalize();
+            Boolean ignored = null;
+            List<IgnoreRules> chain = new ArrayList<>();
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (scope.rules != null) {
+                    chain.add(0, scope.rules);
+                }
+            }
+            for (IgnoreRules ignoreRules : chain) {
+                Boolean match = ignoreRules.match(absolute, directory);
+                if (match != null) {
+                    ignored = match;
+                }
+            }
+            return Boolean.TRUE.equals(ignored);
+        }
+
+        private boolean mayContainIncludes(String directory) {
+            String withSlash = directory + "/";
+            for (String prefix : includePrefixes) {
+                if (prefix.isEmpty() || prefix.startsWith(withSlash)
+                        || withSlash.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String relativize(Path path) {
+            return toGlobPath(root.relativize(path.toAbsolutePath().normalize()));
+        }
+    }
+
+    /**
+     * The rules of one {@code .gitignore} file, matched against paths relative to its
+     * directory. The last matching rule wins; {@code !} rules re-include.
+     */
+    static final class IgnoreRules {
+        private final Path base;
+        private final List<Rule> rules;
+
+        private IgnoreRules(Path base, List<Rule> rules) {
+            this.base = base;
+            this.rules = rules;
+        }
+
+        static IgnoreRules parse(Path base, List<String> lines) {
+            List<Rule> rules = new ArrayList<>();
+            for (String line : lines) {
+                String pattern = stripTrailingSpaces(line);
+                if (pattern.isEmpty() || pattern.startsWith("#")) {
+                    continue;
+                }
+                boolean negated = pattern.startsWith("!");
+                if (negated) {
+                    pattern = pattern.substring(1);
+                }
+                boolean directoryOnly = pattern.endsWith("/");
+                if (directoryOnly) {
+                    pattern = pattern.substring(0, pattern.length() - 1);
+                }
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                boolean anchored = pattern.indexOf('/') >= 0;
+                if (pattern.startsWith("/")) {
+                    pattern = pattern.substring(1);
+                }
+                String glob = anchored ? pattern : "**/" + pattern;
+                rules.add(new Rule(Pattern.compile(globToRegex(glob, true)), negated,
+                        directoryOnly));
+            }
+            return new IgnoreRules(base, rules);
+        }
+
+        boolean isEmpty() {
+            return rules.isEmpty();
+        }
+
+        /**
+         * Returns {@code TRUE} if ignored, {@code FALSE} if re-included and {@code null}
+         * when no rule matches.
+         */
+        Boolean match(Path absolutePath, boolean directory) {
+            if (!absolutePath.startsWith(base) || absolutePath.equals(base)) {
+                return null;
+            }
+            String relative = toGlobPath(base.relativize(absolutePath));
+            Boolean result = null;
+            for (Rule rule : rules) {
+                if ((directory || !rule.directoryOnly)
+                        && rule.pattern.matcher(relative).matches()) {
+                    result = !rule.negated;
+                }
+            }
+            return result;
+        }
+
+        private static String stripTrailingSpaces(String line) {
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' '
+                    && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        private static final class Rule {
+            private final Pattern pattern;
+            private final boolean negated;
+            private final boolean directoryOnly;
+
+            Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+                this.pattern = pattern;
+                this.negated = negated;
+                this.directoryOnly = directoryOnly;
+            }
+        }
+    }
+
+    private static Pattern compile(List<String> globs, boolean matchDirectories) {
+        if (globs.isEmpty()) {
+            return null;
+        }
+        List<String> alternatives = new ArrayList<>();
+        for (String glob : globs) {
+            String normalized = glob.replace('\\', '/');
+            if (normalized.startsWith("/")) {
+                normalized = normalized.substring(1);
+            } else if (normalized.indexOf('/') < 0) {
+                normalized = "**/" + normalized;
+            }
+            alternatives.add(globToRegex(normalized, matchDirectories));
+        }
+        return Pattern.compile(alternatives.stream()
+                .map(regex -> "(?:" + regex + ")")
+                .collect(Collectors.joining("|")));
+    }
+
+    /**
+     * Translates a glob into a regular expression. With {@code matchDirectories}, a glob
+     * ending in {@code /**} also matches the directory itself, so it can be pruned.
+     */
+    static String globToRegex(String glob, boolean matchDirectories) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                boolean doubleStar = i + 1 < glob.length() && glob.charAt(i + 1) == '*';
+                if (doubleStar && i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+                    regex.append("(?:.*/)?");
+                    i += 3;
+                } else if (doubleStar) {
+                    if (matchDirectories && regex.length() > 0
+                            && regex.charAt(regex.length() - 1) == '/') {
+                        regex.setLength(regex.length() - 1);
+                        regex.append("(?:/.*)?");
+                    } else {
+                        regex.append(".*");
+                    }
+                    i += 2;
+                } else {
+                    regex.append("[^/]*");
+                    i++;
+                }
+                continue;
+            }
+            if (c == '[') {
+                int end = glob.indexOf(']', i + 2);
+                if (end > 0) {
+                    String members = glob.substring(i + 1, end);
+                    if (members.startsWith("!")) {
+                        members = "^" + members.substring(1);
+                    }
+                    regex.append('[').append(members.replace("\\", "\\\\")).append(']');
+                    i = end + 1;
+                    continue;
+                }
+            }
+            switch (c) {
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '{':
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    regex.append(inGroup ? ")" : "\\}");
+                    inGroup = false;
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        i++;
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+                    }
+                    break;
+                default:
+                    if ("().+^$|".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+            i++;
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Literal leading directories of an include glob, e.g. {@code src/test/} for
+     * {@code src/test/**}; empty if it may match anywhere.
+     */
+    private static String literalPrefix(String glob) {
+        String normalized = glob.replace('\\', '/');
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        } else if (normalized.indexOf('/') < 0) {
+            return "";
+        }
+        int wildcard = 0;
+        while (wildcard < normalized.length()
+                && "*?[{\\".indexOf(normalized.charAt(wildcard)) < 0) {
+            wildcard++;
+        }
+        return normalized.substring(0, normalized.lastIndexOf('/', wildcard - 1) + 1);
+    }
+
+    private static String toGlobPath(Path relative) {
+        String path = relative.toString();
+        return path.replace(relative.getFileSystem().getSeparator(), "/");
+    }
+}
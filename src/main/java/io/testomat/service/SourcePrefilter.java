@@ -0,0 +1,137 @@
+package io.testomat.service;
+
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap checks that rule out files before they are parsed. A check only returns
+ * {@code false} when parsing the file could not change the result; unreadable files are
+ * always kept so the parser reports them as before.
+ */
+public class SourcePrefilter {
+
+    private static final Pattern TEST_ANNOTATION = Pattern.compile(
+            "@\\s*(?:[\\w$]+\\s*\\.\\s*)*(?:Test|ParameterizedTest|RepeatedTest|TestFactory)\\b");
+    private static final String TEST_ID = "TestId";
+    private static final String KEY_DELIMITER = "#";
+
+    /**
+     * Tells whether the file may declare test methods, i.e. mentions a test annotation.
+     */
+    public boolean mayContainTests(File file) {
+        return check(file, SourcePrefilter::mentionsTestAnnotation);
+    }
+
+    /**
+     * Like {@link #mayContainTests(File)} for text that was already read.
+     */
+    public boolean mayContainTests(SourceText source) {
+        return check(contentOf(source), SourcePrefilter::mentionsTestAnnotation);
+    }
+
+    /**
+     * Tells whether the file may contain {@code @TestId} annotations or imports.
+     */
+    public boolean mayContainTestIds(File file) {
+        return check(file, content -> content.contains(TEST_ID));
+    }
+
+    /**
+     * Like {@link #mayContainTestIds(File)} for text that was already read.
+     */
+    public boolean mayContainTestIds(SourceText source) {
+        return check(contentOf(source), content -> content.contains(TEST_ID));
+    }
+
+    /**
+     * Keeps the files whose name appears in a {@code file#class#method} key of the server
+     * test map; methods are only ever matched within a file of the same name.
+     */
+    public List<Path> filterReferencedFiles(List<Path> javaFiles, Collection<String> testKeys) {
+        PhaseStats stats = RunStats.get().phase(Phase.PREFILTER);
+        try (Timer ignored = stats.time()) {
+            Set<String> fileNames = new HashSet<>();
+            for (String key : testKeys) {
+                int delimiter = key.indexOf(KEY_DELIMITER);
+                if (delimiter <= 0) {
+                    continue;
+                }
+                try {
+                    Path name = Paths.get(key.substring(0, delimiter).trim()).getFileName();
+                    if (name != null) {
+                        fileNames.add(name.toString());
+                    }
+                } catch (InvalidPathException e) {
+                    return javaFiles;
+                }
+            }
+
+            List<Path> referenced = new ArrayList<>();
+            for (Path file : javaFiles) {
+                if (fileNames.contains(file.getFileName().toString())) {
+                    referenced.add(file);
+                }
+            }
+            stats.add(PhaseStats.FILES, javaFiles.size());
+            stats.add(PhaseStats.KEPT, referenced.size());
+            return referenced;
+        }
+    }
+
+    private static boolean mentionsTestAnnotation(String content) {
+        return TEST_ANNOTATION.matcher(content).find();
+    }
+
+    /**
+     * The text, or {@code null} when it is not valid UTF-8 and the file is kept as if it
+     * could not be read.
+     */
+    private static String contentOf(SourceText source) {
+        return source.isLossless() ? source.getText() : null;
+    }
+
+    private boolean check(File file, Predicate<String> test) {
+        String content;
+        try {
+            content = contentOf(SourceLoader.load(file.toPath()));
+        } catch (IOException | RuntimeException e) {
+            content = null;
+        }
+        return check(content, test);
+    }
+
+    /**
+     * Applies the test to the content, keeping files whose content is {@code null} because
+     * they could not be read.
+     */
+    private boolean check(String content, Predicate<String> test) {
+        PhaseStats stats = RunStats.get().phase(Phase.PREFILTER);
+        try (Timer ignored = stats.time()) {
+            stats.increment(PhaseStats.FILES);
+            boolean keep;
+            try {
+                keep = content == null || test.test(content);
+            } catch (RuntimeException e) {
+                keep = true;
+            }
+            if (keep) {
+                stats.increment(PhaseStats.KEPT);
+            }
+            return keep;
+        }
+    }
+}
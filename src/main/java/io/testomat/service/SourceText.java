@@ -0,0 +1,135 @@
+package io.testomat.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The decoded text of a source file with the size and modification time it had before it
+ * was read, and the time it was read at. It is loaded once by {@link SourceLoader} and
+ * handed to the prefilter, the parser and, attached to the parsed tree, to
+ * {@link MinimalFileModificationService}.
+ */
+public final class SourceText {
+
+    /**
+     * What the decoder puts in place of bytes that are not valid UTF-8.
+     */
+    private static final char REPLACEMENT_CHARACTER = (char) 0xFFFD;
+
+    private static final DataKey<SourceText> SOURCE_TEXT = new DataKey<SourceText>() {
+    };
+
+    private final Path path;
+    private final String text;
+    private final long size;
+    private final FileTime modifiedTime;
+    private final long readMillis;
+
+    SourceText(Path path, String text, long size, FileTime modifiedTime, long readMillis) {
+        this.path = path;
+        this.text = text;
+        this.size = size;
+        this.modifiedTime = modifiedTime;
+        this.readMillis = readMillis;
+    }
+
+    /**
+     * Remembers the text a tree was parsed from.
+     */
+    public static void attach(CompilationUnit compilationUnit, SourceText source) {
+        compilationUnit.setData(SOURCE_TEXT, source);
+    }
+
+    /**
+     * The text the tree was parsed from, if it was attached.
+     */
+    public static Optional<SourceText> of(CompilationUnit compilationUnit) {
+        return compilationUnit.containsData(SOURCE_TEXT)
+                ? Optional.of(compilationUnit.getData(SOURCE_TEXT))
+                : Optional.empty();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Size in bytes on disk.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public FileTime getModifiedTime() {
+        return modifiedTime;
+    }
+
+    /**
+     * Whether the text decoded cleanly, i.e. has no replacement characters for bytes that
+     * are not valid UTF-8, so that writing it back keeps the file as it was.
+     */
+    public boolean isLossless() {
+        return text.indexOf(REPLACEMENT_CHARACTER) < 0;
+    }
+
+    /**
+     * Whether the file was last modified long enough before it was read that a later write
+     * would have given it a new modification time, even where timestamps are coarse.
+     */
+    public boolean isSettled() {
+        return WarmState.settled(modifiedTime, readMillis);
+    }
+
+    /**
+     * Whether the file still has the size and modification time it had when it was read,
+     * and it had settled then, so that the text is known to be what is on disk.
+     */
+    public boolean isCurrent() {
+        if (!isSettled()) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path,
+                    BasicFileAttributes.class);
+            return attributes.size() == size && attributes.lastModifiedTime().equals(modifiedTime);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The lines of the text, split like {@link Files#readAllLines(Path)}: at {@code \n},
+     * {@code \r\n} or {@code \r}, without an empty line after a final line break.
+     */
+    public List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                lines.add(text.substring(start, i));
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+}
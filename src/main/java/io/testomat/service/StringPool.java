@@ -0,0 +1,42 @@
+package io.testomat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates the strings and string lists that repeat across test cases, such as labels
+ * and suite names, so that a large import holds one copy of each. Lists come back
+ * unmodifiable and as compact as {@link List#of} makes them. Safe to use from several
+ * threads.
+ */
+public final class StringPool {
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<String>, List<String>> lists =
+            new ConcurrentHashMap<>();
+
+    public String intern(String value) {
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * The shared unmodifiable list equal to {@code values}, made of pooled strings.
+     */
+    public List<String> internList(List<String> values) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        List<String> existing = lists.get(values);
+        if (existing != null) {
+            return existing;
+        }
+        List<String> pooled = new ArrayList<>(values.size());
+        for (String value : values) {
+            pooled.add(intern(value));
+        }
+        List<String> compact = List.copyOf(pooled);
+        existing = lists.putIfAbsent(compact, compact);
+        return existing != null ? existing : compact;
+    }
+}
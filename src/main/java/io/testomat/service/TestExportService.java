@@ -4,35 +4,79 @@ import com.github.javaparser.ast.CompilationUnit;
 import io.testomat.client.CliClient;
 import io.testomat.client.TestomatHttpClient;
 import io.testomat.exception.CliException;
+import io.testomat.model.SourceModule;
 import io.testomat.model.TestCase;
 import io.testomat.progressbar.LoadingSpinner;
 import io.testomat.progressbar.ProgressBar;
+import io.testomat.progressbar.ProgressMode;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class TestExportService {
     private static final Logger log = LoggerFactory.getLogger(TestExportService.class);
+    // batches waiting per uploader; with the uploads in flight this bounds the tests in memory
+    private static final int QUEUED_BATCHES_PER_UPLOADER = 2;
+    // tests parsed by modules ahead of the one being exported; bounds memory like the queue
+    private static final int MODULE_READ_AHEAD_TESTS = 2000;
 
     private final JavaFileParser fileParser;
     private final TestMethodExtractor extractor;
     private final TestFrameworkDetector detector;
     private final JsonBuilder jsonBuilder;
+    private final SourcePrefilter prefilter = new SourcePrefilter();
     private final TestomatHttpClient httpClient;
     private final LoadingSpinner spinner;
     private final int batchSize = 100;
+    private final int uploadConcurrency;
+    private final SkippedFilesReport skippedFiles = new SkippedFilesReport();
+    private volatile BiConsumer<File, List<TestCase>> parsedFileListener;
 
     public TestExportService() {
-        this.fileParser = new JavaFileParser();
+        this(new CliClient(), 1);
+    }
+
+    /**
+     * Creates a service that uploads batches through the given client using up to
+     * {@code uploadConcurrency} parallel requests.
+     */
+    public TestExportService(TestomatHttpClient httpClient, int uploadConcurrency) {
+        this(httpClient, uploadConcurrency, ParseLimits.DEFAULT);
+    }
+
+    /**
+     * Creates a service that skips files over the given parse limits and records them in
+     * {@link #getSkippedFiles()}.
+     */
+    public TestExportService(TestomatHttpClient httpClient, int uploadConcurrency,
+                             ParseLimits parseLimits) {
+        this(httpClient, uploadConcurrency, parseLimits, ParserSettings.DEFAULT);
+    }
+
+    /**
+     * Creates a service that parses with the given settings, which must attach comments
+     * for comment labels to be found.
+     */
+    public TestExportService(TestomatHttpClient httpClient, int uploadConcurrency,
+                             ParseLimits parseLimits, ParserSettings parserSettings) {
+        this.fileParser = new JavaFileParser(parseLimits, parserSettings);
         this.extractor = new TestMethodExtractor();
         this.detector = new TestFrameworkDetector();
         this.jsonBuilder = new JsonBuilder();
-        this.httpClient = new CliClient();
+        this.httpClient = httpClient;
         this.spinner = new LoadingSpinner("Sending test data to server...");
+        this.uploadConcurrency = Math.max(1, uploadConcurrency);
     }
 
     public TestExportService(JavaFileParser fileParser, TestMethodExtractor extractor,
@@ -44,62 +88,255 @@ public class TestExportService {
         this.jsonBuilder = jsonBuilder;
         this.httpClient = httpClient;
         this.spinner = spinner;
+        this.uploadConcurrency = 1;
     }
 
     public int processTestFilesWithProgress(List<File> testFiles, String apiKey,
                                             String serverUrl, boolean dryRun,
                                             boolean verbose, ProgressBar progressBar,
                                             boolean structure) {
-        ProcessingResult result = processAllFiles(testFiles, verbose, progressBar);
+        return processTestFilesWithProgress(testFiles, apiKey, serverUrl, dryRun, verbose,
+                progressBar, structure, null);
+    }
 
-        return handleProcessingResult(result.allTestCases, result.primaryFramework,
-                apiKey, serverUrl, dryRun, structure);
+    /**
+     * Parses and exports test files, skipping batches recorded in the checkpoint journal and
+     * recording every batch the server acknowledges. Batches are uploaded while the
+     * remaining files are still being parsed.
+     *
+     * @param checkpoint journal of delivered batches, or {@code null} to upload everything
+     */
+    public int processTestFilesWithProgress(List<File> testFiles, String apiKey,
+                                            String serverUrl, boolean dryRun,
+                                            boolean verbose, ProgressBar progressBar,
+                                            boolean structure, ImportCheckpoint checkpoint) {
+        return export(sink -> {
+            parseFiles(testFiles, verbose, progressBar, sink);
+            if (progressBar != null) {
+                progressBar.finish();
+            }
+        }, apiKey, serverUrl, dryRun, structure, checkpoint);
     }
 
-    private List<TestCase> collectTestCasesFromFile(File file) {
-        CompilationUnit compilationUnit = fileParser.parseFile(file.getAbsolutePath());
-        if (compilationUnit == null) {
-            return new ArrayList<>();
+    /**
+     * Parses the files of several modules in parallel and exports the tests of all modules
+     * together. Each module reports its own progress and statistics. A module that fails
+     * does not stop the others; their tests are still exported and the failure is reported
+     * afterwards. Tests are uploaded in module order while the modules are being parsed.
+     *
+     * @param parallelism number of modules parsed at the same time
+     * @throws CliException after the export if any module failed
+     */
+    public int processModules(List<SourceModule> modules, int parallelism, String apiKey,
+                              String serverUrl, boolean dryRun, boolean verbose,
+                              boolean structure, ImportCheckpoint checkpoint) {
+        List<String> failedModules = new ArrayList<>();
+        int exported = export(
+                sink -> failedModules.addAll(parseModules(modules, parallelism, verbose, sink)),
+                apiKey, serverUrl, dryRun, structure, checkpoint);
+        if (!failedModules.isEmpty()) {
+            throw new CliException(failedModules.size() + " of " + modules.size()
+                    + " modules failed: " + String.join(", ", failedModules));
         }
+        return exported;
+    }
+
+    /**
+     * Parses the given files and returns their test methods without exporting them.
+     */
+    public ProcessingResult collectTestCases(List<File> testFiles, boolean verbose) {
+        return processAllFiles(testFiles, verbose, null);
+    }
+
+    /**
+     * Exports already collected test methods, or prints them on a dry run.
+     *
+     * @return number of test methods exported
+     */
+    public int exportTestCases(List<TestCase> testCases, String framework, String apiKey,
+                               String serverUrl, boolean dryRun, boolean structure) {
+        return export(sink -> sink.add(testCases, framework), apiKey, serverUrl, dryRun,
+                structure, null);
+    }
+
+    /**
+     * Parses the modules and hands their tests to the sink in module order while they are
+     * parsed, letting later modules parse ahead by at most {@link #MODULE_READ_AHEAD_TESTS}.
+     *
+     * @return names of the modules that failed
+     */
+    private List<String> parseModules(List<SourceModule> modules, int parallelism,
+                                      boolean verbose, TestSink sink) {
+        int totalFiles = modules.stream().mapToInt(module -> module.getFiles().size()).sum();
+        // one redrawn terminal line cannot show several bars, so a tty gets a shared one
+        ProgressBar sharedBar = ProgressMode.active() == ProgressMode.TTY
+                ? new ProgressBar(totalFiles, "Parsing " + totalFiles + " files in "
+                        + modules.size() + " modules")
+                : null;
 
-        String framework = detector.detectFramework(compilationUnit);
-        if (framework == null) {
-            return new ArrayList<>();
+        List<String> failedModules = new ArrayList<>();
+        ModuleReadAhead readAhead = new ModuleReadAhead(modules.size(),
+                MODULE_READ_AHEAD_TESTS);
+        // a fixed pool starts the modules in order, which the read-ahead relies on
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, modules.size())));
+        try {
+            for (int i = 0; i < modules.size(); i++) {
+                SourceModule module = modules.get(i);
+                TestSink moduleSink = readAhead.sink(i);
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        processModule(module, verbose, sharedBar, moduleSink);
+                        readAhead.complete(index, null);
+                    } catch (RuntimeException | Error e) {
+                        readAhead.complete(index, e);
+                    }
+                });
+            }
+            for (int i = 0; i < modules.size(); i++) {
+                Throwable failure = readAhead.drain(i, sink);
+                if (failure != null) {
+                    String name = modules.get(i).getName();
+                    failedModules.add(name);
+                    log.error("Module {} failed: {}", name, failure.toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CliException("Interrupted while parsing modules", e);
+        } finally {
+            executor.shutdownNow();
         }
+        if (sharedBar != null) {
+            sharedBar.finish();
+        }
+        return failedModules;
+    }
 
-        List<TestCase> testCases = extractor.extractTestCases(
-                compilationUnit, file.getAbsolutePath(), framework);
+    private void processModule(SourceModule module, boolean verbose, ProgressBar sharedBar,
+                               TestSink sink) {
+        PhaseStats stats = RunStats.get().module(module.getName());
+        ProgressBar progressBar = sharedBar != null ? sharedBar
+                : new ProgressBar(module.getFiles().size(), "Parsing " + module.getName());
+        int[] testCount = new int[1];
+        int failedFiles;
+        try (Timer ignored = stats.time()) {
+            failedFiles = parseFiles(module.getFiles(), verbose, progressBar,
+                    (testCases, framework) -> {
+                        testCount[0] += testCases.size();
+                        sink.add(testCases, framework);
+                    });
+        } catch (RuntimeException | StackOverflowError e) {
+            stats.increment(PhaseStats.FAILURES);
+            throw e;
+        }
+        if (sharedBar == null) {
+            progressBar.finish();
+        }
+        stats.add(PhaseStats.FILES, module.getFiles().size());
+        stats.add(PhaseStats.TESTS, testCount[0]);
+        stats.add(PhaseStats.FAILURES, failedFiles);
+    }
 
-        return testCases.isEmpty() ? new ArrayList<>() : testCases;
+    /**
+     * Calls {@code listener} with the tests of every file parsed from now on, including
+     * files without tests, possibly from several threads at once; {@code null} stops it.
+     */
+    public void setParsedFileListener(BiConsumer<File, List<TestCase>> listener) {
+        this.parsedFileListener = listener;
     }
 
-    private int exportAllTestCases(List<TestCase> allTestCases, String framework,
-                                   String apiKey, String serverUrl, boolean structure) {
-        validateExportConfig(serverUrl);
+    /**
+     * Files skipped so far because of parse limits or errors.
+     */
+    public SkippedFilesReport getSkippedFiles() {
+        return skippedFiles;
+    }
 
-        Stream<String> batchJsonBodies =
-                IntStream.iterate(0, i -> i < allTestCases.size(), i -> i + batchSize)
-                .mapToObj(i ->
-                jsonBuilder.buildRequestBody(
-                    allTestCases.subList(i,
-                        Math.min(i + batchSize, allTestCases.size())),
-                    framework, structure)
-            );
+    private List<TestCase> extractTestCases(CompilationUnit compilationUnit, File file) {
+        PhaseStats stats = RunStats.get().phase(Phase.EXTRACT);
+        try (Timer ignored = stats.time()) {
+            String framework = detector.detectFramework(compilationUnit);
+            if (framework == null) {
+                return new ArrayList<>();
+            }
 
-        String requestUrl = serverUrl + "/api/load?api_key=" + apiKey;
+            List<TestCase> testCases = extractor.extractTestCases(
+                    compilationUnit, file.getAbsolutePath(), framework);
+            stats.add(PhaseStats.TESTS, testCases.size());
 
-        spinner.start();
+            return testCases.isEmpty() ? new ArrayList<>() : testCases;
+        }
+    }
 
-        try {
-            batchJsonBodies.forEach(jsonBody -> httpClient.sendPostRequest(requestUrl, jsonBody));
-        } catch (Exception e) {
-            throw new CliException("Error while executing request", e);
+    /**
+     * Runs the parser and uploads its tests through an {@link ExportPipeline} as they come.
+     * The spinner is only shown once parsing, and with it the progress bar, is done.
+     */
+    private int exportWhileParsing(Consumer<TestSink> parser, String apiKey, String serverUrl,
+                                   boolean structure, ImportCheckpoint checkpoint) {
+        String requestUrl = serverUrl + "/api/load?api_key=" + apiKey;
+        int exported;
+        try (ExportPipeline pipeline = new ExportPipeline(batchSize, uploadConcurrency,
+                QUEUED_BATCHES_PER_UPLOADER * uploadConcurrency,
+                (testCases, framework) -> uploadBatch(requestUrl,
+                        buildBatchBody(testCases, framework, structure), checkpoint))) {
+            parser.accept((testCases, framework) -> {
+                if (pipeline.getAcceptedCount() == 0) {
+                    validateExportConfig(serverUrl);
+                }
+                pipeline.accept(testCases, framework);
+            });
+            if (pipeline.getAcceptedCount() == 0) {
+                log.info("No test methods found across all files");
+                return 0;
+            }
+            log.info("Found {} total test methods", pipeline.getAcceptedCount());
+            spinner.start();
+            exported = pipeline.finish();
+        } catch (CliException e) {
+            spinner.stop();
+            if (checkpoint != null && checkpoint.getAcknowledgedCount() > 0) {
+                System.err.println("Delivered batches were recorded in "
+                        + checkpoint.getJournalFile()
+                        + ". Re-run the import with --resume to skip them.");
+            }
+            throw e;
         }
 
-        spinner.stopWithMessage("Successfully exported " + allTestCases.size()
-                + " test methods");
+        spinner.stopWithMessage("Successfully exported " + exported + " test methods");
+        if (checkpoint != null) {
+            if (checkpoint.getSkippedBatches() > 0) {
+                log.info("Skipped {} batches already delivered by a previous run",
+                        checkpoint.getSkippedBatches());
+            }
+            checkpoint.complete();
+        }
+
+        return exported;
+    }
+
+    private void uploadBatch(String requestUrl, String jsonBody, ImportCheckpoint checkpoint) {
+        if (checkpoint != null && checkpoint.isAcknowledged(jsonBody)) {
+            return;
+        }
+        httpClient.sendPostRequest(requestUrl, jsonBody);
+        if (checkpoint != null) {
+            checkpoint.markAcknowledged(jsonBody);
+        }
+    }
 
-        return allTestCases.size();
+    private String buildBatchBody(List<TestCase> batch, String framework, boolean structure) {
+        PhaseStats stats = RunStats.get().phase(Phase.SERIALIZE);
+        try (Timer ignored = stats.time()) {
+            String body = jsonBuilder.buildRequestBody(batch, framework, structure);
+            if (RunStats.get().isEnabled()) {
+                stats.increment(PhaseStats.BATCHES);
+                stats.add(PhaseStats.BYTES, body.getBytes(StandardCharsets.UTF_8).length);
+            }
+            return body;
+        }
     }
 
     private void printAllTestCases(List<TestCase> testCases) {
@@ -118,71 +355,121 @@ public class TestExportService {
 
     private ProcessingResult processAllFiles(List<File> testFiles, boolean verbose,
                                              ProgressBar progressBar) {
-        List<TestCase> allTestCases = new ArrayList<>();
-        String primaryFramework = null;
-        int processedFilesCount = 0;
+        TestCollector collector = new TestCollector();
+        int failedFiles = parseFiles(testFiles, verbose, progressBar, collector);
+        return new ProcessingResult(collector.testCases, collector.framework, failedFiles);
+    }
+
+    /**
+     * Parses the files one by one and hands the tests of each to the sink.
+     *
+     * @return number of files skipped
+     */
+    private int parseFiles(List<File> testFiles, boolean verbose, ProgressBar progressBar,
+                           TestSink sink) {
+        int failedFiles = 0;
 
         for (File testFile : testFiles) {
+            List<TestCase> testCases = null;
+            String framework = null;
             try {
-                List<TestCase> testCases = collectTestCasesFromFile(testFile);
+                // read once for the prefilter and the parser
+                SourceText source = fileParser.load(testFile);
+                if (source == null || !prefilter.mayContainTests(source)) {
+                    continue;
+                }
+                CompilationUnit compilationUnit = fileParser.parse(source);
+                testCases = extractTestCases(compilationUnit, testFile);
                 if (!testCases.isEmpty()) {
-                    allTestCases.addAll(testCases);
-                    if (primaryFramework == null) {
-                        primaryFramework = detectFrameworkFromFile(testFile);
-                    }
+                    framework = detector.detectFramework(compilationUnit);
                 }
-            } catch (Exception e) {
+            } catch (Exception | StackOverflowError e) {
+                // collected for the report; one bad file must not stop the others
+                failedFiles++;
+                skippedFiles.record(testFile, e);
                 if (verbose) {
-                    throw new CliException("Error processing file " + testFile.getName(), e);
+                    log.warn("Skipped {}: {}", testFile, e.getMessage());
                 }
             } finally {
-                processedFilesCount++;
                 if (progressBar != null) {
-                    progressBar.update(processedFilesCount);
+                    progressBar.increment();
                 }
             }
+            BiConsumer<File, List<TestCase>> listener = parsedFileListener;
+            if (listener != null && testCases != null) {
+                listener.accept(testFile, testCases);
+            }
+            // outside the try: a failed upload must stop parsing, not skip the file
+            if (testCases != null && !testCases.isEmpty()) {
+                sink.add(testCases, framework);
+            }
         }
 
-        if (progressBar != null) {
-            progressBar.finish();
-        }
-
-        return new ProcessingResult(allTestCases, primaryFramework);
+        return failedFiles;
     }
 
-    private int handleProcessingResult(List<TestCase> allTestCases, String primaryFramework,
-                                        String apiKey, String serverUrl, boolean dryRun,
-                                        boolean structure) {
-        if (allTestCases.isEmpty()) {
+    /**
+     * Exports the tests the parser hands to its sink, or collects and prints them on a dry
+     * run.
+     */
+    private int export(Consumer<TestSink> parser, String apiKey, String serverUrl,
+                       boolean dryRun, boolean structure, ImportCheckpoint checkpoint) {
+        if (!dryRun) {
+            return exportWhileParsing(parser, apiKey, serverUrl, structure, checkpoint);
+        }
+        TestCollector collector = new TestCollector();
+        parser.accept(collector);
+        if (collector.testCases.isEmpty()) {
             log.info("No test methods found across all files");
             return 0;
         }
+        log.info("Found {} total test methods", collector.testCases.size());
+        printAllTestCases(collector.testCases);
+        return collector.testCases.size();
+    }
 
-        log.info("Found {} total test methods", allTestCases.size());
-
-        if (dryRun) {
-            printAllTestCases(allTestCases);
-            return allTestCases.size();
-        } else {
-            return exportAllTestCases(allTestCases, primaryFramework, apiKey, serverUrl, structure);
-        }
+    /**
+     * Receives the tests of one file, or of one module, in the order they are to be sent.
+     */
+    interface TestSink {
+        void add(List<TestCase> testCases, String framework);
     }
 
-    private String detectFrameworkFromFile(File file) {
-        CompilationUnit compilationUnit = fileParser.parseFile(file.getAbsolutePath());
-        if (compilationUnit == null) {
-            return null;
+    private static final class TestCollector implements TestSink {
+        private final List<TestCase> testCases = new ArrayList<>();
+        private String framework;
+
+        @Override
+        public void add(List<TestCase> fileTestCases, String fileFramework) {
+            testCases.addAll(fileTestCases);
+            if (framework == null) {
+                framework = fileFramework;
+            }
         }
-        return detector.detectFramework(compilationUnit);
     }
 
-    private static class ProcessingResult {
+    public static class ProcessingResult {
         private final List<TestCase> allTestCases;
         private final String primaryFramework;
+        private final int failedFiles;
 
-        ProcessingResult(List<TestCase> allTestCases, String primaryFramework) {
+        ProcessingResult(List<TestCase> allTestCases, String primaryFramework,
+                         int failedFiles) {
             this.allTestCases = allTestCases;
             this.primaryFramework = primaryFramework;
+            this.failedFiles = failedFiles;
+        }
+
+        public List<TestCase> getAllTestCases() {
+            return allTestCases;
+        }
+
+        public String getPrimaryFramework() {
+            return primaryFramework;
+        }
+
+        public int getFailedFiles() {
+            return failedFiles;
         }
     }
 }
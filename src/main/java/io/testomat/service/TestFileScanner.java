@@ -1,18 +1,32 @@
 package io.testomat.service;
 
+import io.testomat.jfr.ScanEvent;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Scans directory trees for Java source files that may contain test methods.
  * Handles symbolic links safely and skips build/output directories for performance.
+ * A {@link SourcePathFilter} narrows the scan further with include and exclude globs and
+ * {@code .gitignore} rules.
  */
 public class TestFileScanner {
 
@@ -23,6 +37,15 @@ public class TestFileScanner {
     );
 
     private final Set<String> visitedPaths = new HashSet<>();
+    private final SourcePathFilter filter;
+
+    public TestFileScanner() {
+        this(SourcePathFilter.NONE);
+    }
+
+    public TestFileScanner(SourcePathFilter filter) {
+        this.filter = filter;
+    }
 
     /**
      * Finds all Java source files in the specified directory tree.
@@ -34,26 +57,142 @@ public class TestFileScanner {
     public List<File> findTestFiles(File directory) {
         validateDirectory(directory);
 
+        PhaseStats stats = RunStats.get().phase(Phase.SCAN);
+        WarmState.ScanKey scanKey = WarmState.get().scanKey(
+                "sources" + filter.describe(), directory.toPath());
+        List<File> cached = WarmState.get().cachedScan(scanKey);
+        if (cached != null) {
+            stats.add(PhaseStats.CACHED, cached.size());
+            return Collections.unmodifiableList(cached);
+        }
+
         List<File> javaFiles = new ArrayList<>();
         visitedPaths.clear();
 
-        try {
-            scanDirectory(directory, javaFiles);
+        ScanEvent event = new ScanEvent();
+        event.begin();
+        SourcePathFilter.Scope scope = filter.scope(directory.toPath());
+        try (Timer ignored = stats.time()) {
+            scanDirectory(directory, scope, javaFiles);
         } catch (Exception e) {
             throw new RuntimeException("Failed to scan directory: "
                     + directory.getAbsolutePath(), e);
         }
+        stats.add(PhaseStats.DIRS, visitedPaths.size());
+        stats.add(PhaseStats.FILES, javaFiles.size());
+        // edits to a .gitignore do not touch its directory, so the files are checked too
+        List<Path> dependencies = visitedPaths.stream()
+                .map(Paths::get)
+                .collect(Collectors.toCollection(ArrayList::new));
+        dependencies.addAll(scope.getIgnoreFiles());
+        WarmState.get().storeScan(scanKey, javaFiles, dependencies);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setPath(directory.getAbsolutePath());
+            event.setDirectories(visitedPaths.size());
+            event.setFiles(javaFiles.size());
+            event.commit();
+        }
+
+        return Collections.unmodifiableList(javaFiles);
+    }
+
+    /**
+     * Walks the directory tree with the same rules as {@link #findTestFiles(File)} and
+     * returns the canonical paths of the directories it visits, e.g. to watch them.
+     */
+    public List<Path> findSourceDirectories(File directory) {
+        validateDirectory(directory);
+        visitedPaths.clear();
+        scanDirectory(directory, filter.scope(directory.toPath()), new ArrayList<>());
+        return visitedPaths.stream()
+                .map(Paths::get)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies the rules of {@link #findTestFiles(File)} to an explicit list of files, such
+     * as the files changed in git, without walking the tree: keeps readable Java sources
+     * below {@code directory} that are not inside an excluded directory and pass the
+     * {@link SourcePathFilter}.
+     *
+     * <p>Candidates may name files by their real path, as git does, or below
+     * {@code directory}; the returned files are always below {@code directory}, so that
+     * paths made relative to it do not depend on symbolic links in the checkout location.
+     */
+    public List<File> filterSourceFiles(File directory, Collection<Path> candidates) {
+        validateDirectory(directory);
+        Path base = directory.getAbsoluteFile().toPath().normalize();
+        Path root;
+        try {
+            root = directory.getCanonicalFile().toPath();
+        } catch (IOException e) {
+            root = base;
+        }
 
+        SourcePathFilter.Scope rootScope = filter.scope(root);
+        Map<Path, SourcePathFilter.Scope> scopes = new HashMap<>();
+        List<File> javaFiles = new ArrayList<>();
+        for (Path candidate : candidates) {
+            Path path = candidate.toAbsolutePath().normalize();
+            Path relative;
+            if (path.startsWith(root)) {
+                relative = root.relativize(path);
+            } else if (path.startsWith(base)) {
+                relative = base.relativize(path);
+            } else {
+                continue;
+            }
+            if (relative.toString().isEmpty()) {
+                continue;
+            }
+            Path real = root.resolve(relative);
+            SourcePathFilter.Scope scope = directoryScope(root, real.getParent(), rootScope,
+                    scopes);
+            if (scope != null && scope.isIncludedFile(real) && isJavaSourceFile(real.toFile())) {
+                javaFiles.add(base.resolve(relative).toFile());
+            }
+        }
+        javaFiles.sort(Comparator.comparing(File::getPath));
         return Collections.unmodifiableList(javaFiles);
     }
 
+    /**
+     * Returns the filter scope of a directory below {@code root}, or {@code null} if the
+     * directory or one of its parents is excluded. Scopes are shared through {@code scopes}
+     * so that each {@code .gitignore} is read once.
+     */
+    private SourcePathFilter.Scope directoryScope(Path root, Path directory,
+                                                  SourcePathFilter.Scope rootScope,
+                                                  Map<Path, SourcePathFilter.Scope> scopes) {
+        if (directory.equals(root)) {
+            return rootScope;
+        }
+        if (scopes.containsKey(directory)) {
+            return scopes.get(directory);
+        }
+        SourcePathFilter.Scope parent = directoryScope(root, directory.getParent(), rootScope,
+                scopes);
+        SourcePathFilter.Scope scope = null;
+        if (parent != null && !shouldSkipDirectory(directory.getFileName().toString())
+                && !parent.isExcludedDirectory(directory)) {
+            scope = parent.enter(directory);
+        }
+        scopes.put(directory, scope);
+        return scope;
+    }
+
     /**
      * Recursively scans directory structure for Java files.
      *
      * @param directory current directory being scanned
+     * @param scope     filter rules that apply in this directory
      * @param javaFiles accumulator list for discovered files
      */
-    private void scanDirectory(File directory, List<File> javaFiles) {
+    private void scanDirectory(File directory, SourcePathFilter.Scope scope,
+                               List<File> javaFiles) {
         if (!isDirectoryAccessible(directory)) {
             return;
         }
@@ -70,21 +209,25 @@ public class TestFileScanner {
         if (children == null) {
             return;
         }
+        // listFiles order is platform dependent; sort so batches are stable between runs
+        Arrays.sort(children, Comparator.comparing(File::getName));
 
         for (File child : children) {
-            processChild(child, javaFiles);
+            processChild(child, scope, javaFiles);
         }
     }
 
     /**
-     * Processes a single file or directory child.
+     * Processes a single file or directory child. Excluded directories are pruned here,
+     * before they are listed.
      */
-    private void processChild(File child, List<File> javaFiles) {
+    private void processChild(File child, SourcePathFilter.Scope scope, List<File> javaFiles) {
         if (child.isDirectory()) {
-            if (!shouldSkipDirectory(child.getName())) {
-                scanDirectory(child, javaFiles);
+            if (!shouldSkipDirectory(child.getName())
+                    && !scope.isExcludedDirectory(child.toPath())) {
+                scanDirectory(child, scope.enter(child.toPath()), javaFiles);
             }
-        } else if (isJavaSourceFile(child)) {
+        } else if (isJavaSourceFile(child) && scope.isIncludedFile(child.toPath())) {
             javaFiles.add(child);
         }
     }
@@ -161,7 +304,7 @@ public class TestFileScanner {
      * Determines if directory should be excluded from scanning.
      * Skips build directories, version control, and IDE directories.
      */
-    private boolean shouldSkipDirectory(String dirName) {
+    public boolean shouldSkipDirectory(String dirName) {
         if (dirName == null) {
             return true;
         }
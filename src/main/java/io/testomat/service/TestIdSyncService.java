@@ -2,13 +2,19 @@ package io.testomat.service;
 
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import io.testomat.client.TestDataCache;
 import io.testomat.client.TestomatHttpClient;
 import io.testomat.progressbar.LoadingSpinner;
 import io.testomat.progressbar.ProgressBar;
+import io.testomat.stats.Phase;
+import io.testomat.stats.PhaseStats;
+import io.testomat.stats.RunStats;
+import io.testomat.stats.Timer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class TestIdSyncService {
 
@@ -45,15 +51,16 @@ public class TestIdSyncService {
     public SyncResult syncTestIds(String apiKey, String serverUrl,
                                   List<CompilationUnit> compilationUnits, boolean verbose,
                                   ProgressBar progressBar) {
-        LoadingSpinner spinner = new LoadingSpinner("Fetching test data from server...");
-        spinner.start();
-
-        String response = httpClient.sendGetRequest(apiKey, serverUrl);
-        Map<String, String> testsMap = responseParser.parseTestsFromResponse(response);
-
-        spinner.stopWithMessage("Received test data from server");
+        Map<String, String> testsMap = fetchTestsMap(apiKey, serverUrl);
+        return syncTestIds(testsMap, compilationUnits, verbose, progressBar);
+    }
 
-        System.out.println("Received " + testsMap.size() + " test entries from API");
+    /**
+     * Applies an already fetched server test map to the given compilation units.
+     */
+    public SyncResult syncTestIds(Map<String, String> testsMap,
+                                  List<CompilationUnit> compilationUnits, boolean verbose,
+                                  ProgressBar progressBar) {
         if (verbose) {
             System.out.println("Processing each test entry for annotation...");
         }
@@ -66,13 +73,40 @@ public class TestIdSyncService {
         Map<CompilationUnit, MinimalFileModificationService.FileModification> modifications =
                 new HashMap<>();
 
-        int processedCount = processTestMethods(compilationUnits, testsMap, modifications,
-                verbose, progressBar);
+        int processedCount;
+        PhaseStats stats = RunStats.get().phase(Phase.MATCH);
+        try (Timer ignored = stats.time()) {
+            processedCount = processTestMethods(compilationUnits, testsMap, modifications,
+                    verbose, progressBar);
+        }
+        stats.add(PhaseStats.TESTS, testsMap.size());
+        stats.add(PhaseStats.MATCHED, processedCount);
         int modifiedFilesCount = applyFileModifications(modifications);
 
         return new SyncResult(processedCount, modifiedFilesCount);
     }
 
+    /**
+     * Downloads the server test map, i.e. {@code file#class#method} keys mapped to test IDs.
+     */
+    public Map<String, String> fetchTestsMap(String apiKey, String serverUrl) {
+        LoadingSpinner spinner = new LoadingSpinner("Fetching test data from server...");
+        spinner.start();
+
+        String response;
+        try (Timer ignored = RunStats.get().time(Phase.FETCH)) {
+            response = httpClient.sendGetRequest(apiKey, serverUrl);
+        }
+        Map<String, String> testsMap = WarmState.get().testsMap(
+                TestDataCache.keyFor(serverUrl, apiKey), response,
+                responseParser::parseTestsFromResponse);
+
+        spinner.stopWithMessage("Received test data from server");
+
+        System.out.println("Received " + testsMap.size() + " test entries from API");
+        return testsMap;
+    }
+
     private int processTestMethods(
             List<CompilationUnit> compilationUnits,
             Map<String, String> testsMap,
@@ -196,15 +230,16 @@ public class TestIdSyncService {
 
     private int applyFileModifications(Map<CompilationUnit,
             MinimalFileModificationService.FileModification> modifications) {
-        int modifiedCount = 0;
-        for (MinimalFileModificationService.FileModification modification
-                : modifications.values()) {
-            if (modification.hasModifications()) {
-                fileModificationService.applyModifications(modification);
-                modifiedCount++;
-            }
-        }
-        return modifiedCount;
+        List<MinimalFileModificationService.FileModification> changed =
+                modifications.values().stream()
+                        .filter(MinimalFileModificationService.FileModification::hasModifications)
+                        .collect(Collectors.toList());
+        // each file is rewritten on its own, so the writes need not wait for one another
+        IoThreads.map("sync-write", IoThreads.FILE_CONCURRENCY, changed, modification -> {
+            fileModificationService.applyModifications(modification);
+            return modification;
+        });
+        return changed.size();
     }
 
     public static class SyncResult {
@@ -7,6 +7,7 @@ import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.expr.NormalAnnotationExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import io.testomat.jfr.ExtractEvent;
 import io.testomat.model.TestCase;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,14 +21,30 @@ public class TestMethodExtractor {
     private static final Pattern COMMENT_LABEL_PATTERN =
             Pattern.compile("@(\\w+)(?::(\\w+))?|#(\\w+)");
 
+    // labels and suites repeat across thousands of tests, so they are stored once
+    private final StringPool pool = new StringPool();
+
     public List<TestCase> extractTestCases(CompilationUnit cu, String filepath, String framework) {
+        ExtractEvent event = new ExtractEvent();
+        event.begin();
+
         List<MethodDeclaration> testMethods = cu.findAll(MethodDeclaration.class).stream()
                 .filter(method -> isTestMethod(method, framework))
                 .collect(Collectors.toList());
 
-        return testMethods.stream()
-                .map(method -> createTestCase(method, filepath, framework))
+        String file = PathUtils.extractRelativeFilePath(filepath);
+        List<TestCase> testCases = testMethods.stream()
+                .map(method -> createTestCase(method, file, framework))
                 .collect(Collectors.toList());
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setPath(filepath);
+            event.setTestCount(testCases.size());
+            event.setFramework(framework);
+            event.commit();
+        }
+        return testCases;
     }
 
     private boolean isTestMethod(MethodDeclaration method, String framework) {
@@ -48,16 +65,16 @@ public class TestMethodExtractor {
                 });
     }
 
-    private TestCase createTestCase(MethodDeclaration method, String filepath, String framework) {
+    private TestCase createTestCase(MethodDeclaration method, String file, String framework) {
         String testId = getTestId(method).orElse("");
         TestCase testCase = new TestCase();
 
         testCase.setName(getTestName(method) + testId);
         testCase.setCode(getMethodCode(method));
         testCase.setSkipped(isTestSkipped(method));
-        testCase.setSuites(getSuites(method));
-        testCase.setLabels(getLabels(method, framework));
-        testCase.setFile(PathUtils.extractRelativeFilePath(filepath));
+        testCase.setSuites(pool.internList(getSuites(method)));
+        testCase.setLabels(pool.internList(getLabels(method, framework)));
+        testCase.setFile(file);
 
         return testCase;
     }
@@ -0,0 +1,25 @@
+package io.testomat.service;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads, which need Java 21. This is the version for older runtimes, which have
+ * none; on Java 21 and later the multi-release jar loads the one in
+ * {@code src/main/java21} instead.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * An executor that starts a new virtual thread for every task.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+    }
+}
@@ -0,0 +1,343 @@
+package io.testomat.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.observer.AstObserverAdapter;
+import com.github.javaparser.ast.observer.ObservableProperty;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * State kept in memory between commands served by the daemon: parsed sources, directory
+ * scans and the last test map received from the server.
+ *
+ * <p>There is one active instance per process. In a normal one-shot run it is disabled and
+ * every lookup misses, so callers simply do their usual work. Every cached entry is checked
+ * against the file system before it is handed out:
+ * <ul>
+ *   <li>a source is reused while its size and modification time are unchanged, nobody
+ *       has modified the returned syntax tree and it was parsed with settings that cover
+ *       the requested ones; sources modified shortly before they were read are neither
+ *       cached nor reused;</li>
+ *   <li>a scan is reused while none of the scanned directories has a new modification
+ *       time, which is what adding, removing or renaming an entry changes;</li>
+ *   <li>a test map is reused while the server response is identical.</li>
+ * </ul>
+ */
+public final class WarmState {
+
+    /**
+     * Files and directories modified this close to the time they were read or scanned may
+     * have changed again since without a new modification time on file systems with coarse
+     * timestamps, so such sources and scans are not cached.
+     */
+    static final long SETTLE_MILLIS = 2000;
+
+    private static final WarmState DISABLED = new WarmState(0);
+    private static volatile WarmState active = DISABLED;
+
+    private final int maxSources;
+    private final Map<Path, CachedSource> sources;
+    private final Map<String, CachedScan> scans = new HashMap<>();
+    private final Map<String, CachedTests> testMaps = new HashMap<>();
+    private final AtomicLong sourceHits = new AtomicLong();
+    private final AtomicLong sourceMisses = new AtomicLong();
+
+    private WarmState(int maxSources) {
+        this.maxSources = maxSources;
+        this.sources = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CachedSource> eldest) {
+                return size() > WarmState.this.maxSources;
+            }
+        };
+    }
+
+    public static WarmState get() {
+        return active;
+    }
+
+    /**
+     * Starts keeping state, holding at most {@code maxSources} parsed files.
+     */
+    public static synchronized WarmState enable(int maxSources) {
+        active = new WarmState(Math.max(1, maxSources));
+        return active;
+    }
+
+    public static synchronized void disable() {
+        active = DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return maxSources > 0;
+    }
+
+    /**
+     * Captures the size and modification time of a source before it is parsed with
+     * {@code settings}, or returns {@code null} when nothing is cached.
+     */
+    public SourceKey sourceKey(Path file, ParserSettings settings) {
+        if (!isEnabled()) {
+            return null;
+        }
+        long readMillis = System.currentTimeMillis();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file,
+                    BasicFileAttributes.class);
+            return new SourceKey(file.toAbsolutePath().normalize(), attributes.size(),
+                    attributes.lastModifiedTime(), settled(attributes.lastModifiedTime(),
+                    readMillis), settings);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Key for text that was already read, using the size and modification time it had
+     * before it was read.
+     */
+    public SourceKey sourceKey(SourceText source, ParserSettings settings) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return new SourceKey(source.getPath().toAbsolutePath().normalize(), source.getSize(),
+                source.getModifiedTime(), source.isSettled(), settings);
+    }
+
+    /**
+     * Whether a file last modified at {@code modifiedTime} was modified long enough before
+     * {@code readMillis} that any later write gives it a new modification time.
+     */
+    static boolean settled(FileTime modifiedTime, long readMillis) {
+        return modifiedTime.toMillis() <= readMillis - SETTLE_MILLIS;
+    }
+
+    public CompilationUnit cachedSource(SourceKey key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (sources) {
+            CachedSource cached = sources.get(key.path);
+            if (cached != null && key.settled && cached.matches(key)) {
+                sourceHits.incrementAndGet();
+                return cached.compilationUnit;
+            }
+            if (cached != null) {
+                sources.remove(key.path);
+            }
+        }
+        sourceMisses.incrementAndGet();
+        return null;
+    }
+
+    public void storeSource(SourceKey key, CompilationUnit compilationUnit) {
+        if (key == null || !key.settled || compilationUnit == null) {
+            return;
+        }
+        CachedSource cached = new CachedSource(key, compilationUnit);
+        compilationUnit.registerForSubtree(cached);
+        synchronized (sources) {
+            sources.put(key.path, cached);
+        }
+    }
+
+    /**
+     * Starts a cacheable directory scan; the returned key remembers when it started.
+     */
+    public ScanKey scanKey(String kind, Path root) {
+        return isEnabled()
+                ? new ScanKey(kind + ":" + root.toAbsolutePath().normalize(),
+                        System.currentTimeMillis())
+                : null;
+    }
+
+    /**
+     * Returns the files found by an earlier scan if no scanned directory has changed since.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> cachedScan(ScanKey key) {
+        if (key == null) {
+            return null;
+        }
+        CachedScan cached;
+        synchronized (scans) {
+            cached = scans.get(key.id);
+        }
+        if (cached == null) {
+            return null;
+        }
+        for (Map.Entry<Path, FileTime> directory : cached.directoryTimes.entrySet()) {
+            if (!directory.getValue().equals(modifiedTime(directory.getKey()))) {
+                return null;
+            }
+        }
+        return (List<T>) cached.files;
+    }
+
+    public void storeScan(ScanKey key, List<?> files, Collection<Path> directories) {
+        if (key == null) {
+            return;
+        }
+        Map<Path, FileTime> directoryTimes = new HashMap<>();
+        for (Path directory : directories) {
+            FileTime time = modifiedTime(directory);
+            if (time == null || time.toMillis() > key.startMillis - SETTLE_MILLIS) {
+                return;
+            }
+            directoryTimes.put(directory, time);
+        }
+        synchronized (scans) {
+            scans.put(key.id, new CachedScan(new ArrayList<>(files), directoryTimes));
+        }
+    }
+
+    /**
+     * Parses a test data response, reusing the previous result when the server sent exactly
+     * the same payload for the same key.
+     */
+    public Map<String, String> testsMap(String key, String response,
+                                        Function<String, Map<String, String>> parser) {
+        if (!isEnabled()) {
+            return parser.apply(response);
+        }
+        synchronized (testMaps) {
+            CachedTests cached = testMaps.get(key);
+            if (cached != null && cached.response.equals(response)) {
+                return new HashMap<>(cached.testsMap);
+            }
+        }
+        Map<String, String> testsMap = parser.apply(response);
+        synchronized (testMaps) {
+            testMaps.put(key, new CachedTests(response, new HashMap<>(testsMap)));
+        }
+        return testsMap;
+    }
+
+    /**
+     * One line summary for the daemon status output.
+     */
+    public String describe() {
+        int sourceCount;
+        synchronized (sources) {
+            sourceCount = sources.size();
+        }
+        int scanCount;
+        synchronized (scans) {
+            scanCount = scans.size();
+        }
+        return sourceCount + " parsed sources (" + sourceHits.get() + " hits, "
+                + sourceMisses.get() + " misses), " + scanCount + " directory scans";
+    }
+
+    private static FileTime modifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static final class SourceKey {
+        private final Path path;
+        private final long size;
+        private final FileTime modifiedTime;
+        private final boolean settled;
+        private final ParserSettings settings;
+
+        private SourceKey(Path path, long size, FileTime modifiedTime, boolean settled,
+                          ParserSettings settings) {
+            this.path = path;
+            this.size = size;
+            this.modifiedTime = modifiedTime;
+            this.settled = settled;
+            this.settings = settings;
+        }
+    }
+
+    public static final class ScanKey {
+        private final String id;
+        private final long startMillis;
+
+        private ScanKey(String id, long startMillis) {
+            this.id = id;
+            this.startMillis = startMillis;
+        }
+    }
+
+    /**
+     * Cached syntax tree that marks itself stale as soon as anything in it changes, since
+     * callers such as {@link TestIdAnnotationManager} edit the trees they are given.
+     */
+    private static final class CachedSource extends AstObserverAdapter {
+        private final SourceKey key;
+        private final CompilationUnit compilationUnit;
+        private volatile boolean modified;
+
+        CachedSource(SourceKey key, CompilationUnit compilationUnit) {
+            this.key = key;
+            this.compilationUnit = compilationUnit;
+        }
+
+        boolean matches(SourceKey current) {
+            return !modified && key.size == current.size
+                    && key.modifiedTime.equals(current.modifiedTime)
+                    && key.settings.covers(current.settings);
+        }
+
+        @Override
+        public void propertyChange(Node observedNode, ObservableProperty property,
+                                   Object oldValue, Object newValue) {
+            modified = true;
+        }
+
+        @Override
+        public void parentChange(Node observedNode, Node previousParent, Node newParent) {
+            modified = true;
+        }
+
+        @Override
+        public void listChange(NodeList<?> observedNode, ListChangeType type, int index,
+                               Node nodeAddedOrRemoved) {
+            modified = true;
+        }
+
+        @Override
+        public void listReplacement(NodeList<?> observedNode, int index, Node oldNode,
+                                    Node newNode) {
+            modified = true;
+        }
+    }
+
+    private static final class CachedScan {
+        private final List<?> files;
+        private final Map<Path, FileTime> directoryTimes;
+
+        CachedScan(List<?> files, Map<Path, FileTime> directoryTimes) {
+            this.files = files;
+            this.directoryTimes = directoryTimes;
+        }
+    }
+
+    private static final class CachedTests {
+        private final String response;
+        private final Map<String, String> testsMap;
+
+        CachedTests(String response, Map<String, String> testsMap) {
+            this.response = response;
+            this.testsMap = testsMap;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.testomat.stats;
+
+/**
+ * Pipeline phases reported by {@code --stats}, in report order.
+ */
+public enum Phase {
+    SCAN("scan", PhaseStats.FILES),
+    READ("read", PhaseStats.BYTES),
+    PREFILTER("prefilter", PhaseStats.FILES),
+    PARSE("parse", PhaseStats.FILES),
+    EXTRACT("extract", PhaseStats.TESTS),
+    SERIALIZE("serialize", PhaseStats.BYTES),
+    UPLOAD("upload", PhaseStats.REQUESTS),
+    FETCH("fetch", PhaseStats.REQUESTS),
+    MATCH("match", PhaseStats.TESTS),
+    WRITE("write", PhaseStats.FILES);
+
+    private final String displayName;
+    private final String throughputCounter;
+
+    Phase(String displayName, String throughputCounter) {
+        this.displayName = displayName;
+        this.throughputCounter = throughputCounter;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Counter divided by the phase time to report a rate, e.g. parsed files per second.
+     */
+    public String getThroughputCounter() {
+        return throughputCounter;
+    }
+}
@@ -0,0 +1,114 @@
+package io.testomat.stats;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time, named counters and request latencies of one phase. Safe to update from several
+ * threads. A disabled instance ignores all updates.
+ */
+public final class PhaseStats {
+
+    public static final String FILES = "files";
+    public static final String DIRS = "dirs";
+    public static final String KEPT = "kept";
+    public static final String FAILURES = "failures";
+    public static final String TESTS = "tests";
+    public static final String MATCHED = "matched";
+    public static final String SKIPPED = "skipped";
+    public static final String BATCHES = "batches";
+    public static final String BYTES = "bytes";
+    public static final String REQUESTS = "requests";
+    public static final String RETRIES = "retries";
+    public static final String CACHED = "cached";
+    public static final String ABANDONED = "abandoned";
+
+    private final boolean enabled;
+    private final LongAdder nanos = new LongAdder();
+    private final Map<String, LongAdder> counters = new LinkedHashMap<>();
+    private long[] latencies = new long[16];
+    private int latencyCount;
+
+    PhaseStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Timer time() {
+        return enabled ? new Timer(this) : Timer.NOOP;
+    }
+
+    public void addNanos(long elapsedNanos) {
+        if (enabled) {
+            nanos.add(elapsedNanos);
+        }
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public void add(String counter, long amount) {
+        if (!enabled) {
+            return;
+        }
+        LongAdder adder;
+        synchronized (counters) {
+            adder = counters.computeIfAbsent(counter, key -> new LongAdder());
+        }
+        adder.add(amount);
+    }
+
+    /**
+     * Records the latency of one request, used for the percentiles in the report.
+     */
+    public synchronized void recordLatency(long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = latencyNanos;
+    }
+
+    public long getTimeNanos() {
+        return nanos.sum();
+    }
+
+    public long getCounter(String counter) {
+        synchronized (counters) {
+            LongAdder adder = counters.get(counter);
+            return adder != null ? adder.sum() : 0;
+        }
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        synchronized (counters) {
+            counters.forEach((name, adder) -> snapshot.put(name, adder.sum()));
+        }
+        return snapshot;
+    }
+
+    public synchronized int getLatencyCount() {
+        return latencyCount;
+    }
+
+    /**
+     * Nearest-rank percentile of the recorded latencies.
+     *
+     * @param percentile value in (0, 100]
+     * @return latency in nanoseconds, 0 when nothing was recorded
+     */
+    public synchronized long latencyPercentileNanos(double percentile) {
+        if (latencyCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * latencyCount);
+        return sorted[Math.min(latencyCount, Math.max(1, rank)) - 1];
+    }
+}
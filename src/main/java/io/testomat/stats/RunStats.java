@@ -0,0 +1,183 @@
+package io.testomat.stats;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-phase statistics of one CLI run, collected when {@code --stats} is given.
+ *
+ * <p>There is one active instance per process so that services, parsers and HTTP clients can
+ * record into it without being wired through every constructor. While collection is off,
+ * {@link #get()} returns a disabled instance that ignores all updates.
+ */
+public final class RunStats {
+
+    private static final RunStats DISABLED = new RunStats(null, false);
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+    private static volatile RunStats active = DISABLED;
+
+    private final String command;
+    private final boolean enabled;
+    private final long startNanos;
+    private final long gcTimeAtStartMs;
+    private final long gcCountAtStart;
+    private final Map<Phase, PhaseStats> phases = new EnumMap<>(Phase.class);
+    private final Map<String, PhaseStats> modules = new TreeMap<>();
+    private final PhaseStats disabledPhase = new PhaseStats(false);
+
+    private RunStats(String command, boolean enabled) {
+        this.command = command;
+        this.enabled = enabled;
+        this.startNanos = System.nanoTime();
+        this.gcTimeAtStartMs = enabled ? totalGcTimeMs() : 0;
+        this.gcCountAtStart = enabled ? totalGcCount() : 0;
+    }
+
+    public static RunStats get() {
+        return active;
+    }
+
+    /**
+     * Starts collecting for the given command and makes the new instance the active one.
+     */
+    public static synchronized RunStats enable(String command) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        active = new RunStats(command, true);
+        return active;
+    }
+
+    public static synchronized void disable() {
+        active = DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public PhaseStats phase(Phase phase) {
+        if (!enabled) {
+            return disabledPhase;
+        }
+        synchronized (phases) {
+            return phases.computeIfAbsent(phase, key -> new PhaseStats(true));
+        }
+    }
+
+    public Timer time(Phase phase) {
+        return phase(phase).time();
+    }
+
+    /**
+     * Time and counters of one source module when an import processes modules separately.
+     */
+    public PhaseStats module(String name) {
+        if (!enabled) {
+            return disabledPhase;
+        }
+        synchronized (modules) {
+            return modules.computeIfAbsent(name, key -> new PhaseStats(true));
+        }
+    }
+
+    /**
+     * Phases that recorded anything, in pipeline order.
+     */
+    public Map<Phase, PhaseStats> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    /**
+     * Modules that recorded anything, by name.
+     */
+    public Map<String, PhaseStats> getModules() {
+        synchronized (modules) {
+            return new LinkedHashMap<>(modules);
+        }
+    }
+
+    public long getWallTimeNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Sum of the peak usage of all heap pools since collection started. Pools peak at
+     * different moments, so this is an upper bound of the real peak.
+     */
+    public long getPeakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Peak resident set size of the whole process, including JVM and native memory, or
+     * {@code -1} where {@code /proc} is not available.
+     */
+    public long getPeakRssBytes() {
+        if (!Files.isReadable(PROC_STATUS)) {
+            return -1;
+        }
+        try {
+            List<String> lines = Files.readAllLines(PROC_STATUS, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length())
+                            .replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    public long getGcTimeMs() {
+        return totalGcTimeMs() - gcTimeAtStartMs;
+    }
+
+    public long getGcCount() {
+        return totalGcCount() - gcCountAtStart;
+    }
+
+    private static long totalGcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+}
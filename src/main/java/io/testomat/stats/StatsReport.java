@@ -0,0 +1,151 @@
+package io.testomat.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.testomat.exception.CliException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders {@link RunStats} as a console table or as JSON for CI dashboards.
+ */
+public class StatsReport {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void print(RunStats stats, PrintStream out) {
+        out.println();
+        out.printf(Locale.ROOT, "Stats for %s (%s wall)%n", stats.getCommand(),
+                formatMillis(stats.getWallTimeNanos()));
+        for (Map.Entry<Phase, PhaseStats> entry : stats.getPhases().entrySet()) {
+            Phase phase = entry.getKey();
+            PhaseStats phaseStats = entry.getValue();
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "  %-10s %10s ",
+                    phase.getDisplayName(), formatMillis(phaseStats.getTimeNanos())));
+            phaseStats.getCounters().forEach((name, value) -> line.append(' ').append(name)
+                    .append('=').append(PhaseStats.BYTES.equals(name)
+                            ? formatBytes(value)
+                            : String.valueOf(value)));
+            String rate = formatRate(phase, phaseStats);
+            if (!rate.isEmpty()) {
+                line.append(" (").append(rate).append(')');
+            }
+            if (phaseStats.getLatencyCount() > 0) {
+                line.append(String.format(Locale.ROOT, " p50=%s p95=%s",
+                        formatMillis(phaseStats.latencyPercentileNanos(50)),
+                        formatMillis(phaseStats.latencyPercentileNanos(95))));
+            }
+            out.println(line);
+        }
+        Map<String, PhaseStats> modules = stats.getModules();
+        if (!modules.isEmpty()) {
+            out.println("  modules:");
+        }
+        modules.forEach((name, moduleStats) -> {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "    %-30s %10s ",
+                    name, formatMillis(moduleStats.getTimeNanos())));
+            moduleStats.getCounters().forEach((counter, value) -> line.append(' ')
+                    .append(counter).append('=').append(value));
+            out.println(line);
+        });
+        long peakRss = stats.getPeakRssBytes();
+        out.printf(Locale.ROOT, "  heap peak %s%s, GC %d ms in %d collections%n",
+                formatBytes(stats.getPeakHeapBytes()),
+                peakRss >= 0 ? ", RSS peak " + formatBytes(peakRss) : "",
+                stats.getGcTimeMs(), stats.getGcCount());
+    }
+
+    public ObjectNode toJson(RunStats stats) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("command", stats.getCommand());
+        root.put("wallTimeMs", stats.getWallTimeNanos() / NANOS_PER_MILLI);
+        root.put("peakHeapBytes", stats.getPeakHeapBytes());
+        long peakRss = stats.getPeakRssBytes();
+        if (peakRss >= 0) {
+            root.put("peakRssBytes", peakRss);
+        }
+        root.put("gcTimeMs", stats.getGcTimeMs());
+        root.put("gcCount", stats.getGcCount());
+
+        ObjectNode phasesNode = root.putObject("phases");
+        stats.getPhases().forEach((phase, phaseStats) -> {
+            ObjectNode phaseNode = phasesNode.putObject(phase.getDisplayName());
+            phaseNode.put("timeMs", phaseStats.getTimeNanos() / NANOS_PER_MILLI);
+            phaseStats.getCounters().forEach(phaseNode::put);
+            double rate = ratePerSecond(phase, phaseStats);
+            if (rate > 0) {
+                phaseNode.put(phase.getThroughputCounter() + "PerSecond",
+                        Math.round(rate * 10) / 10.0);
+            }
+            if (phaseStats.getLatencyCount() > 0) {
+                ObjectNode latency = phaseNode.putObject("latencyMs");
+                latency.put("p50", phaseStats.latencyPercentileNanos(50) / NANOS_PER_MILLI);
+                latency.put("p95", phaseStats.latencyPercentileNanos(95) / NANOS_PER_MILLI);
+                latency.put("max", phaseStats.latencyPercentileNanos(100) / NANOS_PER_MILLI);
+            }
+        });
+
+        Map<String, PhaseStats> modules = stats.getModules();
+        if (!modules.isEmpty()) {
+            ObjectNode modulesNode = root.putObject("modules");
+            modules.forEach((name, moduleStats) -> {
+                ObjectNode moduleNode = modulesNode.putObject(name);
+                moduleNode.put("timeMs", moduleStats.getTimeNanos() / NANOS_PER_MILLI);
+                moduleStats.getCounters().forEach(moduleNode::put);
+            });
+        }
+        return root;
+    }
+
+    public void writeJson(RunStats stats, Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(),
+                    toJson(stats));
+        } catch (IOException e) {
+            throw new CliException("Failed to write stats to " + file, e);
+        }
+    }
+
+    private double ratePerSecond(Phase phase, PhaseStats phaseStats) {
+        long nanos = phaseStats.getTimeNanos();
+        if (phase.getThroughputCounter() == null || nanos <= 0) {
+            return 0;
+        }
+        return phaseStats.getCounter(phase.getThroughputCounter()) * 1e9 / nanos;
+    }
+
+    private String formatRate(Phase phase, PhaseStats phaseStats) {
+        double rate = ratePerSecond(phase, phaseStats);
+        if (rate <= 0) {
+            return "";
+        }
+        if (PhaseStats.BYTES.equals(phase.getThroughputCounter())) {
+            return formatBytes((long) rate) + "/s";
+        }
+        return String.format(Locale.ROOT, "%.0f %s/s", rate, phase.getThroughputCounter());
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%d ms", nanos / NANOS_PER_MILLI);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,25 @@
+package io.testomat.stats;
+
+/**
+ * Adds the time between its creation and {@link #close()} to a phase.
+ * Use with try-with-resources.
+ */
+public final class Timer implements AutoCloseable {
+
+    static final Timer NOOP = new Timer(null);
+
+    private final PhaseStats phase;
+    private final long startNanos;
+
+    Timer(PhaseStats phase) {
+        this.phase = phase;
+        this.startNanos = phase != null ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (phase != null) {
+            phase.addNanos(System.nanoTime() - startNanos);
+        }
+    }
+}
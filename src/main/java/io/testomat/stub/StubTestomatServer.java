@@ -0,0 +1,209 @@
+package io.testomat.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for the testomat.io API, implementing {@code /api/load} and
+ * {@code /api/test_data} on the loopback interface. Latency, random 503 errors and
+ * 429 throttling above a concurrency threshold can be injected to exercise the client
+ * retry and rate limiting paths without the real service.
+ */
+public class StubTestomatServer implements AutoCloseable {
+
+    private static final int HANDLER_THREADS = 32;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TestIdRegistry registry = new TestIdRegistry();
+    private final Duration latency;
+    private final double errorRate;
+    private final int maxInFlight;
+    private final Random random;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong loadRequests = new AtomicLong();
+    private final AtomicLong testDataRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    /**
+     * Creates a server bound to the loopback interface. Call {@link #start()} to serve.
+     *
+     * @param port        port to listen on, 0 for an ephemeral port
+     * @param latency     delay added to every request
+     * @param errorRate   fraction of requests answered with 503
+     * @param maxInFlight concurrent requests above which 429 is returned, 0 for no limit
+     * @param seed        seed for error injection, so runs are reproducible
+     */
+    public StubTestomatServer(int port, Duration latency, double errorRate, int maxInFlight,
+                              long seed) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.maxInFlight = maxInFlight;
+        this.random = new Random(seed);
+        this.server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/load", this::handleLoad);
+        server.createContext("/api/test_data", this::handleTestData);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public TestIdRegistry getRegistry() {
+        return registry;
+    }
+
+    public long getLoadRequests() {
+        return loadRequests.get();
+    }
+
+    public long getTestDataRequests() {
+        return testDataRequests.get();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    private void handleLoad(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            bytesReceived.addAndGet(body.length);
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+            if (!admit(exchange)) {
+                return;
+            }
+            try {
+                loadRequests.incrementAndGet();
+                JsonNode loadBody = objectMapper.readTree(body);
+                int added = registry.registerLoad(loadBody);
+                respond(exchange, 200, "{\"added\":" + added + "}");
+            } catch (IOException e) {
+                respond(exchange, 422, "{\"error\":\"invalid json\"}");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleTestData(HttpExchange exchange) throws IOException {
+        try {
+            if (!admit(exchange)) {
+                return;
+            }
+            try {
+                testDataRequests.incrementAndGet();
+                String etag = "\"" + registry.getVersion() + "\"";
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.getResponseHeaders().add("ETag", etag);
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", etag);
+                respond(exchange, 200, registry.toTestDataJson());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Applies API key check, latency and error injection.
+     *
+     * @return true if the request should be served; the in-flight counter is then held
+     */
+    private boolean admit(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || !query.contains("api_key=")) {
+            respond(exchange, 401, "{\"error\":\"api key required\"}");
+            return false;
+        }
+
+        int current = inFlight.incrementAndGet();
+        sleep(latency);
+
+        if (maxInFlight > 0 && current > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejectedRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "{\"error\":\"too many requests\"}");
+            return false;
+        }
+
+        if (errorRate > 0 && nextDouble() < errorRate) {
+            inFlight.decrementAndGet();
+            rejectedRequests.incrementAndGet();
+            respond(exchange, 503, "{\"error\":\"injected failure\"}");
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sleep(Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.testomat.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.testomat.util.Hashing;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory stand-in for the server side test registry. Accepts {@code /api/load} bodies,
+ * assigns a deterministic ID to every new test and renders the {@code /api/test_data}
+ * payload with {@code file#class#method} keys.
+ */
+public class TestIdRegistry {
+
+    private static final Pattern TEST_ID_SUFFIX = Pattern.compile("\\s*@T(\\w+)$");
+    private static final String KEY_DELIMITER = "#";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> tests = new LinkedHashMap<>();
+    private long version;
+
+    /**
+     * Registers the tests of one {@code /api/load} request body.
+     *
+     * @return number of tests that were not known before
+     */
+    public synchronized int registerLoad(JsonNode loadBody) {
+        JsonNode testsNode = loadBody.path("tests");
+        int added = 0;
+        for (JsonNode test : testsNode) {
+            String key = buildKey(test);
+            if (key == null) {
+                continue;
+            }
+            String existingId = extractTestId(test.path("name").asText());
+            String id = existingId != null ? existingId : generateId(key);
+            if (!id.equals(tests.put(key, id))) {
+                added++;
+            }
+        }
+        if (added > 0) {
+            version++;
+        }
+        return added;
+    }
+
+    public synchronized void putAll(Map<String, String> entries) {
+        tests.putAll(entries);
+        version++;
+    }
+
+    public synchronized int size() {
+        return tests.size();
+    }
+
+    /**
+     * Version that changes whenever the rendered test data changes; usable as an ETag.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized String toTestDataJson() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode testsNode = root.putObject("tests");
+        tests.forEach(testsNode::put);
+        return root.toString();
+    }
+
+    private String buildKey(JsonNode test) {
+        String file = test.path("file").asText(null);
+        String name = test.path("name").asText(null);
+        JsonNode suites = test.path("suites");
+        if (file == null || name == null || suites.size() == 0) {
+            return null;
+        }
+        String className = suites.get(suites.size() - 1).asText();
+        String methodName = TEST_ID_SUFFIX.matcher(name).replaceFirst("");
+        return file + KEY_DELIMITER + className + KEY_DELIMITER + methodName;
+    }
+
+    private String extractTestId(String name) {
+        Matcher matcher = TEST_ID_SUFFIX.matcher(name);
+        return matcher.find() ? "@T" + matcher.group(1) : null;
+    }
+
+    static String generateId(String key) {
+        // the first four bytes of the digest
+        return "@T" + Hashing.sha256Hex(key).substring(0, 8);
+    }
+}
@@ -0,0 +1,54 @@
+package io.testomat.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests as lowercase hex, used for cache keys, fingerprints, journal entries and
+ * generated test IDs. Every JVM ships SHA-256, so its absence is an {@link IllegalStateException}.
+ */
+public final class Hashing {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hashing() {
+    }
+
+    public static String sha256Hex(byte[] data) {
+        MessageDigest digest = sha256();
+        return hex(digest.digest(data));
+    }
+
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Digest of the lines in iteration order, each followed by {@code '\n'}.
+     */
+    public static String sha256Hex(Iterable<String> lines) {
+        MessageDigest digest = sha256();
+        for (String line : lines) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
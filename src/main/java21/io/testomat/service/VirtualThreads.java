@@ -0,0 +1,26 @@
+package io.testomat.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads on Java 21 and later. Compiled into {@code META-INF/versions/21} of the
+ * multi-release jar, where it replaces the version in {@code src/main/java}.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * An executor that starts a new virtual thread for every task.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+}
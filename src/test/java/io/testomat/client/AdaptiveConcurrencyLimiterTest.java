@@ -0,0 +1,130 @@
+package io.testomat.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @DisplayName("Should grow limit additively on healthy responses up to the maximum")
+    void shouldGrowLimitAdditivelyOnHealthyResponses() throws InterruptedException {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 8);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(FAST, false);
+        }
+
+        // Then
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should halve limit once per congestion event on overload")
+    void shouldHalveLimitOncePerCongestionEventOnOverload() throws InterruptedException {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8);
+        limiter.acquire();
+        limiter.release(TimeUnit.SECONDS.toNanos(10), false);
+        int before = limiter.getLimit();
+
+        // When - two overload signals from the same round trip
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(FAST, true);
+        limiter.release(FAST, true);
+
+        // Then
+        assertEquals(before / 2, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should shrink limit when latency grows far above baseline")
+    void shouldShrinkLimitWhenLatencyGrowsAboveBaseline() throws InterruptedException {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8);
+        limiter.acquire();
+        limiter.release(FAST, false);
+        Thread.sleep(20);
+
+        // When
+        limiter.acquire();
+        limiter.release(FAST * 10, false);
+
+        // Then
+        assertEquals(7, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should never drop below one concurrent request")
+    void shouldNeverDropBelowOneConcurrentRequest() throws InterruptedException {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 4);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(FAST, true);
+        }
+
+        // Then
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should block callers above the current limit")
+    void shouldBlockCallersAboveTheCurrentLimit() throws InterruptedException {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4);
+        limiter.acquire();
+        AtomicBoolean secondAcquired = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        Thread second = new Thread(() -> {
+            try {
+                limiter.acquire();
+                secondAcquired.set(true);
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        second.start();
+        Thread.sleep(50);
+        boolean acquiredWhileFull = secondAcquired.get();
+        limiter.release(FAST, false);
+
+        // Then
+        assertFalse(acquiredWhileFull);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should pace requests to the configured rate")
+    void shouldPaceRequestsToConfiguredRate() throws InterruptedException {
+        // Given
+        RequestThrottle throttle = new RequestThrottle(20, 0, 1);
+        long start = System.nanoTime();
+
+        // When - burst of 1 second worth of tokens, then 10 more at 20/s
+        for (int i = 0; i < 30; i++) {
+            long permit = throttle.acquire(0);
+            throttle.release(permit, false);
+        }
+
+        // Then
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 400, "elapsed: " + elapsedMillis);
+    }
+}
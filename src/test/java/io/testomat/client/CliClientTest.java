@@ -0,0 +1,27 @@
+package io.testomat.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CliClientTest {
+
+    @Test
+    @DisplayName("Should count response bytes as UTF-8, not as chars")
+    void shouldCountUtf8Bytes() {
+        // Given - ASCII, Latin-1, CJK, an emoji and a replacement character
+        String[] bodies = {"{\"tests\": {}}", "Prüfung für Größen", "テスト名",
+                "ok 🚀 done", "broken \uFFFD"};
+
+        for (String body : bodies) {
+            // When
+            long bytes = CliClient.utf8Length(body);
+
+            // Then
+            assertEquals(body.getBytes(StandardCharsets.UTF_8).length, bytes, body);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.testomat.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.testomat.exception.CliException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat rate limiting and unavailability as retryable")
+    void shouldTreatRateLimitingAndUnavailabilityAsRetryable() {
+        // Given
+        RetryPolicy policy = fastPolicy(3);
+
+        // Then
+        assertTrue(policy.isRetryableStatus(429));
+        assertTrue(policy.isRetryableStatus(503));
+        assertTrue(policy.isRetryableStatus(500));
+        assertFalse(policy.isRetryableStatus(401));
+        assertFalse(policy.isRetryableStatus(422));
+        assertFalse(policy.isRetryableStatus(200));
+    }
+
+    @Test
+    @DisplayName("Should grow backoff exponentially within jitter bounds and cap")
+    void shouldGrowBackoffExponentiallyWithinJitterBoundsAndCap() {
+        // Given
+        RetryPolicy policy = new RetryPolicy(10, Duration.ofMillis(100), Duration.ofMillis(1000),
+                new TokenBucket(10, 10));
+
+        for (int i = 0; i < 50; i++) {
+            // When
+            long first = policy.backoffDelay(1, Optional.empty()).toMillis();
+            long third = policy.backoffDelay(3, Optional.empty()).toMillis();
+            long tenth = policy.backoffDelay(10, Optional.empty()).toMillis();
+
+            // Then
+            assertTrue(first >= 50 && first <= 100, "first delay: " + first);
+            assertTrue(third >= 200 && third <= 400, "third delay: " + third);
+            assertTrue(tenth >= 500 && tenth <= 1000, "capped delay: " + tenth);
+        }
+    }
+
+    @Test
+    @DisplayName("Should prefer Retry-After header over computed backoff")
+    void shouldPreferRetryAfterHeaderOverComputedBackoff() {
+        // Given
+        RetryPolicy policy = fastPolicy(3);
+
+        // When
+        Duration delay = policy.backoffDelay(1, Optional.of("7"));
+
+        // Then
+        assertEquals(Duration.ofSeconds(7), delay);
+    }
+
+    @Test
+    @DisplayName("Should parse Retry-After as delta seconds and HTTP date")
+    void shouldParseRetryAfterAsDeltaSecondsAndHttpDate() {
+        // Given
+        String httpDate = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now().plusSeconds(30));
+
+        // When
+        Optional<Duration> seconds = RetryPolicy.parseRetryAfter("12");
+        Optional<Duration> date = RetryPolicy.parseRetryAfter(httpDate);
+        Optional<Duration> invalid = RetryPolicy.parseRetryAfter("soon");
+
+        // Then
+        assertEquals(Optional.of(Duration.ofSeconds(12)), seconds);
+        assertTrue(date.isPresent());
+        assertTrue(date.get().getSeconds() > 20 && date.get().getSeconds() <= 30);
+        assertFalse(invalid.isPresent());
+    }
+
+    @Test
+    @DisplayName("Should stop retrying when shared retry budget is exhausted")
+    void shouldStopRetryingWhenSharedRetryBudgetIsExhausted() throws InterruptedException {
+        // Given
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(1), Duration.ofMillis(10),
+                new TokenBucket(2, 0.001));
+
+        // When & Then
+        assertTrue(policy.acquireRetryPermit());
+        assertTrue(policy.acquireRetryPermit());
+        assertFalse(policy.acquireRetryPermit());
+    }
+
+    @Test
+    @DisplayName("Should retry POST on 429 and succeed after Retry-After")
+    void shouldRetryPostOn429AndSucceedAfterRetryAfter() throws IOException {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        String url = startServer("/api/load", calls, 2, 429);
+        CliClient client = new CliClient(null, fastPolicy(5));
+
+        // When
+        client.sendPostRequest(url + "/api/load?api_key=tstmt_key", "{}");
+
+        // Then
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should retry GET on 503 with the same policy")
+    void shouldRetryGetOn503WithTheSamePolicy() throws IOException {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        String url = startServer("/api/test_data", calls, 1, 503);
+        CliClient client = new CliClient(null, fastPolicy(3));
+
+        // When
+        String body = client.sendGetRequest("tstmt_key", url);
+
+        // Then
+        assertEquals("{\"tests\": {}}", body);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should fail after max attempts with last error as cause")
+    void shouldFailAfterMaxAttemptsWithLastErrorAsCause() throws IOException {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        String url = startServer("/api/load", calls, Integer.MAX_VALUE, 503);
+        CliClient client = new CliClient(null, fastPolicy(3));
+
+        // When
+        CliException exception = assertThrows(CliException.class,
+                () -> client.sendPostRequest(url + "/api/load", "{}"));
+
+        // Then
+        assertEquals(3, calls.get());
+        assertTrue(exception.getMessage().contains("after 3 attempts"));
+        assertTrue(exception.getCause().getMessage().contains("HTTP 503"));
+    }
+
+    @Test
+    @DisplayName("Should not retry non-retryable client errors")
+    void shouldNotRetryNonRetryableClientErrors() throws IOException {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        String url = startServer("/api/load", calls, Integer.MAX_VALUE, 401);
+        CliClient client = new CliClient(null, fastPolicy(3));
+
+        // When
+        CliException exception = assertThrows(CliException.class,
+                () -> client.sendPostRequest(url + "/api/load", "{}"));
+
+        // Then
+        assertEquals(1, calls.get());
+        assertTrue(exception.getMessage().contains("HTTP 401"));
+    }
+
+    private RetryPolicy fastPolicy(int maxAttempts) {
+        return new RetryPolicy(maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5),
+                new TokenBucket(100, 100));
+    }
+
+    private String startServer(String path, AtomicInteger calls, int failures, int failureStatus)
+            throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(path, exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (calls.incrementAndGet() <= failures) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(failureStatus, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"tests\": {}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,175 @@
+package io.testomat.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDataCacheTest {
+
+    private static final String API_KEY = "tstmt_cache-test";
+    private static final String BODY = "{\"tests\": {\"a/BTest.java#BTest#m\": \"@T1\"}}";
+
+    @TempDir
+    Path tempDir;
+
+    private TestDataCache cache;
+    private HttpServer server;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new TestDataCache(tempDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return stored body with its validators")
+    void shouldReturnStoredBodyWithValidators() {
+        // Given
+        String key = TestDataCache.keyFor("https://app.testomat.io", API_KEY);
+
+        // When
+        cache.store(key, "\"v1\"", "Mon, 19 Oct 2026 10:00:00 GMT", BODY);
+        Optional<TestDataCache.Entry> entry = cache.load(key);
+
+        // Then
+        assertTrue(entry.isPresent());
+        assertEquals("\"v1\"", entry.get().getEtag());
+        assertEquals("Mon, 19 Oct 2026 10:00:00 GMT", entry.get().getLastModified());
+        assertEquals(BODY, entry.get().getBody());
+    }
+
+    @Test
+    @DisplayName("Should not store responses without validators")
+    void shouldNotStoreResponsesWithoutValidators() {
+        // Given
+        String key = TestDataCache.keyFor("https://app.testomat.io", API_KEY);
+
+        // When
+        cache.store(key, null, null, BODY);
+
+        // Then
+        assertFalse(cache.load(key).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should carry on without caching when the cache directory cannot be written")
+    void shouldIgnoreUnwritableCacheDirectory() throws IOException {
+        // Given - a file where the cache directory should be
+        Path blocked = Files.writeString(tempDir.resolve("blocked"), "not a directory");
+        TestDataCache unwritable = new TestDataCache(blocked.resolve("cache"));
+        String key = TestDataCache.keyFor("https://app.testomat.io", API_KEY);
+
+        // When
+        assertDoesNotThrow(() -> unwritable.store(key, "\"v1\"", null, BODY));
+        assertDoesNotThrow(() -> unwritable.storeSyncFingerprint(key, "project", "abc"));
+
+        // Then
+        assertFalse(unwritable.load(key).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should not expose API key in cache key")
+    void shouldNotExposeApiKeyInCacheKey() {
+        // When
+        String key = TestDataCache.keyFor("https://app.testomat.io", API_KEY);
+
+        // Then
+        assertFalse(key.contains(API_KEY));
+        assertNotEquals(key, TestDataCache.keyFor("https://other.testomat.io", API_KEY));
+    }
+
+    @Test
+    @DisplayName("Should drop sync fingerprints when a new body is stored")
+    void shouldDropSyncFingerprintsWhenNewBodyIsStored() {
+        // Given
+        String key = TestDataCache.keyFor("https://app.testomat.io", API_KEY);
+        cache.store(key, "\"v1\"", null, BODY);
+        cache.storeSyncFingerprint(key, "/project", "fingerprint");
+        assertTrue(cache.isSyncUpToDate(key, "/project", "fingerprint"));
+        assertFalse(cache.isSyncUpToDate(key, "/other", "fingerprint"));
+
+        // When
+        cache.store(key, "\"v2\"", null, BODY);
+
+        // Then
+        assertFalse(cache.isSyncUpToDate(key, "/project", "fingerprint"));
+    }
+
+    @Test
+    @DisplayName("Should reuse cached body when server answers 304 Not Modified")
+    void shouldReuseCachedBodyWhenServerAnswersNotModified() throws IOException {
+        // Given
+        String serverUrl = startServer("\"etag-1\"");
+        CliClient client = new CliClient(cache);
+
+        // When
+        String first = client.sendGetRequest(API_KEY, serverUrl);
+        boolean firstNotModified = client.isLastResponseNotModified();
+        String second = client.sendGetRequest(API_KEY, serverUrl);
+
+        // Then
+        assertEquals(BODY, first);
+        assertFalse(firstNotModified);
+        assertEquals(BODY, second);
+        assertTrue(client.isLastResponseNotModified());
+        assertEquals(1, fullResponses.get(), "Full payload should be sent only once");
+    }
+
+    @Test
+    @DisplayName("Should always download full payload when cache is disabled")
+    void shouldAlwaysDownloadFullPayloadWhenCacheIsDisabled() throws IOException {
+        // Given
+        String serverUrl = startServer("\"etag-1\"");
+        CliClient client = new CliClient(null);
+
+        // When
+        client.sendGetRequest(API_KEY, serverUrl);
+        client.sendGetRequest(API_KEY, serverUrl);
+
+        // Then
+        assertFalse(client.isLastResponseNotModified());
+        assertEquals(2, fullResponses.get());
+    }
+
+    private String startServer(String etag) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/test_data", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
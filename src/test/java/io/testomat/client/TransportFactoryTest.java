@@ -0,0 +1,94 @@
+package io.testomat.client;
+
+import io.testomat.exception.CliException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportFactoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should select transport by URL scheme")
+    void shouldSelectTransportByUrlScheme() {
+        // When & Then
+        assertTrue(TransportFactory.create("https://app.testomat.io", null,
+                RequestThrottle.unlimited(1)) instanceof CliClient);
+        assertTrue(TransportFactory.create("http://localhost:8080", null,
+                RequestThrottle.unlimited(1)) instanceof CliClient);
+        assertTrue(TransportFactory.create(tempDir.toUri().toString(), null,
+                RequestThrottle.unlimited(1)) instanceof FileTransport);
+        assertThrows(CliException.class, () -> TransportFactory.create("ftp://host", null,
+                RequestThrottle.unlimited(1)));
+    }
+
+    @Test
+    @DisplayName("Should reject file URLs that name a host instead of a directory")
+    void shouldRejectFileUrlWithHost() {
+        for (String url : List.of("file://host/path", "file://relative")) {
+            // When
+            CliException exception = assertThrows(CliException.class,
+                    () -> TransportFactory.create(url, null, RequestThrottle.unlimited(1)));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Invalid --url " + url),
+                    exception.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write one compact NDJSON line per batch")
+    void shouldWriteOneCompactNdjsonLinePerBatch() throws IOException {
+        // Given
+        TestomatHttpClient transport = TransportFactory.create(tempDir.toUri().toString(), null,
+                RequestThrottle.unlimited(1));
+
+        // When
+        transport.sendPostRequest("ignored", "{\n  \"tests\" : [ ]\n}");
+        transport.sendPostRequest("ignored", "{\"tests\": [{\"name\": \"a\"}]}");
+
+        // Then
+        List<String> lines = Files.readAllLines(tempDir.resolve(FileTransport.LOAD_FILE));
+        assertEquals(List.of("{\"tests\":[]}", "{\"tests\":[{\"name\":\"a\"}]}"), lines);
+    }
+
+    @Test
+    @DisplayName("Should derive test data from recorded batches")
+    void shouldDeriveTestDataFromRecordedBatches() {
+        // Given
+        FileTransport transport = new FileTransport(tempDir);
+        transport.sendPostRequest("ignored", "{\"tests\": [{\"name\": \"shouldWork\","
+                + " \"suites\": [\"ATest\"], \"file\": \"com/ATest.java\"}]}");
+
+        // When
+        String testData = transport.sendGetRequest("tstmt_key", "file://ignored");
+
+        // Then
+        assertTrue(testData.contains("\"com/ATest.java#ATest#shouldWork\":\"@T"));
+    }
+
+    @Test
+    @DisplayName("Should prefer explicit test data file")
+    void shouldPreferExplicitTestDataFile() throws IOException {
+        // Given
+        String explicit = "{\"tests\":{\"a/BTest.java#BTest#m\":\"@T1\"}}";
+        Files.write(tempDir.resolve(FileTransport.TEST_DATA_FILE),
+                explicit.getBytes(StandardCharsets.UTF_8));
+
+        // When
+        String testData = new FileTransport(tempDir).sendGetRequest("tstmt_key", "file://x");
+
+        // Then
+        assertEquals(explicit, testData);
+    }
+}
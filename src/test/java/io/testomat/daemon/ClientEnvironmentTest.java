@@ -0,0 +1,57 @@
+package io.testomat.daemon;
+
+import io.testomat.commands.TestomatCliCommand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientEnvironmentTest {
+
+    @Test
+    @DisplayName("Should resolve option defaults against the client environment")
+    void shouldResolveOptionDefaultsAgainstClientEnvironment() {
+        // Given
+        CommandLine commandLine = new CommandLine(new TestomatCliCommand());
+        commandLine.setDefaultValueProvider(new ClientEnvironment(Map.of(
+                "TESTOMATIO", "tstmt_${key}",
+                "TESTOMATIO_MAX_RPS", "7")));
+
+        // When
+        commandLine.parseArgs("import");
+        CommandLine.Model.CommandSpec importSpec =
+                commandLine.getSubcommands().get("import").getCommandSpec();
+
+        // Then
+        assertEquals("tstmt_${key}", importSpec.findOption("--apikey").getValue());
+        assertEquals(7.0, (double) importSpec.findOption("--max-rps").getValue());
+        assertEquals(4, (int) importSpec.findOption("--max-concurrency").getValue());
+        assertNull(importSpec.findOption("--url").getValue());
+    }
+
+    @Test
+    @DisplayName("Should report variables the daemon cannot take from the client")
+    void shouldReportVariablesDaemonCannotTakeFromClient() {
+        // Given
+        ClientEnvironment client = new ClientEnvironment(Map.of(
+                "TESTOMATIO_URL", "http://localhost:8080",
+                "TESTOMATIO_MAX_RPS", "7",
+                "TESTOMATIO_CACHE_DIR", "/client/cache",
+                "TESTOMATIO_DAEMON", "auto"));
+        Map<String, String> daemon = Map.of(
+                "TESTOMATIO", "tstmt_daemon",
+                "TESTOMATIO_URL", "https://app.testomat.io",
+                "TESTOMATIO_CACHE_DIR", "/daemon/cache");
+
+        // When
+        List<String> conflicts = client.conflicts(
+                new CommandLine(new TestomatCliCommand()).getCommandSpec(), daemon);
+
+        // Then
+        assertEquals(List.of("TESTOMATIO", "TESTOMATIO_CACHE_DIR"), conflicts);
+    }
+}
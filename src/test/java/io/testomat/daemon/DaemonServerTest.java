@@ -0,0 +1,221 @@
+package io.testomat.daemon;
+
+import io.testomat.commands.TestomatCliCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaemonServerTest {
+
+    private static final String TEST_SOURCE = "package com.example;\n\n"
+            + "import org.junit.jupiter.api.Test;\n\n"
+            + "class CalculatorTest {\n"
+            + "    @Test\n"
+            + "    void shouldAdd() {\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private DaemonServer server;
+    private DaemonEndpoint endpoint;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new DaemonServer(
+                () -> new CommandLine(new TestomatCliCommand()),
+                Duration.ofMinutes(1), tempDir.resolve("daemon.properties"));
+        endpoint = server.start(0, 100);
+        serverThread = new Thread(server::serve, "daemon-test");
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.close();
+        serverThread.join(5000);
+    }
+
+    @Test
+    @DisplayName("Should publish its endpoint and remove it when closed")
+    void shouldPublishEndpointAndRemoveItWhenClosed() {
+        // Given
+        Path stateFile = tempDir.resolve("daemon.properties");
+
+        // When
+        DaemonEndpoint published = DaemonEndpoint.read(stateFile).orElseThrow();
+        server.close();
+
+        // Then
+        assertEquals(endpoint.getPort(), published.getPort());
+        assertEquals(endpoint.getToken(), published.getToken());
+        assertFalse(Files.exists(stateFile));
+    }
+
+    @Test
+    @DisplayName("Should run a command relative to the client directory and reuse parsed sources")
+    void shouldRunCommandRelativeToClientDirectoryAndReuseParsedSources() throws IOException {
+        // Given
+        Path project = tempDir.resolve("project");
+        Path sources = Files.createDirectories(project.resolve("src/test/java/com/example"));
+        Path source = Files.writeString(sources.resolve("CalculatorTest.java"), TEST_SOURCE);
+        Files.setLastModifiedTime(source, FileTime.from(Instant.now().minusSeconds(60)));
+        DaemonRequest request = new DaemonRequest(endpoint.getToken(), DaemonRequest.OP_RUN,
+                project.toString(), Collections.emptyMap(),
+                Arrays.asList("import", "--dry-run", "-d", "src"));
+
+        // When
+        Response first = send(request);
+        Response second = send(request);
+        Response status = send(DaemonRequest.control(endpoint.getToken(),
+                DaemonRequest.OP_STATUS));
+
+        // Then
+        assertEquals(0, first.exitCode, first.err);
+        assertTrue(first.out.contains("shouldAdd"), first.out);
+        assertEquals(0, second.exitCode, second.err);
+        assertTrue(status.out.contains("served 2 requests"), status.out);
+        assertFalse(status.out.contains("(0 hits"), status.out);
+    }
+
+    @Test
+    @DisplayName("Should reject requests with a wrong token")
+    void shouldRejectRequestsWithWrongToken() throws IOException {
+        // Given
+        DaemonRequest request = DaemonRequest.control("not-the-token", DaemonRequest.OP_STOP);
+
+        // When
+        Response response = send(request);
+
+        // Then
+        assertEquals(DaemonClient.UNAVAILABLE_EXIT_CODE, response.exitCode);
+        assertTrue(serverThread.isAlive());
+    }
+
+    @Test
+    @DisplayName("Should leave commands it does not serve to a regular process")
+    void shouldLeaveUnsupportedCommandsToRegularProcess() throws IOException {
+        // Given
+        DaemonRequest request = new DaemonRequest(endpoint.getToken(), DaemonRequest.OP_RUN,
+                tempDir.toString(), Collections.emptyMap(), List.of("daemon", "--stop"));
+
+        // When
+        Response response = send(request);
+
+        // Then
+        assertEquals(DaemonClient.UNAVAILABLE_EXIT_CODE, response.exitCode);
+    }
+
+    @Test
+    @DisplayName("Should resolve paths against the client directory")
+    void shouldResolvePathsAgainstClientDirectory() {
+        // Given
+        DaemonRequest request = new DaemonRequest("token", DaemonRequest.OP_RUN, "/work/app",
+                Map.of("TESTOMATIO", "tstmt_key"),
+                Arrays.asList("import", "-d", "tests", "--stats-json=out/stats.json"));
+
+        // When
+        List<String> args = Arrays.asList(request.resolveArguments(commands()));
+
+        // Then
+        assertEquals(Arrays.asList("import", "-d", "/work/app/tests",
+                "--stats-json=/work/app/out/stats.json"), args);
+    }
+
+    @Test
+    @DisplayName("Should resolve paths given as attached or clustered short options")
+    void shouldResolveAttachedShortOptions() {
+        // Given
+        DaemonRequest attached = new DaemonRequest("token", DaemonRequest.OP_RUN, "/work/app",
+                Collections.emptyMap(), Arrays.asList("import", "-dtests", "--max-rps", "2"));
+        DaemonRequest clustered = new DaemonRequest("token", DaemonRequest.OP_RUN,
+                "/work/app", Collections.emptyMap(), Arrays.asList("clean-ids", "-vd", "src"));
+
+        // When
+        List<String> attachedArgs = Arrays.asList(attached.resolveArguments(commands()));
+        List<String> clusteredArgs = Arrays.asList(clustered.resolveArguments(commands()));
+
+        // Then
+        assertEquals(Arrays.asList("import", "-d/work/app/tests", "--max-rps", "2"),
+                attachedArgs);
+        assertEquals(Arrays.asList("clean-ids", "-vd", "/work/app/src"), clusteredArgs);
+        assertDoesNotThrow(() -> new CommandLine(new TestomatCliCommand())
+                .parseArgs(attachedArgs.toArray(new String[0])));
+    }
+
+    @Test
+    @DisplayName("Should leave a command to the client when an unresolvable variable differs")
+    void shouldLeaveCommandToClientWhenEnvironmentDiffers() throws IOException {
+        // Given
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        DaemonRequest request = new DaemonRequest(endpoint.getToken(), DaemonRequest.OP_RUN,
+                project.toString(), Map.of("TESTOMATIO_CACHE_DIR", "/not/the/daemon/cache"),
+                Arrays.asList("import", "--dry-run"));
+
+        // When
+        Response response = send(request);
+
+        // Then
+        assertEquals(DaemonClient.UNAVAILABLE_EXIT_CODE, response.exitCode);
+    }
+
+    @Test
+    @DisplayName("Should stop on request")
+    void shouldStopOnRequest() throws Exception {
+        // When
+        Response response = send(DaemonRequest.control(endpoint.getToken(),
+                DaemonRequest.OP_STOP));
+        serverThread.join(5000);
+
+        // Then
+        assertEquals(0, response.exitCode);
+        assertFalse(serverThread.isAlive());
+    }
+
+    private static CommandLine.Model.CommandSpec commands() {
+        return new CommandLine(new TestomatCliCommand()).getCommandSpec();
+    }
+
+    private Response send(DaemonRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = new DaemonClient(endpoint).send(request,
+                new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        return new Response(exitCode, out.toString(StandardCharsets.UTF_8),
+                err.toString(StandardCharsets.UTF_8));
+    }
+
+    private static final class Response {
+        private final int exitCode;
+        private final String out;
+        private final String err;
+
+        Response(int exitCode, String out, String err) {
+            this.exitCode = exitCode;
+            this.out = out;
+            this.err = err;
+        }
+    }
+}
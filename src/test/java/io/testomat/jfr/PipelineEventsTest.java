@@ -0,0 +1,90 @@
+package io.testomat.jfr;
+
+import com.github.javaparser.ast.CompilationUnit;
+import io.testomat.model.TestCase;
+import io.testomat.service.JavaFileParser;
+import io.testomat.service.JsonBuilder;
+import io.testomat.service.TestFileScanner;
+import io.testomat.service.TestMethodExtractor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should record scan, parse, extract and serialize events with their payload")
+    void shouldRecordPipelineEvents() throws IOException {
+        // Given
+        Path source = tempDir.resolve("UserTest.java");
+        Files.writeString(source, "import org.junit.jupiter.api.Test;\n"
+                + "class UserTest {\n"
+                + "    @Test\n    void first() {}\n"
+                + "    @Test\n    void second() {}\n"
+                + "}\n");
+        Path dump = tempDir.resolve("pipeline.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(ScanEvent.class);
+            recording.enable(ParseEvent.class);
+            recording.enable(ExtractEvent.class);
+            recording.enable(SerializeEvent.class);
+            recording.start();
+
+            new TestFileScanner().findTestFiles(tempDir.toFile());
+            CompilationUnit cu = new JavaFileParser().parseFile(source.toString());
+            List<TestCase> testCases = new TestMethodExtractor()
+                    .extractTestCases(cu, source.toString(), "junit");
+            new JsonBuilder().buildRequestBody(testCases, "junit", false);
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().startsWith("io.testomat."))
+                .collect(Collectors.toList());
+
+        RecordedEvent scan = single(events, "io.testomat.Scan");
+        assertEquals(1, scan.getInt("files"));
+        assertEquals(tempDir.toFile().getAbsolutePath(), scan.getString("path"));
+
+        RecordedEvent parse = single(events, "io.testomat.Parse");
+        assertEquals(source.toString(), parse.getString("path"));
+        assertEquals(Files.size(source), parse.getLong("bytes"));
+        assertFalse(parse.getBoolean("failed"));
+        assertFalse(parse.getDuration().isNegative());
+
+        RecordedEvent extract = single(events, "io.testomat.Extract");
+        assertEquals(2, extract.getInt("testCount"));
+        assertEquals("junit", extract.getString("framework"));
+
+        RecordedEvent serialize = single(events, "io.testomat.Serialize");
+        assertEquals(2, serialize.getInt("testCount"));
+        assertTrue(serialize.getLong("bytes") > 0);
+    }
+
+    private RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> name.equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), "events named " + name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,203 @@
+package io.testomat.nativeimage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the native executable built by the {@code native} profile over a copy of the sample
+ * project and compares its startup and peak RSS with the shaded jar. Skipped when the binary
+ * has not been built.
+ */
+class NativeImageIT {
+
+    private static final Path FIXTURE = Paths.get("src/cds/training/project");
+    private static final int RUNS = 3;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static Path binary;
+    private static Path jar;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void locateArtifacts() {
+        binary = Paths.get(System.getProperty("native.binary", "target/testomatio-native"));
+        jar = Paths.get(System.getProperty("shaded.jar", "target/testomatio.jar"));
+        assumeTrue(Files.isExecutable(binary), "native binary not built: " + binary);
+    }
+
+    @Test
+    @DisplayName("Should list the fixture tests from the native binary")
+    void shouldListFixtureTests() throws Exception {
+        // Given
+        Path project = copyFixture("list");
+
+        // When
+        Result result = run(nativeCommand("import", "--dry-run", "--progress=none",
+                "-d", project.toString()));
+
+        // Then
+        assertEquals(0, result.exitCode, result.output);
+        assertTrue(result.output.contains("Found 8 test methods"), result.output);
+    }
+
+    @Test
+    @DisplayName("Should sync and clean test IDs with the native binary")
+    void shouldSyncAndCleanIds() throws Exception {
+        // Given
+        Path project = copyFixture("sync");
+        Path server = tempDir.resolve("server");
+
+        // When
+        Result sync = run(nativeCommand("sync", "--apikey=tstmt_native",
+                "--url=" + server.toUri(), "--directory=" + project, "--progress=none"));
+        long annotatedAfterSync = countTestIds(project);
+        Result clean = run(nativeCommand("clean-ids", "-d", project.toString()));
+
+        // Then
+        assertEquals(0, sync.exitCode, sync.output);
+        assertTrue(Files.exists(server.resolve("load.ndjson")));
+        assertTrue(annotatedAfterSync >= 8, "test IDs after sync: " + annotatedAfterSync);
+        assertEquals(0, clean.exitCode, clean.output);
+        assertEquals(0, countTestIds(project));
+    }
+
+    @Test
+    @DisplayName("Should start faster and use less memory than the shaded jar")
+    void shouldCompareStartupAndRssWithJar() throws Exception {
+        assumeTrue(Files.exists(jar), "shaded jar not built: " + jar);
+
+        // Given
+        Path project = copyFixture("compare");
+
+        // When
+        Measurement nativeRun = measure(nativeCommand("clean-ids", "--dry-run"), project);
+        List<String> jarCommand = new ArrayList<>(Arrays.asList(javaExecutable(), "-jar",
+                jar.toString(), "clean-ids", "--dry-run"));
+        Measurement jarRun = measure(jarCommand, project);
+
+        // Then
+        ObjectNode report = MAPPER.createObjectNode();
+        report.putObject("native").put("wallTimeMs", nativeRun.wallTimeMs)
+                .put("peakRssBytes", nativeRun.peakRssBytes);
+        report.putObject("jar").put("wallTimeMs", jarRun.wallTimeMs)
+                .put("peakRssBytes", jarRun.peakRssBytes);
+        Path reportFile = Paths.get("target", "native-comparison.json");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        System.out.println("Native vs shaded jar (median of " + RUNS + "): " + report);
+
+        assertTrue(nativeRun.peakRssBytes > 0);
+        assertTrue(nativeRun.wallTimeMs < jarRun.wallTimeMs,
+                "native start should beat the JVM, see " + reportFile);
+    }
+
+    private Measurement measure(List<String> command, Path project) throws Exception {
+        List<Long> wallTimes = new ArrayList<>();
+        List<Long> peaks = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            Path statsFile = tempDir.resolve("stats-" + System.nanoTime() + ".json");
+            List<String> withStats = new ArrayList<>(command);
+            withStats.addAll(Arrays.asList("-d", project.toString(),
+                    "--stats-json", statsFile.toString()));
+
+            long startNanos = System.nanoTime();
+            Result result = run(withStats);
+            wallTimes.add((System.nanoTime() - startNanos) / 1_000_000);
+
+            assertEquals(0, result.exitCode, result.output);
+            JsonNode stats = MAPPER.readTree(statsFile.toFile());
+            peaks.add(stats.path("peakRssBytes").asLong(-1));
+        }
+        Collections.sort(wallTimes);
+        Collections.sort(peaks);
+        return new Measurement(wallTimes.get(RUNS / 2), peaks.get(RUNS / 2));
+    }
+
+    private List<String> nativeCommand(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add(binary.toAbsolutePath().toString());
+        command.addAll(Arrays.asList(args));
+        return command;
+    }
+
+    private static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private Result run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8);
+        return new Result(process.waitFor(), output);
+    }
+
+    private Path copyFixture(String name) throws IOException {
+        Path target = tempDir.resolve(name);
+        try (Stream<Path> paths = Files.walk(FIXTURE)) {
+            for (Path source : paths.collect(Collectors.toList())) {
+                Path copy = target.resolve(FIXTURE.relativize(source).toString());
+                if (Files.isDirectory(source)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(source, copy);
+                }
+            }
+        }
+        return target;
+    }
+
+    private long countTestIds(Path project) throws IOException {
+        try (Stream<Path> paths = Files.walk(project)) {
+            List<Path> sources = paths.filter(path -> path.toString().endsWith(".java"))
+                    .collect(Collectors.toList());
+            long count = 0;
+            for (Path source : sources) {
+                count += Files.readAllLines(source, StandardCharsets.UTF_8).stream()
+                        .filter(line -> line.trim().startsWith("@TestId("))
+                        .count();
+            }
+            return count;
+        }
+    }
+
+    private static class Result {
+        private final int exitCode;
+        private final String output;
+
+        Result(int exitCode, String output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+    }
+
+    private static class Measurement {
+        private final long wallTimeMs;
+        private final long peakRssBytes;
+
+        Measurement(long wallTimeMs, long peakRssBytes) {
+            this.wallTimeMs = wallTimeMs;
+            this.peakRssBytes = peakRssBytes;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package io.testomat.perf;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Writes a synthetic test source tree for scale testing, together with the matching
+ * {@code /api/test_data} response in {@code test_data.json}.
+ *
+ * <p>The tree mixes JUnit 5, JUnit 4 and TestNG classes in deep packages, with nested classes,
+ * parameterized tests, disabled tests, pre-existing {@code @TestId} annotations and CRLF line
+ * endings. The output directory can be scanned by {@code import}, {@code pull-ids},
+ * {@code sync} and {@code clean-ids} directly, and also works as a {@code file://} server URL.
+ * Output is fully determined by the options, including {@code --seed}.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.testomat.perf.CorpusGenerator \
+ *     -Dexec.args="--output target/corpus --classes 10000"
+ * </pre>
+ */
+@Command(name = "corpus-generator", mixinStandardHelpOptions = true,
+        description = "Generates a synthetic Java test corpus and matching test data")
+public class CorpusGenerator implements Callable<Integer> {
+
+    static final String SOURCE_ROOT = "src/test/java";
+    static final String TEST_DATA_FILE = "test_data.json";
+
+    private static final String[] PACKAGE_WORDS = {
+        "api", "billing", "catalog", "checkout", "core", "domain", "gateway", "identity",
+        "inventory", "ledger", "notifications", "orders", "payments", "reporting", "search",
+        "shipping", "storage", "users", "web", "workflow"
+    };
+    private static final String[] SUBJECTS = {
+        "Account", "Cart", "Invoice", "Order", "Payment", "Product", "Refund", "Session",
+        "Shipment", "Subscription", "Token", "User"
+    };
+    private static final String[] ACTIONS = {
+        "Create", "Update", "Delete", "Validate", "Reject", "Calculate", "Serialize", "Export"
+    };
+
+    @Option(names = "--output", required = true, description = "Directory to write into")
+    private Path output;
+
+    @Option(names = "--classes", defaultValue = "1000",
+            description = "Number of top-level test classes (default: ${DEFAULT-VALUE})")
+    private int classes;
+
+    @Option(names = "--min-methods", defaultValue = "3",
+            description = "Minimum test methods per class (default: ${DEFAULT-VALUE})")
+    private int minMethods;
+
+    @Option(names = "--max-methods", defaultValue = "30",
+            description = "Maximum test methods per class (default: ${DEFAULT-VALUE})")
+    private int maxMethods;
+
+    @Option(names = "--package-depth", defaultValue = "6",
+            description = "Package segments below com.example (default: ${DEFAULT-VALUE})")
+    private int packageDepth;
+
+    @Option(names = "--classes-per-package", defaultValue = "25",
+            description = "Classes written into one package (default: ${DEFAULT-VALUE})")
+    private int classesPerPackage;
+
+    @Option(names = "--junit4-ratio", defaultValue = "0.25",
+            description = "Fraction of JUnit 4 classes (default: ${DEFAULT-VALUE})")
+    private double junit4Ratio;
+
+    @Option(names = "--testng-ratio", defaultValue = "0.25",
+            description = "Fraction of TestNG classes, the rest is JUnit 5 "
+                    + "(default: ${DEFAULT-VALUE})")
+    private double testngRatio;
+
+    @Option(names = "--nested-ratio", defaultValue = "0.2",
+            description = "Fraction of JUnit 5 classes with a @Nested class "
+                    + "(default: ${DEFAULT-VALUE})")
+    private double nestedRatio;
+
+    @Option(names = "--parameterized-ratio", defaultValue = "0.1",
+            description = "Fraction of parameterized test methods (default: ${DEFAULT-VALUE})")
+    private double parameterizedRatio;
+
+    @Option(names = "--test-id-ratio", defaultValue = "0.3",
+            description = "Fraction of methods that already carry @TestId "
+                    + "(default: ${DEFAULT-VALUE})")
+    private double testIdRatio;
+
+    @Option(names = "--crlf-ratio", defaultValue = "0.1",
+            description = "Fraction of files with CRLF line endings (default: ${DEFAULT-VALUE})")
+    private double crlfRatio;
+
+    @Option(names = "--seed", defaultValue = "42",
+            description = "Random seed (default: ${DEFAULT-VALUE})")
+    private long seed;
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new CorpusGenerator()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws IOException {
+        long start = System.nanoTime();
+        Corpus corpus = generate();
+        System.out.printf("Generated %d files with %d tests (%d with @TestId) in %d ms%n",
+                corpus.getFiles(), corpus.getTests(), corpus.getTestsWithIds(),
+                (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Sources:   " + corpus.getSourceRoot());
+        System.out.println("Test data: " + corpus.getTestDataFile());
+        return 0;
+    }
+
+    /**
+     * Creates a generator configured from command line style arguments.
+     */
+    public static CorpusGenerator withArgs(String... args) {
+        CorpusGenerator generator = new CorpusGenerator();
+        new CommandLine(generator).parseArgs(args);
+        return generator;
+    }
+
+    public Corpus generate() throws IOException {
+        Random random = new Random(seed);
+        Path sourceRoot = output.resolve(SOURCE_ROOT);
+        Path testDataFile = output.resolve(TEST_DATA_FILE);
+        Files.createDirectories(sourceRoot);
+
+        int tests = 0;
+        int testsWithIds = 0;
+        JsonFactory jsonFactory = new JsonFactory();
+        try (JsonGenerator json = jsonFactory.createGenerator(testDataFile.toFile(),
+                JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("tests");
+
+            String packageName = null;
+            for (int i = 0; i < classes; i++) {
+                if (i % classesPerPackage == 0) {
+                    packageName = packageName(random, i / classesPerPackage);
+                }
+                GeneratedClass generated = generateClass(random, packageName, i);
+                Path file = sourceRoot.resolve(generated.relativePath);
+                Files.createDirectories(file.getParent());
+                writeSource(file, generated.source, random.nextDouble() < crlfRatio);
+
+                for (GeneratedTest test : generated.tests) {
+                    json.writeStringField(generated.relativePath + "#" + test.className + "#"
+                            + test.methodName, "@T" + test.id);
+                    tests++;
+                    if (test.annotated) {
+                        testsWithIds++;
+                    }
+                }
+            }
+
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        return new Corpus(output, sourceRoot, testDataFile, classes, tests, testsWithIds);
+    }
+
+    private String packageName(Random random, int packageIndex) {
+        StringBuilder name = new StringBuilder("com.example");
+        for (int depth = 0; depth < packageDepth; depth++) {
+            name.append('.').append(PACKAGE_WORDS[random.nextInt(PACKAGE_WORDS.length)]);
+        }
+        return name.append(".p").append(packageIndex).toString();
+    }
+
+    private GeneratedClass generateClass(Random random, String packageName, int classIndex) {
+        double frameworkRoll = random.nextDouble();
+        Framework framework = frameworkRoll < junit4Ratio
+                ? Framework.JUNIT4
+                : frameworkRoll < junit4Ratio + testngRatio ? Framework.TESTNG : Framework.JUNIT5;
+        String className = SUBJECTS[classIndex % SUBJECTS.length] + "Scenario" + classIndex
+                + "Test";
+        String relativePath = packageName.replace('.', '/') + "/" + className + ".java";
+        int methods = minMethods + random.nextInt(Math.max(1, maxMethods - minMethods + 1));
+        boolean nested = framework == Framework.JUNIT5 && methods > 3
+                && random.nextDouble() < nestedRatio;
+        int outerMethods = nested ? methods - methods / 3 : methods;
+
+        List<GeneratedTest> tests = new ArrayList<>(methods);
+        StringBuilder body = new StringBuilder(methods * 450);
+        body.append("public class ").append(className).append(" {\n\n")
+                .append("    private final List<String> events = new ArrayList<>();\n");
+        for (int m = 0; m < outerMethods; m++) {
+            appendMethod(body, random, framework, "    ", className, relativePath, m, tests);
+        }
+        if (nested) {
+            String nestedName = "When" + SUBJECTS[random.nextInt(SUBJECTS.length)] + "Expired";
+            body.append("\n    @Nested\n")
+                    .append("    @DisplayName(\"when expired\")\n")
+                    .append("    class ").append(nestedName).append(" {\n");
+            for (int m = outerMethods; m < methods; m++) {
+                appendMethod(body, random, framework, "        ", nestedName, relativePath, m,
+                        tests);
+            }
+            body.append("    }\n");
+        }
+        if (framework == Framework.TESTNG) {
+            body.append("\n    @DataProvider(name = \"amounts\")\n")
+                    .append("    public Object[][] amounts() {\n")
+                    .append("        return new Object[][] {{1}, {10}, {100}};\n")
+                    .append("    }\n");
+        }
+        body.append("}\n");
+
+        boolean hasTestIds = tests.stream().anyMatch(test -> test.annotated);
+        String source = "package " + packageName + ";\n\n"
+                + imports(framework, nested, hasTestIds)
+                + (framework == Framework.JUNIT5
+                        ? "@DisplayName(\"" + className + " behaviour\")\n"
+                        : "")
+                + body;
+        return new GeneratedClass(relativePath, source, tests);
+    }
+
+    private void appendMethod(StringBuilder out, Random random, Framework framework,
+                              String indent, String className, String relativePath,
+                              int index, List<GeneratedTest> tests) {
+        String action = ACTIONS[random.nextInt(ACTIONS.length)];
+        String methodName = "should" + action + "Case" + index;
+        boolean parameterized = framework != Framework.JUNIT4
+                && random.nextDouble() < parameterizedRatio;
+        boolean annotated = random.nextDouble() < testIdRatio;
+        String id = testId(relativePath, className, methodName);
+
+        out.append('\n');
+        if (index % 7 == 0) {
+            out.append(indent).append("// @smoke @priority:high #regression\n");
+        }
+        if (annotated) {
+            out.append(indent).append("@TestId(\"").append(id).append("\")\n");
+        }
+        switch (framework) {
+            case JUNIT5:
+                out.append(indent).append(parameterized
+                        ? "@ParameterizedTest\n" + indent + "@ValueSource(ints = {1, 10, 100})\n"
+                        : "@Test\n");
+                out.append(indent).append("@DisplayName(\"should ").append(action.toLowerCase())
+                        .append(" case ").append(index).append("\")\n");
+                if (index % 13 == 12) {
+                    out.append(indent).append("@Disabled(\"flaky on CI\")\n");
+                }
+                break;
+            case JUNIT4:
+                out.append(indent).append("@Test\n");
+                if (index % 13 == 12) {
+                    out.append(indent).append("@Ignore\n");
+                }
+                break;
+            default:
+                out.append(indent).append(parameterized
+                        ? "@Test(dataProvider = \"amounts\")\n"
+                        : "@Test\n");
+                break;
+        }
+        out.append(indent).append(framework == Framework.JUNIT5 ? "void " : "public void ")
+                .append(methodName).append(parameterized ? "(int amount)" : "()")
+                .append(" {\n")
+                .append(indent).append("    // Given\n")
+                .append(indent).append("    events.add(\"").append(action).append("\");\n")
+                .append(indent).append("    int expected = ")
+                .append(parameterized ? "amount" : String.valueOf(index)).append(";\n\n")
+                .append(indent).append("    // When\n")
+                .append(indent).append("    int actual = expected + events.size() - 1;\n\n")
+                .append(indent).append("    // Then\n")
+                .append(indent).append("    assertEquals(expected, actual);\n")
+                .append(indent).append("}\n");
+
+        tests.add(new GeneratedTest(className, methodName, id, annotated));
+    }
+
+    private String imports(Framework framework, boolean nested, boolean hasTestIds) {
+        StringBuilder imports = new StringBuilder();
+        if (hasTestIds) {
+            imports.append("import io.testomat.core.annotation.TestId;\n");
+        }
+        switch (framework) {
+            case JUNIT5:
+                imports.append("import org.junit.jupiter.api.Disabled;\n")
+                        .append("import org.junit.jupiter.api.DisplayName;\n");
+                if (nested) {
+                    imports.append("import org.junit.jupiter.api.Nested;\n");
+                }
+                imports.append("import org.junit.jupiter.api.Test;\n")
+                        .append("import org.junit.jupiter.params.ParameterizedTest;\n")
+                        .append("import org.junit.jupiter.params.provider.ValueSource;\n")
+                        .append("import static org.junit.jupiter.api.Assertions.assertEquals;\n");
+                break;
+            case JUNIT4:
+                imports.append("import org.junit.Ignore;\n")
+                        .append("import org.junit.Test;\n")
+                        .append("import static org.junit.Assert.assertEquals;\n");
+                break;
+            default:
+                imports.append("import org.testng.annotations.DataProvider;\n")
+                        .append("import org.testng.annotations.Test;\n")
+                        .append("import static org.testng.Assert.assertEquals;\n");
+                break;
+        }
+        return imports.append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n\n")
+                .toString();
+    }
+
+    private static String testId(String relativePath, String className, String methodName) {
+        int hash = (relativePath + "#" + className + "#" + methodName).hashCode();
+        return String.format("%08x", hash);
+    }
+
+    private static void writeSource(Path file, String source, boolean crlf) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(crlf ? source.replace("\n", "\r\n") : source);
+        }
+    }
+
+    private enum Framework {
+        JUNIT5, JUNIT4, TESTNG
+    }
+
+    private static final class GeneratedClass {
+        private final String relativePath;
+        private final String source;
+        private final List<GeneratedTest> tests;
+
+        private GeneratedClass(String relativePath, String source, List<GeneratedTest> tests) {
+            this.relativePath = relativePath;
+            this.source = source;
+            this.tests = tests;
+        }
+    }
+
+    private static final class GeneratedTest {
+        private final String className;
+        private final String methodName;
+        private final String id;
+        private final boolean annotated;
+
+        private GeneratedTest(String className, String methodName, String id,
+                              boolean annotated) {
+            this.className = className;
+            this.methodName = methodName;
+            this.id = id;
+            this.annotated = annotated;
+        }
+    }
+
+    /**
+     * Summary of a generated corpus.
+     */
+    public static final class Corpus {
+        private final Path root;
+        private final Path sourceRoot;
+        private final Path testDataFile;
+        private final int files;
+        private final int tests;
+        private final int testsWithIds;
+
+        Corpus(Path root, Path sourceRoot, Path testDataFile, int files, int tests,
+               int testsWithIds) {
+            this.root = root;
+            this.sourceRoot = sourceRoot;
+            this.testDataFile = testDataFile;
+            this.files = files;
+            this.tests = tests;
+            this.testsWithIds = testsWithIds;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        public Path getSourceRoot() {
+            return sourceRoot;
+        }
+
+        public Path getTestDataFile() {
+            return testDataFile;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public int getTests() {
+            return tests;
+        }
+
+        public int getTestsWithIds() {
+            return testsWithIds;
+        }
+
+        /**
+         * Server URL that serves this corpus' test data through the file transport.
+         */
+        public String getFileUrl() {
+            return root.toAbsolutePath().toUri().toString();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.testomat.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javaparser.ast.CompilationUnit;
+import io.testomat.model.TestCase;
+import io.testomat.service.JavaFileParser;
+import io.testomat.service.TestFrameworkDetector;
+import io.testomat.service.TestMethodExtractor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should generate sources whose tests match the generated test data")
+    void shouldGenerateSourcesMatchingTestData() throws IOException {
+        // Given
+        CorpusGenerator generator = CorpusGenerator.withArgs("--output", tempDir.toString(),
+                "--classes", "60", "--seed", "7");
+
+        // When
+        CorpusGenerator.Corpus corpus = generator.generate();
+
+        // Then
+        JsonNode testData = new ObjectMapper().readTree(corpus.getTestDataFile().toFile())
+                .path("tests");
+        assertEquals(corpus.getTests(), testData.size());
+
+        JavaFileParser parser = new JavaFileParser();
+        TestFrameworkDetector detector = new TestFrameworkDetector();
+        TestMethodExtractor extractor = new TestMethodExtractor();
+        Set<String> frameworks = new HashSet<>();
+        int extracted = 0;
+        for (Path file : javaFiles(corpus.getSourceRoot())) {
+            CompilationUnit cu = parser.parseFile(file.toString());
+            String framework = detector.detectFramework(cu);
+            frameworks.add(cu.getImports().stream()
+                    .map(imp -> imp.getNameAsString())
+                    .filter(name -> name.endsWith(".Test"))
+                    .findFirst()
+                    .orElse(""));
+            for (TestCase testCase : extractor.extractTestCases(cu, file.toString(), framework)) {
+                String method = testCase.getName().replaceAll(" @T\\w+$", "");
+                String suite = testCase.getSuites().get(testCase.getSuites().size() - 1);
+                assertTrue(testData.has(testCase.getFile() + "#" + suite + "#" + method),
+                        "Missing test data for " + testCase.getFile() + "#" + method);
+                extracted++;
+            }
+        }
+        assertEquals(corpus.getTests(), extracted);
+        assertEquals(Set.of("org.junit.jupiter.api.Test", "org.junit.Test",
+                "org.testng.annotations.Test"), frameworks);
+    }
+
+    @Test
+    @DisplayName("Should mix CRLF files, nested classes and existing test IDs")
+    void shouldMixCrlfFilesNestedClassesAndExistingTestIds() throws IOException {
+        // Given
+        CorpusGenerator generator = CorpusGenerator.withArgs("--output", tempDir.toString(),
+                "--classes", "100", "--crlf-ratio", "0.5", "--nested-ratio", "1",
+                "--package-depth", "8");
+
+        // When
+        CorpusGenerator.Corpus corpus = generator.generate();
+
+        // Then
+        List<String> sources = javaFiles(corpus.getSourceRoot()).stream()
+                .map(this::read)
+                .collect(Collectors.toList());
+        assertEquals(100, sources.size());
+        assertTrue(sources.stream().anyMatch(source -> source.contains("\r\n")));
+        assertTrue(sources.stream().anyMatch(source -> !source.contains("\r\n")));
+        assertTrue(sources.stream().anyMatch(source -> source.contains("@Nested")));
+        assertTrue(sources.stream().anyMatch(source -> source.contains("@ParameterizedTest")));
+        assertTrue(corpus.getTestsWithIds() > 0);
+        assertTrue(corpus.getTestsWithIds() < corpus.getTests());
+        assertTrue(sources.get(0).startsWith("package com.example."));
+        String packageName = sources.get(0).substring("package ".length(),
+                sources.get(0).indexOf(';'));
+        assertEquals(2 + 8 + 1, packageName.split("\\.").length);
+    }
+
+    @Test
+    @DisplayName("Should produce identical output for the same seed")
+    void shouldProduceIdenticalOutputForSameSeed() throws IOException {
+        // Given
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+
+        // When
+        CorpusGenerator.withArgs("--output", first.toString(), "--classes", "20").generate();
+        CorpusGenerator.withArgs("--output", second.toString(), "--classes", "20").generate();
+
+        // Then
+        assertArrayEquals(Files.readAllBytes(first.resolve(CorpusGenerator.TEST_DATA_FILE)),
+                Files.readAllBytes(second.resolve(CorpusGenerator.TEST_DATA_FILE)));
+    }
+
+    private List<Path> javaFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> path.toString().endsWith(".java"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.testomat.perf;
+
+import io.testomat.model.TestCase;
+import io.testomat.service.TestExportService;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Measures the heap retained by the test cases of a large import: generates a corpus,
+ * extracts its tests the way {@code import} does and reports the live heap they hold after
+ * full garbage collections, in total and per test.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.testomat.perf.HeapFootprint \
+ *     -Dexec.args="--classes 6000"
+ * </pre>
+ */
+@Command(name = "heap-footprint", mixinStandardHelpOptions = true,
+        description = "Reports the heap retained by the extracted test cases of a corpus")
+public class HeapFootprint implements Callable<Integer> {
+
+    private static final int GC_ROUNDS = 5;
+
+    @Option(names = "--classes", defaultValue = "6000",
+            description = "Classes in the generated corpus, about 16 tests each "
+                    + "(default: ${DEFAULT-VALUE})")
+    private int classes;
+
+    @Option(names = "--seed", defaultValue = "42",
+            description = "Corpus seed (default: ${DEFAULT-VALUE})")
+    private long seed;
+
+    @Option(names = "--work-dir", defaultValue = "target/heap-footprint",
+            description = "Directory for the corpus (default: ${DEFAULT-VALUE})")
+    private Path workDir;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new HeapFootprint()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws IOException {
+        CorpusGenerator.Corpus corpus = CorpusGenerator.withArgs(
+                "--output", workDir.toString(), "--classes", String.valueOf(classes),
+                "--seed", String.valueOf(seed)).generate();
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(corpus.getSourceRoot())) {
+            files = paths.filter(path -> path.toString().endsWith(".java"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+        TestExportService service = new TestExportService();
+
+        long before = liveHeap();
+        List<TestCase> testCases = service.collectTestCases(files, false).getAllTestCases();
+        long after = liveHeap();
+        Reference.reachabilityFence(testCases);
+
+        long retained = after - before;
+        System.out.printf("%d tests from %d files retain %.1f MB, %d bytes per test%n",
+                testCases.size(), files.size(), retained / (1024.0 * 1024.0),
+                retained / Math.max(1, testCases.size()));
+        return 0;
+    }
+
+    private long liveHeap() {
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
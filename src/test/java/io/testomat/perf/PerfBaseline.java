@@ -0,0 +1,134 @@
+package io.testomat.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stored per-phase metrics with regression thresholds.
+ *
+ * <p>A metric regresses when it exceeds the baseline by more than its relative threshold
+ * and by more than its absolute noise floor, so tiny phases do not fail on jitter.
+ */
+public class PerfBaseline {
+
+    public static final String WALL_TIME_MS = "wallTimeMs";
+    public static final String PEAK_RSS_BYTES = "peakRssBytes";
+    public static final String GC_TIME_MS = "gcTimeMs";
+    public static final String ALLOCATED_BYTES = "allocatedBytes";
+    static final String EXIT_CODE = "exitCode";
+
+    static final List<String> METRICS =
+            List.of(WALL_TIME_MS, PEAK_RSS_BYTES, GC_TIME_MS, ALLOCATED_BYTES);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, Double> thresholds;
+    private final Map<String, Long> noiseFloors;
+    private final Map<String, Map<String, Long>> phases;
+    private final Map<String, Object> corpus;
+
+    public PerfBaseline(Map<String, Double> thresholds, Map<String, Long> noiseFloors,
+                        Map<String, Map<String, Long>> phases, Map<String, Object> corpus) {
+        this.corpus = corpus;
+        this.thresholds = thresholds;
+        this.noiseFloors = noiseFloors;
+        this.phases = phases;
+    }
+
+    public static PerfBaseline withDefaults(Map<String, Map<String, Long>> phases) {
+        Map<String, Double> thresholds = new LinkedHashMap<>();
+        thresholds.put(WALL_TIME_MS, 0.25);
+        thresholds.put(PEAK_RSS_BYTES, 0.20);
+        thresholds.put(GC_TIME_MS, 0.50);
+        thresholds.put(ALLOCATED_BYTES, 0.10);
+
+        Map<String, Long> noiseFloors = new LinkedHashMap<>();
+        noiseFloors.put(WALL_TIME_MS, 250L);
+        noiseFloors.put(PEAK_RSS_BYTES, 32L * 1024 * 1024);
+        noiseFloors.put(GC_TIME_MS, 50L);
+        noiseFloors.put(ALLOCATED_BYTES, 16L * 1024 * 1024);
+        return new PerfBaseline(thresholds, noiseFloors, phases, Map.of());
+    }
+
+    public static PerfBaseline load(Path file) throws IOException {
+        JsonNode root = MAPPER.readTree(file.toFile());
+        return new PerfBaseline(
+                MAPPER.convertValue(root.path("thresholds"),
+                        new TypeReference<LinkedHashMap<String, Double>>() {
+                        }),
+                MAPPER.convertValue(root.path("noiseFloors"),
+                        new TypeReference<LinkedHashMap<String, Long>>() {
+                        }),
+                MAPPER.convertValue(root.path("phases"),
+                        new TypeReference<LinkedHashMap<String, Map<String, Long>>>() {
+                        }),
+                MAPPER.convertValue(root.path("corpus"),
+                        new TypeReference<LinkedHashMap<String, Object>>() {
+                        }));
+    }
+
+    /**
+     * Writes the given phase metrics as the new baseline, keeping these thresholds.
+     */
+    public void store(Path file, Map<String, Object> corpus,
+                      Map<String, Map<String, Long>> newPhases) throws IOException {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.set("corpus", MAPPER.valueToTree(corpus));
+        root.set("thresholds", MAPPER.valueToTree(thresholds));
+        root.set("noiseFloors", MAPPER.valueToTree(noiseFloors));
+        root.set("phases", MAPPER.valueToTree(newPhases));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    /**
+     * Compares a run against this baseline.
+     *
+     * @return one human readable line per regressed metric, empty if none regressed
+     */
+    public List<String> findRegressions(Map<String, Map<String, Long>> current) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Long>> phase : current.entrySet()) {
+            Map<String, Long> base = phases.get(phase.getKey());
+            if (base == null) {
+                continue;
+            }
+            for (String metric : METRICS) {
+                Long baseValue = base.get(metric);
+                Long value = phase.getValue().get(metric);
+                if (baseValue == null || value == null) {
+                    continue;
+                }
+                double threshold = thresholds.getOrDefault(metric, 0.0);
+                long floor = noiseFloors.getOrDefault(metric, 0L);
+                if (value > baseValue * (1 + threshold) && value - baseValue > floor) {
+                    regressions.add(String.format("%s %s: %d -> %d (+%.1f%%, limit +%.0f%%)",
+                            phase.getKey(), metric, baseValue, value,
+                            baseValue == 0 ? 100.0 : (value - baseValue) * 100.0 / baseValue,
+                            threshold * 100));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    public Map<String, Map<String, Long>> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Corpus options the baseline was recorded with; runs are only comparable on equal ones.
+     */
+    public Map<String, Object> getCorpus() {
+        return corpus;
+    }
+}
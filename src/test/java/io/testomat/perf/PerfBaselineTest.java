@@ -0,0 +1,75 @@
+package io.testomat.perf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfBaselineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should report metrics above threshold and noise floor")
+    void shouldReportMetricsAboveThresholdAndNoiseFloor() {
+        // Given
+        PerfBaseline baseline = PerfBaseline.withDefaults(Map.of("pull-ids",
+                metrics(10_000, 400L << 20, 200, 2_000L << 20)));
+
+        // When
+        List<String> regressions = baseline.findRegressions(Map.of("pull-ids",
+                metrics(13_000, 410L << 20, 220, 2_500L << 20)));
+
+        // Then
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0).startsWith("pull-ids wallTimeMs: 10000 -> 13000"));
+        assertTrue(regressions.get(1).startsWith("pull-ids allocatedBytes"));
+    }
+
+    @Test
+    @DisplayName("Should ignore large relative changes below the noise floor")
+    void shouldIgnoreLargeRelativeChangesBelowNoiseFloor() {
+        // Given
+        PerfBaseline baseline = PerfBaseline.withDefaults(Map.of("clean-ids",
+                metrics(100, 80L << 20, 5, 4L << 20)));
+
+        // When
+        List<String> regressions = baseline.findRegressions(Map.of("clean-ids",
+                metrics(300, 100L << 20, 40, 12L << 20)));
+
+        // Then
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep thresholds when baseline is stored and loaded")
+    void shouldKeepThresholdsWhenBaselineIsStoredAndLoaded() throws IOException {
+        // Given
+        Path file = tempDir.resolve("baseline.json");
+        Map<String, Map<String, Long>> phases = Map.of("import-dry-run",
+                metrics(1_000, 200L << 20, 30, 500L << 20));
+        PerfBaseline.withDefaults(phases).store(file, Map.of("classes", 10), phases);
+
+        // When
+        PerfBaseline loaded = PerfBaseline.load(file);
+
+        // Then
+        assertEquals(phases, loaded.getPhases());
+        assertEquals(1, loaded.findRegressions(Map.of("import-dry-run",
+                metrics(1_300, 200L << 20, 30, 500L << 20))).size());
+    }
+
+    private Map<String, Long> metrics(long wallTimeMs, long rss, long gcTimeMs, long allocated) {
+        return Map.of(PerfBaseline.WALL_TIME_MS, wallTimeMs,
+                PerfBaseline.PEAK_RSS_BYTES, rss,
+                PerfBaseline.GC_TIME_MS, gcTimeMs,
+                PerfBaseline.ALLOCATED_BYTES, allocated);
+    }
+}
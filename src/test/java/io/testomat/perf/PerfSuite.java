@@ -0,0 +1,286 @@
+package io.testomat.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.testomat.stub.StubTestomatServer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * End-to-end performance regression suite.
+ *
+ * <p>Generates a corpus, then runs {@code import --dry-run}, {@code pull-ids} against a local
+ * stub server and {@code clean-ids} over it, each in its own JVM via {@link PhaseRunner}.
+ * The median of {@code --runs} repetitions is compared against a stored JSON baseline and the
+ * suite exits with 1 when a metric regresses past its threshold.
+ *
+ * <p>When the shaded jar has been built, the report also compares the cold start of a small
+ * {@code import --dry-run} with and without an AppCDS archive. Startup depends heavily on the
+ * machine, so these numbers are reported but not checked against the baseline.
+ *
+ * <pre>
+ * mvn -Pperf verify
+ * mvn -Pperf verify -Dperf.args="--update-baseline"
+ * </pre>
+ */
+@Command(name = "perf-suite", mixinStandardHelpOptions = true,
+        description = "Runs end-to-end CLI phases and compares them with a stored baseline")
+public class PerfSuite implements Callable<Integer> {
+
+    static final String IMPORT_DRY_RUN = "import-dry-run";
+    static final String PULL_IDS = "pull-ids";
+    static final String CLEAN_IDS = "clean-ids";
+    static final String COLD_START_SAMPLE = "src/cds/training/project";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Option(names = "--classes", defaultValue = "1000",
+            description = "Classes in the generated corpus (default: ${DEFAULT-VALUE})")
+    private int classes;
+
+    @Option(names = "--seed", defaultValue = "42",
+            description = "Corpus seed (default: ${DEFAULT-VALUE})")
+    private long seed;
+
+    @Option(names = "--runs", defaultValue = "3",
+            description = "Repetitions per phase, the median is reported "
+                    + "(default: ${DEFAULT-VALUE})")
+    private int runs;
+
+    @Option(names = "--work-dir", defaultValue = "target/perf",
+            description = "Directory for the corpus, logs and report (default: ${DEFAULT-VALUE})")
+    private Path workDir;
+
+    @Option(names = "--baseline", defaultValue = "src/test/resources/perf/baseline.json",
+            description = "Baseline file (default: ${DEFAULT-VALUE})")
+    private Path baselineFile;
+
+    @Option(names = "--update-baseline",
+            description = "Write this run as the new baseline instead of comparing")
+    private boolean updateBaseline;
+
+    @Option(names = "--jvm-args", defaultValue = "-Xmx2g",
+            description = "Options for the phase JVMs (default: ${DEFAULT-VALUE})")
+    private String jvmArgs;
+
+    @Option(names = "--jar", defaultValue = "target/testomatio.jar",
+            description = "Shaded jar for the cold start comparison, skipped when missing "
+                    + "(default: ${DEFAULT-VALUE})")
+    private Path jar;
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new PerfSuite()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        Map<String, List<Map<String, Long>>> samples = new LinkedHashMap<>();
+        for (int run = 1; run <= runs; run++) {
+            System.out.println("Run " + run + "/" + runs);
+            runOnce(run, samples);
+        }
+
+        Map<String, Map<String, Long>> medians = new LinkedHashMap<>();
+        samples.forEach((phase, values) -> medians.put(phase, median(values)));
+        printTable(medians);
+
+        Map<String, Object> reportContent = new LinkedHashMap<>(medians);
+        if (Files.exists(jar)) {
+            reportContent.put("coldStart", measureColdStart());
+        } else {
+            System.out.println("Skipping cold start comparison, " + jar + " was not built");
+        }
+
+        Path report = workDir.resolve("report.json");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), reportContent);
+        System.out.println("Report written to " + report);
+
+        Map<String, Object> corpus = new LinkedHashMap<>();
+        corpus.put("classes", classes);
+        corpus.put("seed", seed);
+        corpus.put("jvmArgs", jvmArgs);
+
+        if (updateBaseline || !Files.exists(baselineFile)) {
+            PerfBaseline current = Files.exists(baselineFile)
+                    ? PerfBaseline.load(baselineFile)
+                    : PerfBaseline.withDefaults(medians);
+            current.store(baselineFile, corpus, medians);
+            System.out.println("Baseline written to " + baselineFile);
+            return 0;
+        }
+
+        PerfBaseline baseline = PerfBaseline.load(baselineFile);
+        if (!baseline.getCorpus().toString().equals(corpus.toString())) {
+            System.err.println("Baseline was recorded for corpus " + baseline.getCorpus()
+                    + " but this run used " + corpus + ". Re-run with --update-baseline.");
+            return 2;
+        }
+        List<String> regressions = baseline.findRegressions(medians);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baselineFile);
+            return 0;
+        }
+        System.err.println("Performance regressions against " + baselineFile + ":");
+        regressions.forEach(line -> System.err.println("  " + line));
+        return 1;
+    }
+
+    private void runOnce(int run, Map<String, List<Map<String, Long>>> samples)
+            throws Exception {
+        Path corpusDir = workDir.resolve("corpus");
+        deleteRecursively(corpusDir);
+        CorpusGenerator.Corpus corpus = CorpusGenerator.withArgs(
+                "--output", corpusDir.toString(),
+                "--classes", String.valueOf(classes),
+                "--seed", String.valueOf(seed)).generate();
+        String sources = corpus.getSourceRoot().toString();
+
+        record(samples, IMPORT_DRY_RUN, runPhase(IMPORT_DRY_RUN, run,
+                "import", "-d", sources, "--dry-run"));
+
+        try (StubTestomatServer server = new StubTestomatServer(0, Duration.ZERO, 0, 0, seed)) {
+            server.getRegistry().putAll(MAPPER.readValue(corpus.getTestDataFile().toFile(),
+                    new TypeReference<Map<String, Map<String, String>>>() {
+                    }).get("tests"));
+            server.start();
+            record(samples, PULL_IDS, runPhase(PULL_IDS, run, "pull-ids", "-d", sources,
+                    "--apikey", "tstmt_perf", "--url", server.getUrl(), "--no-cache"));
+        }
+
+        record(samples, CLEAN_IDS, runPhase(CLEAN_IDS, run, "clean-ids", "-d", sources));
+    }
+
+    private Map<String, Long> runPhase(String phase, int run, String... cliArgs)
+            throws IOException, InterruptedException {
+        Path logs = Files.createDirectories(workDir.resolve("logs"));
+        Path metricsFile = logs.resolve(phase + "-" + run + ".json");
+        Path logFile = logs.resolve(phase + "-" + run + ".log");
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PhaseRunner.class.getName());
+        command.add(metricsFile.toString());
+        command.addAll(Arrays.asList(cliArgs));
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || !Files.exists(metricsFile)) {
+            throw new IllegalStateException("Phase " + phase + " failed with exit code "
+                    + exitCode + ", see " + logFile);
+        }
+
+        Map<String, Long> metrics = MAPPER.readValue(metricsFile.toFile(),
+                new TypeReference<LinkedHashMap<String, Long>>() {
+                });
+        metrics.remove(PerfBaseline.EXIT_CODE);
+        System.out.printf("  %-16s %8d ms%n", phase, metrics.get(PerfBaseline.WALL_TIME_MS));
+        return metrics;
+    }
+
+    /**
+     * Records an AppCDS archive for the jar with one training run, then times the same small
+     * command with the default JDK class sharing and with the archive mapped. The archive is
+     * required in the second case so a silently ignored archive cannot pass as a result.
+     */
+    private Map<String, Long> measureColdStart() throws IOException, InterruptedException {
+        Path archive = workDir.resolve("cold-start.jsa").toAbsolutePath();
+        Files.deleteIfExists(archive);
+        runJar("-XX:ArchiveClassesAtExit=" + archive);
+
+        List<Long> withoutCds = new ArrayList<>();
+        List<Long> withCds = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            withoutCds.add(runJar("-Xshare:auto"));
+            withCds.add(runJar("-XX:SharedArchiveFile=" + archive, "-Xshare:on"));
+        }
+        Collections.sort(withoutCds);
+        Collections.sort(withCds);
+
+        Map<String, Long> coldStart = new LinkedHashMap<>();
+        coldStart.put("withoutCdsMs", withoutCds.get(withoutCds.size() / 2));
+        coldStart.put("withCdsMs", withCds.get(withCds.size() / 2));
+        System.out.printf("%ncold start       %8d ms without CDS, %d ms with CDS%n",
+                coldStart.get("withoutCdsMs"), coldStart.get("withCdsMs"));
+        return coldStart;
+    }
+
+    private long runJar(String... jvmOptions) throws IOException, InterruptedException {
+        Path logFile = Files.createDirectories(workDir.resolve("logs")).resolve("cold-start.log");
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmOptions));
+        command.addAll(Arrays.asList("-Xlog:cds=off", "-Xlog:cds+dynamic=off",
+                "-jar", jar.toAbsolutePath().toString(),
+                "import", "--dry-run", "--progress=none", "-d", COLD_START_SAMPLE));
+
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile.toFile()))
+                .start();
+        int exitCode = process.waitFor();
+        long wallTimeMs = (System.nanoTime() - startNanos) / 1_000_000;
+        if (exitCode != 0) {
+            throw new IllegalStateException("Cold start run failed with exit code " + exitCode
+                    + ", see " + logFile);
+        }
+        return wallTimeMs;
+    }
+
+    private static void record(Map<String, List<Map<String, Long>>> samples, String phase,
+                               Map<String, Long> metrics) {
+        samples.computeIfAbsent(phase, key -> new ArrayList<>()).add(metrics);
+    }
+
+    private static Map<String, Long> median(List<Map<String, Long>> values) {
+        Map<String, Long> median = new LinkedHashMap<>();
+        for (String metric : PerfBaseline.METRICS) {
+            List<Long> sorted = new ArrayList<>();
+            values.forEach(value -> sorted.add(value.get(metric)));
+            Collections.sort(sorted);
+            median.put(metric, sorted.get(sorted.size() / 2));
+        }
+        return median;
+    }
+
+    private static void printTable(Map<String, Map<String, Long>> medians) {
+        System.out.printf("%n%-16s %12s %12s %10s %14s%n", "phase", "wall ms", "peak RSS MB",
+                "GC ms", "allocated MB");
+        medians.forEach((phase, metrics) -> System.out.printf("%-16s %12d %12d %10d %14d%n",
+                phase,
+                metrics.get(PerfBaseline.WALL_TIME_MS),
+                metrics.get(PerfBaseline.PEAK_RSS_BYTES) / (1024 * 1024),
+                metrics.get(PerfBaseline.GC_TIME_MS),
+                metrics.get(PerfBaseline.ALLOCATED_BYTES) / (1024 * 1024)));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
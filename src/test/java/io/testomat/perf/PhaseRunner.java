@@ -0,0 +1,135 @@
+package io.testomat.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.testomat.commands.TestomatCliCommand;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import picocli.CommandLine;
+
+/**
+ * Child process entry point of {@link PerfSuite}: runs one CLI invocation in a fresh JVM and
+ * writes its wall time, peak RSS, GC time and allocated bytes to a JSON file.
+ *
+ * <p>Usage: {@code PhaseRunner <metrics.json> <cli arguments...>}
+ */
+public final class PhaseRunner {
+
+    private static final long SAMPLE_INTERVAL_MS = 10;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Map<Long, Long> allocatedByThread = new HashMap<>();
+    private long peakCommittedBytes;
+
+    private PhaseRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path metricsFile = Paths.get(args[0]);
+        String[] cliArgs = Arrays.copyOfRange(args, 1, args.length);
+
+        Map<String, Long> metrics = new PhaseRunner().run(cliArgs);
+        Files.write(metricsFile, new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValueAsBytes(metrics));
+        System.exit(metrics.get(PerfBaseline.EXIT_CODE).intValue());
+    }
+
+    private Map<String, Long> run(String[] cliArgs) throws InterruptedException {
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long gcTimeBefore = totalGcTimeMs();
+        sample();
+
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "perf-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        int exitCode = new CommandLine(new TestomatCliCommand()).execute(cliArgs);
+        long wallTimeMs = (System.nanoTime() - start) / 1_000_000;
+
+        sampler.interrupt();
+        sampler.join();
+        sample();
+
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put(PerfBaseline.WALL_TIME_MS, wallTimeMs);
+        metrics.put(PerfBaseline.PEAK_RSS_BYTES, peakRssBytes());
+        metrics.put(PerfBaseline.GC_TIME_MS, totalGcTimeMs() - gcTimeBefore);
+        metrics.put(PerfBaseline.ALLOCATED_BYTES, allocatedBytes());
+        metrics.put(PerfBaseline.EXIT_CODE, (long) exitCode);
+        return metrics;
+    }
+
+    /**
+     * Records the allocation counter of every live thread. Threads that finish between two
+     * samples lose at most one interval of allocations.
+     */
+    private synchronized void sample() {
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] > 0) {
+                allocatedByThread.merge(ids[i], allocated[i], Math::max);
+            }
+        }
+        long committed = memory.getHeapMemoryUsage().getCommitted()
+                + memory.getNonHeapMemoryUsage().getCommitted();
+        peakCommittedBytes = Math.max(peakCommittedBytes, committed);
+    }
+
+    private synchronized long allocatedBytes() {
+        return allocatedByThread.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Peak resident set size from {@code /proc/self/status} on Linux, otherwise the peak
+     * committed heap and non-heap memory seen by the sampler.
+     */
+    private long peakRssBytes() {
+        Path status = Paths.get("/proc/self/status");
+        if (Files.isReadable(status)) {
+            try {
+                List<String> lines = Files.readAllLines(status, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    if (line.startsWith("VmHWM:")) {
+                        String kilobytes = line.substring("VmHWM:".length())
+                                .replace("kB", "").trim();
+                        return Long.parseLong(kilobytes) * 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // fall through to the sampled value
+            }
+        }
+        return peakCommittedBytes;
+    }
+
+    private static long totalGcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,146 @@
+package io.testomat.progressbar;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressBarTest {
+
+    @Test
+    @DisplayName("Should count increments from parallel workers without losing any")
+    void shouldCountParallelIncrements() throws InterruptedException {
+        // Given
+        CountingRenderer renderer = new CountingRenderer(0);
+        ProgressBar progressBar = new ProgressBar(4000, "Parsing", renderer);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 4000; i++) {
+            executor.submit(progressBar::increment);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        progressBar.finish();
+        progressBar.finish();
+
+        // Then
+        assertEquals(4000, progressBar.getCurrent());
+        assertEquals(1, renderer.finishes.get());
+    }
+
+    @Test
+    @DisplayName("Should throttle redraws to the renderer interval")
+    void shouldThrottleRedraws() {
+        // Given
+        CountingRenderer renderer = new CountingRenderer(TimeUnit.HOURS.toNanos(1));
+        ProgressBar progressBar = new ProgressBar(10_000, "Parsing", renderer);
+
+        // When
+        for (int i = 1; i <= 10_000; i++) {
+            progressBar.update(i);
+        }
+        progressBar.update(5);
+
+        // Then
+        assertEquals(1, renderer.updates.get());
+        assertEquals(10_000, progressBar.getCurrent());
+    }
+
+    @Test
+    @DisplayName("Should write one plain line per tenth of the work")
+    void shouldWritePlainLinePerTenth() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBar progressBar = new ProgressBar(1000, "Parsing 1000 files",
+                new PlainProgressRenderer(new PrintStream(out, true, StandardCharsets.UTF_8)));
+
+        // When
+        for (int i = 1; i <= 1000; i++) {
+            progressBar.update(i);
+        }
+        progressBar.finish();
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\\R");
+        assertEquals(10, lines.length);
+        assertEquals("Parsing 1000 files: 10% (100/1000)", lines[0]);
+        assertEquals("Parsing 1000 files: 100% (1000/1000)", lines[9]);
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("\r"));
+    }
+
+    @Test
+    @DisplayName("Should emit progress and finish events as NDJSON")
+    void shouldEmitNdjsonEvents() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonProgressRenderer renderer =
+                new JsonProgressRenderer(new PrintStream(out, true, StandardCharsets.UTF_8));
+        ProgressBar progressBar = new ProgressBar(3, "Processing \"ids\"", renderer);
+
+        // When
+        renderer.status("Fetching test data from server...");
+        progressBar.update(1);
+        progressBar.finish();
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\\R");
+        assertEquals(3, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode status = mapper.readTree(lines[0]);
+        JsonNode progress = mapper.readTree(lines[1]);
+        JsonNode finish = mapper.readTree(lines[2]);
+
+        assertEquals("status", status.path("event").asText());
+        assertEquals("progress", progress.path("event").asText());
+        assertEquals("Processing \"ids\"", progress.path("task").asText());
+        assertEquals(1, progress.path("current").asInt());
+        assertEquals(3, progress.path("total").asInt());
+        assertEquals("finish", finish.path("event").asText());
+        assertEquals(3, finish.path("current").asInt());
+        assertTrue(finish.path("timestamp").asLong() > 0);
+    }
+
+    @Test
+    @DisplayName("Should parse progress modes case-insensitively")
+    void shouldParseProgressModes() {
+        assertEquals(ProgressMode.JSON, ProgressMode.parse("json"));
+        assertEquals(ProgressMode.TTY, ProgressMode.parse(" TTY "));
+        assertThrows(IllegalArgumentException.class, () -> ProgressMode.parse("fancy"));
+    }
+
+    private static class CountingRenderer implements ProgressRenderer {
+        private final long intervalNanos;
+        private final AtomicInteger updates = new AtomicInteger();
+        private final AtomicInteger finishes = new AtomicInteger();
+
+        CountingRenderer(long intervalNanos) {
+            this.intervalNanos = intervalNanos;
+        }
+
+        @Override
+        public long minIntervalNanos() {
+            return intervalNanos;
+        }
+
+        @Override
+        public void update(String task, int current, int total) {
+            updates.incrementAndGet();
+        }
+
+        @Override
+        public void finish(String task, int total) {
+            finishes.incrementAndGet();
+        }
+    }
+}
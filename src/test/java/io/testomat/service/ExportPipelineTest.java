@@ -0,0 +1,103 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import io.testomat.model.TestCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportPipelineTest {
+
+    @Test
+    @DisplayName("Should cut batches in the order tests are accepted")
+    void shouldCutBatchesInAcceptedOrder() {
+        // Given
+        List<String> batches = Collections.synchronizedList(new ArrayList<>());
+        ExportPipeline pipeline = new ExportPipeline(3, 1, 2, (testCases, framework) ->
+                batches.add(framework + ":" + testCases.stream()
+                        .map(TestCase::getName)
+                        .collect(Collectors.joining(","))));
+
+        // When
+        pipeline.accept(tests("a", "b"), "junit");
+        pipeline.accept(tests("c", "d", "e", "f"), "testng");
+        pipeline.accept(tests("g"), "testng");
+        int uploaded = pipeline.finish();
+
+        // Then
+        assertEquals(7, uploaded);
+        assertEquals(List.of("junit:a,b,c", "junit:d,e,f", "junit:g"), batches);
+    }
+
+    @Test
+    @DisplayName("Should make the producer wait while the queue is full")
+    void shouldApplyBackpressureWhenQueueIsFull() throws InterruptedException {
+        // Given - one blocked uploader and room for two queued batches
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger uploaded = new AtomicInteger();
+        ExportPipeline pipeline = new ExportPipeline(1, 1, 2, (testCases, framework) -> {
+            release.await();
+            uploaded.addAndGet(testCases.size());
+        });
+        AtomicInteger accepted = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                pipeline.accept(tests("test" + i), "junit");
+                accepted.incrementAndGet();
+            }
+        });
+
+        // When
+        producer.start();
+        producer.join(500);
+
+        // Then - one batch in flight, two queued, the fourth put waits
+        assertTrue(producer.isAlive());
+        assertEquals(3, accepted.get());
+
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        assertEquals(20, pipeline.finish());
+        assertEquals(20, uploaded.get());
+    }
+
+    @Test
+    @DisplayName("Should stop accepting tests after an upload failed")
+    void shouldStopProducerAfterFailedUpload() {
+        // Given
+        ExportPipeline pipeline = new ExportPipeline(1, 2, 1, (testCases, framework) -> {
+            throw new IllegalStateException("server unavailable");
+        });
+
+        // When
+        CliException exception = assertThrows(CliException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                pipeline.accept(tests("test" + i), "junit");
+            }
+            pipeline.finish();
+        });
+
+        // Then
+        assertEquals("server unavailable", exception.getCause().getMessage());
+        pipeline.close();
+    }
+
+    private static List<TestCase> tests(String... names) {
+        List<TestCase> testCases = new ArrayList<>();
+        for (String name : names) {
+            TestCase testCase = new TestCase();
+            testCase.setName(name);
+            testCases.add(testCase);
+        }
+        return testCases;
+    }
+}
@@ -0,0 +1,184 @@
+package io.testomat.service;
+
+import io.testomat.exception.CliException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GitChangeSetTest {
+
+    private static final String SOURCE = "class %s {\n"
+            + "    @org.junit.jupiter.api.Test\n"
+            + "    void shouldWork() {\n"
+            + "        int value = %d;\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = tempDir.toRealPath().resolve("repo");
+        Files.createDirectories(repository);
+    }
+
+    @Test
+    @DisplayName("Should treat renames as a deletion and a change and keep copy sources")
+    void shouldParseRenamesDeletionsAndCopies() {
+        // Given
+        Path root = Paths.get("/work");
+        String output = String.join("\0",
+                "M", "src/ChangedTest.java",
+                "A", "src/AddedTest.java",
+                "D", "src/DeletedTest.java",
+                "R087", "src/OldTest.java", "src/NewTest.java",
+                "C100", "src/SourceTest.java", "src/CopyTest.java",
+                "M", "README.md") + "\0";
+
+        // When
+        GitChangeSet changes = GitChangeSet.parse(root, output);
+
+        // Then
+        assertEquals(Set.of(root.resolve("src/ChangedTest.java"),
+                root.resolve("src/AddedTest.java"), root.resolve("src/NewTest.java"),
+                root.resolve("src/CopyTest.java")), changes.getChanged());
+        assertEquals(Set.of(root.resolve("src/DeletedTest.java"),
+                root.resolve("src/OldTest.java")), changes.getDeleted());
+    }
+
+    @Test
+    @DisplayName("Should find committed, uncommitted and untracked changes since the merge base")
+    void shouldFindChangesSinceMergeBase() throws Exception {
+        // Given
+        assumeTrue(gitAvailable(), "git is not installed");
+        git("init", "-q", "-b", "main");
+        write("src/test/java/KeptTest.java", "KeptTest", 1);
+        write("src/test/java/EditedTest.java", "EditedTest", 1);
+        write("src/test/java/MovedTest.java", "MovedTest", 1);
+        write("src/test/java/RemovedTest.java", "RemovedTest", 1);
+        commit("base");
+        git("checkout", "-q", "-b", "feature");
+        write("src/test/java/EditedTest.java", "EditedTest", 2);
+        git("mv", "src/test/java/MovedTest.java", "src/test/java/RenamedTest.java");
+        git("rm", "-q", "src/test/java/RemovedTest.java");
+        commit("feature");
+        git("checkout", "-q", "main");
+        write("src/test/java/KeptTest.java", "KeptTest", 3);
+        commit("main moves on");
+        git("checkout", "-q", "feature");
+        write("src/test/java/UntrackedTest.java", "UntrackedTest", 1);
+        write("target/generated/GeneratedTest.java", "GeneratedTest", 1);
+
+        // When
+        GitChangeSet changes = GitChangeSet.since("main", repository);
+        List<File> files = new TestFileScanner().filterSourceFiles(repository.toFile(),
+                changes.getChanged());
+
+        // Then
+        assertEquals(Arrays.asList("EditedTest.java", "RenamedTest.java",
+                "UntrackedTest.java"), files.stream().map(File::getName).sorted()
+                .collect(Collectors.toList()));
+        assertEquals(Set.of(source("MovedTest"), source("RemovedTest")), changes.getDeleted());
+    }
+
+    @Test
+    @DisplayName("Should return changed files below a symlinked directory, not its real path")
+    void shouldKeepChangedFilesBelowSymlinkedDirectory() throws Exception {
+        // Given
+        assumeTrue(gitAvailable(), "git is not installed");
+        git("init", "-q", "-b", "main");
+        write("src/test/java/KeptTest.java", "KeptTest", 1);
+        commit("base");
+        write("src/test/java/a/EditedTest.java", "EditedTest", 2);
+        Path link;
+        try {
+            link = Files.createSymbolicLink(tempDir.toRealPath().resolve("link"), repository);
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false, "symbolic links are not supported");
+            return;
+        }
+
+        // When
+        GitChangeSet changes = GitChangeSet.since("main", link);
+        List<File> files = new TestFileScanner().filterSourceFiles(link.toFile(),
+                changes.getChanged());
+
+        // Then
+        assertEquals(List.of(link.resolve("src/test/java/a/EditedTest.java").toFile()), files);
+        assertEquals(Paths.get("src/test/java/a/EditedTest.java"),
+                link.relativize(files.get(0).toPath()));
+    }
+
+    @Test
+    @DisplayName("Should fail with a clear message for an unknown ref")
+    void shouldFailForUnknownRef() throws Exception {
+        // Given
+        assumeTrue(gitAvailable(), "git is not installed");
+        git("init", "-q", "-b", "main");
+        write("src/test/java/KeptTest.java", "KeptTest", 1);
+        commit("base");
+
+        // When
+        CliException error = assertThrows(CliException.class,
+                () -> GitChangeSet.since("no-such-branch", repository));
+
+        // Then
+        assertTrue(error.getMessage().contains("no-such-branch"), error.getMessage());
+    }
+
+    private Path source(String className) {
+        return repository.resolve("src/test/java/" + className + ".java");
+    }
+
+    private void write(String path, String className, int value) throws IOException {
+        Path file = repository.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, String.format(SOURCE, className, value));
+    }
+
+    private void commit(String message) throws Exception {
+        git("add", "-A");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com",
+                "commit", "-q", "-m", message);
+    }
+
+    private void git(String... args) throws Exception {
+        String[] command = new String[args.length + 3];
+        command[0] = "git";
+        command[1] = "-C";
+        command[2] = repository.toString();
+        System.arraycopy(args, 0, command, 3, args.length);
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), "git " + String.join(" ", args));
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
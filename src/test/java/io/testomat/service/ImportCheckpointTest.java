@@ -0,0 +1,153 @@
+package io.testomat.service;
+
+import io.testomat.client.TestomatHttpClient;
+import io.testomat.exception.CliException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should remember acknowledged batches across resumed runs")
+    void shouldRememberAcknowledgedBatchesAcrossResumedRuns() {
+        // Given
+        Path journal = tempDir.resolve("checkpoints/import.journal");
+        ImportCheckpoint first = ImportCheckpoint.open(journal, false);
+        first.markAcknowledged("batch-1");
+        first.markAcknowledged("batch-2");
+
+        // When
+        ImportCheckpoint resumed = ImportCheckpoint.open(journal, true);
+
+        // Then
+        assertEquals(2, resumed.getAcknowledgedCount());
+        assertTrue(resumed.isAcknowledged("batch-1"));
+        assertFalse(resumed.isAcknowledged("batch-3"));
+        assertEquals(1, resumed.getSkippedBatches());
+    }
+
+    @Test
+    @DisplayName("Should start fresh when not resuming")
+    void shouldStartFreshWhenNotResuming() {
+        // Given
+        Path journal = tempDir.resolve("import.journal");
+        ImportCheckpoint.open(journal, false).markAcknowledged("batch-1");
+
+        // When
+        ImportCheckpoint fresh = ImportCheckpoint.open(journal, false);
+
+        // Then
+        assertEquals(0, fresh.getAcknowledgedCount());
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    @DisplayName("Should delete journal on completion")
+    void shouldDeleteJournalOnCompletion() {
+        // Given
+        Path journal = tempDir.resolve("import.journal");
+        ImportCheckpoint checkpoint = ImportCheckpoint.open(journal, false);
+        checkpoint.markAcknowledged("batch-1");
+
+        // When
+        checkpoint.complete();
+
+        // Then
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    @DisplayName("Should use distinct journals per project and directory")
+    void shouldUseDistinctJournalsPerProjectAndDirectory() {
+        // When
+        Path a = ImportCheckpoint.defaultJournalFile(tempDir, "https://app.testomat.io",
+                "tstmt_a", Path.of("project"));
+        Path b = ImportCheckpoint.defaultJournalFile(tempDir, "https://app.testomat.io",
+                "tstmt_b", Path.of("project"));
+        Path c = ImportCheckpoint.defaultJournalFile(tempDir, "https://app.testomat.io",
+                "tstmt_a", Path.of("other"));
+
+        // Then
+        assertNotEquals(a, b);
+        assertNotEquals(a, c);
+        assertFalse(a.toString().contains("tstmt_a"));
+    }
+
+    @Test
+    @DisplayName("Should resend only undelivered batches after a failed import")
+    void shouldResendOnlyUndeliveredBatchesAfterFailedImport() throws IOException {
+        // Given - 250 tests are sent as 3 batches, the third one fails
+        File testFile = writeTestClass(250);
+        Path journal = tempDir.resolve("import.journal");
+        RecordingClient failingClient = new RecordingClient(2);
+        TestExportService failingRun = new TestExportService(failingClient, 1);
+
+        assertThrows(CliException.class, () -> failingRun.processTestFilesWithProgress(
+                Collections.singletonList(testFile), "tstmt_key", "http://localhost", false,
+                false, null, false, ImportCheckpoint.open(journal, false)));
+
+        // When
+        RecordingClient resumedClient = new RecordingClient(Integer.MAX_VALUE);
+        TestExportService resumedRun = new TestExportService(resumedClient, 1);
+        int exported = resumedRun.processTestFilesWithProgress(
+                Collections.singletonList(testFile), "tstmt_key", "http://localhost", false,
+                false, null, false, ImportCheckpoint.open(journal, true));
+
+        // Then
+        assertEquals(3, failingClient.bodies.size());
+        assertEquals(1, resumedClient.bodies.size());
+        assertEquals(failingClient.bodies.get(2), resumedClient.bodies.get(0));
+        assertEquals(250, exported);
+        assertFalse(Files.exists(journal), "Journal should be removed after completion");
+    }
+
+    private File writeTestClass(int methods) throws IOException {
+        StringBuilder code = new StringBuilder("package com.example;\n\n")
+                .append("import org.junit.jupiter.api.Test;\n\n")
+                .append("class BigTest {\n");
+        for (int i = 0; i < methods; i++) {
+            code.append("    @Test\n    void test").append(i).append("() {\n    }\n\n");
+        }
+        code.append("}\n");
+        Path file = tempDir.resolve("BigTest.java");
+        Files.write(file, code.toString().getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static class RecordingClient implements TestomatHttpClient {
+        private final int succeedingRequests;
+        private final List<String> bodies = new ArrayList<>();
+
+        RecordingClient(int succeedingRequests) {
+            this.succeedingRequests = succeedingRequests;
+        }
+
+        @Override
+        public String sendGetRequest(String apiKey, String serverUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendPostRequest(String url, String jsonBody) {
+            bodies.add(jsonBody);
+            if (bodies.size() > succeedingRequests) {
+                throw new CliException("HTTP 503: Service unavailable");
+            }
+        }
+    }
+}
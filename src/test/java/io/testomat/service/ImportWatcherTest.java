@@ -0,0 +1,170 @@
+package io.testomat.service;
+
+import io.testomat.client.TestomatHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportWatcherTest {
+
+    private static final String SOURCE = "package com.example;\n\n"
+            + "import org.junit.jupiter.api.Test;\n\n"
+            + "class CalculatorTest {\n"
+            + "    @Test\n"
+            + "    void shouldAdd() {\n"
+            + "        int sum = 1 + 1;\n"
+            + "    }\n\n"
+            + "    @Test\n"
+            + "    void shouldSubtract() {\n"
+            + "        int difference = 2 - 1;\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<String> uploads = new LinkedBlockingQueue<>();
+    private TestExportService exportService;
+    private ImportWatcher watcher;
+    private Thread watchThread;
+    private Path sources;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sources = Files.createDirectories(tempDir.resolve("src/test/java/com/example"));
+        Files.writeString(sources.resolve("CalculatorTest.java"), SOURCE);
+
+        exportService = new TestExportService(new QueueClient(uploads), 1);
+        watcher = new ImportWatcher(new TestFileScanner(), exportService,
+                Duration.ofMillis(100));
+        watcher.register(tempDir.toFile());
+        watchThread = new Thread(() -> watcher.watch("tstmt_watch", "http://localhost",
+                false, false, false), "import-watch");
+        watchThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        watcher.close();
+        watchThread.join(5000);
+    }
+
+    @Test
+    @DisplayName("Should upload only the tests that changed since the last upload")
+    void shouldUploadOnlyChangedTests() throws Exception {
+        // Given
+        Path file = sources.resolve("CalculatorTest.java");
+        Files.writeString(file, SOURCE.replace("1 + 1", "1 + 2"));
+        String first = awaitUpload();
+
+        // When
+        Files.writeString(file, SOURCE.replace("1 + 1", "1 + 2").replace("2 - 1", "3 - 1"));
+        String second = awaitUpload();
+
+        // Then
+        assertTrue(first.contains("shouldAdd") && first.contains("shouldSubtract"), first);
+        assertTrue(second.contains("shouldSubtract"), second);
+        assertFalse(second.contains("shouldAdd"), second);
+    }
+
+    @Test
+    @DisplayName("Should upload only the edited test after the initial import")
+    void shouldUploadOnlyEditedTestAfterInitialImport() throws Exception {
+        // Given
+        Path file = sources.resolve("CalculatorTest.java");
+        exportService.setParsedFileListener(watcher::remember);
+        exportService.processTestFilesWithProgress(List.of(file.toFile()), "tstmt_watch",
+                "http://localhost", false, false, null, false);
+        exportService.setParsedFileListener(null);
+        String initial = awaitUpload();
+
+        // When
+        Files.writeString(file, SOURCE.replace("1 + 1", "1 + 2"));
+        String upload = awaitUpload();
+
+        // Then
+        assertTrue(initial.contains("shouldAdd") && initial.contains("shouldSubtract"),
+                initial);
+        assertTrue(upload.contains("shouldAdd"), upload);
+        assertFalse(upload.contains("shouldSubtract"), upload);
+    }
+
+    @Test
+    @DisplayName("Should not upload anything when a change leaves the tests as they were")
+    void shouldNotUploadWhenTestsAreUnchanged() throws Exception {
+        // Given
+        Path file = sources.resolve("CalculatorTest.java");
+        Files.writeString(file, SOURCE.replace("1 + 1", "1 + 2"));
+        awaitUpload();
+
+        // When
+        Files.writeString(file, SOURCE.replace("1 + 1", "1 + 2") + "\n// trailing comment\n");
+
+        // Then
+        assertNull(uploads.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should pick up test files in directories created while watching")
+    void shouldPickUpFilesInNewDirectories() throws Exception {
+        // Given
+        Path module = tempDir.resolve("module/src/test/java");
+
+        // When
+        Files.createDirectories(module);
+        Files.writeString(module.resolve("OtherTest.java"),
+                SOURCE.replace("CalculatorTest", "OtherTest"));
+        String upload = awaitUpload();
+
+        // Then
+        assertTrue(upload.contains("OtherTest"), upload);
+    }
+
+    @Test
+    @DisplayName("Should ignore changes in excluded build directories")
+    void shouldIgnoreExcludedDirectories() throws Exception {
+        // When
+        Path target = Files.createDirectories(tempDir.resolve("target/generated"));
+        Files.writeString(target.resolve("GeneratedTest.java"), SOURCE);
+
+        // Then
+        assertNull(uploads.poll(1, TimeUnit.SECONDS));
+    }
+
+    private String awaitUpload() throws InterruptedException {
+        String body = uploads.poll(10, TimeUnit.SECONDS);
+        assertNotNull(body, "No upload within 10 seconds");
+        return body;
+    }
+
+    private static class QueueClient implements TestomatHttpClient {
+        private final BlockingQueue<String> bodies;
+
+        QueueClient(BlockingQueue<String> bodies) {
+            this.bodies = bodies;
+        }
+
+        @Override
+        public String sendGetRequest(String apiKey, String serverUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendPostRequest(String url, String jsonBody) {
+            bodies.add(jsonBody);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.testomat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IoThreadsTest {
+
+    @Test
+    @DisplayName("Should return results in item order while running tasks concurrently")
+    void shouldKeepItemOrder() {
+        // Given
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // When
+        List<String> results = IoThreads.map("test", 4, items, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(50 - item);
+            running.decrementAndGet();
+            return "file" + item;
+        });
+
+        // Then
+        assertEquals(items.stream().map(item -> "file" + item).collect(Collectors.toList()),
+                results);
+        assertTrue(maxRunning.get() <= 4, "ran " + maxRunning.get() + " tasks at once");
+    }
+
+    @Test
+    @DisplayName("Should rethrow the first failing task")
+    void shouldRethrowFailure() {
+        // When
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> IoThreads.map("test", 2, List.of(1, 2, 3), item -> {
+                    if (item == 2) {
+                        throw new IllegalStateException("broken " + item);
+                    }
+                    return item;
+                }));
+
+        // Then
+        assertEquals("broken 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should let only as many thread-per-task tasks run as there are permits")
+    void shouldBoundThreadPerTaskExecutor() throws Exception {
+        // Given
+        ExecutorService executor = IoThreads.bounded(Executors.newCachedThreadPool(), 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            tasks.add(executor.submit(() -> {
+                started.incrementAndGet();
+                release.await();
+                return null;
+            }));
+        }
+        Thread.sleep(200);
+
+        // Then
+        assertEquals(2, started.get());
+        release.countDown();
+        for (Future<?> task : tasks) {
+            task.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(6, started.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
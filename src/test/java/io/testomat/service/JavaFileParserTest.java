@@ -2,6 +2,7 @@ package io.testomat.service;
 
 import com.github.javaparser.ast.CompilationUnit;
 import io.testomat.exception.CliException;
+import io.testomat.exception.SourceFileException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +14,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -254,4 +256,78 @@ class JavaFileParserTest {
         assertEquals("Failed to parse file " + expectedPath, 
                 exception.getMessage().substring(0, ("Failed to parse file " + expectedPath).length()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should skip files over the size limit without parsing them")
+    void shouldSkipFilesOverSizeLimit() throws IOException {
+        // Given
+        Path javaFile = tempDir.resolve("Large.java");
+        Files.write(javaFile, VALID_JAVA_CODE.getBytes(StandardCharsets.UTF_8));
+        JavaFileParser limited = new JavaFileParser(new ParseLimits(16, Duration.ZERO));
+
+        // When
+        SourceFileException exception = assertThrows(SourceFileException.class,
+                () -> limited.parseFile(javaFile.toString()));
+
+        // Then
+        assertEquals(SourceFileException.Reason.TOO_LARGE, exception.getReason());
+        assertTrue(exception.getMessage().contains(javaFile.toString()));
+    }
+
+    @Test
+    @DisplayName("Should give up on files that take longer than the time limit")
+    void shouldGiveUpAfterTimeLimit() throws IOException {
+        // Given
+        Path javaFile = tempDir.resolve("Slow.java");
+        Files.write(javaFile, VALID_JAVA_CODE.getBytes(StandardCharsets.UTF_8));
+        JavaFileParser limited = new JavaFileParser(new ParseLimits(0, Duration.ofNanos(1)));
+
+        // When
+        SourceFileException exception = assertThrows(SourceFileException.class,
+                () -> limited.parseFile(javaFile.toString()));
+
+        // Then
+        assertEquals(SourceFileException.Reason.TIMEOUT, exception.getReason());
+    }
+
+    @Test
+    @DisplayName("Should abandon a large file's parse on a helper thread once the limit is over")
+    void shouldAbandonLargeFileParseAfterTimeout() throws Exception {
+        // Given - large enough to be parsed off the calling thread
+        Path javaFile = tempDir.resolve("Large.java");
+        StringBuilder code = new StringBuilder("class Large {\n");
+        while (code.length() < JavaFileParser.INLINE_PARSE_BYTES * 2) {
+            code.append("    void m").append(code.length()).append("() { int x = 1; }\n");
+        }
+        Files.writeString(javaFile, code.append("}\n").toString());
+        JavaFileParser limited = new JavaFileParser(new ParseLimits(0, Duration.ofNanos(1)));
+
+        // When
+        SourceFileException exception = assertThrows(SourceFileException.class,
+                () -> limited.parseFile(javaFile.toString()));
+
+        // Then - the interrupted worker stops at its next read
+        assertEquals(SourceFileException.Reason.TIMEOUT, exception.getReason());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (JavaFileParser.getAbandonedRunning() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, JavaFileParser.getAbandonedRunning());
+    }
+
+    @Test
+    @DisplayName("Should report files nested too deeply as parse errors")
+    void shouldReportDeeplyNestedFiles() throws IOException {
+        // Given
+        Path javaFile = tempDir.resolve("Deep.java");
+        String expression = "(".repeat(100_000) + "1" + ")".repeat(100_000);
+        Files.writeString(javaFile, "class Deep { int x = " + expression + "; }");
+
+        // When
+        SourceFileException exception = assertThrows(SourceFileException.class,
+                () -> javaFileParser.parseFile(javaFile.toString()));
+
+        // Then
+        assertEquals(SourceFileException.Reason.PARSE_ERROR, exception.getReason());
+    }
+}
@@ -0,0 +1,49 @@
+package io.testomat.service;
+
+import io.testomat.model.SourceModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleDiscoveryTest {
+
+    private final Path root = Paths.get("/repo").toAbsolutePath();
+
+    @Test
+    @DisplayName("Should group files by the innermost module with src/<set>/java roots")
+    void shouldGroupFilesByModule() {
+        // Given
+        List<File> files = List.of(
+                file("src/test/java/RootTest.java"),
+                file("services/billing/src/test/java/com/acme/BillingTest.java"),
+                file("services/billing/src/integrationTest/java/com/acme/BillingIT.java"),
+                file("services/billing/api/src/test/java/com/acme/ApiTest.java"),
+                file("tools/Script.java"));
+
+        // When
+        List<SourceModule> modules = new ModuleDiscovery().discover(root.toFile(), files);
+
+        // Then
+        assertEquals(List.of(".", "services/billing", "services/billing/api"),
+                modules.stream().map(SourceModule::getName).collect(Collectors.toList()));
+        SourceModule billing = modules.get(1);
+        assertEquals(root.resolve("services/billing"), billing.getDirectory());
+        assertEquals(List.of(root.resolve("services/billing/src/integrationTest/java"),
+                root.resolve("services/billing/src/test/java")),
+                List.copyOf(billing.getSourceRoots()));
+        assertEquals(2, billing.getFiles().size());
+        assertEquals(List.of(file("src/test/java/RootTest.java"), file("tools/Script.java")),
+                modules.get(0).getFiles());
+    }
+
+    private File file(String path) {
+        return root.resolve(path).toFile();
+    }
+}
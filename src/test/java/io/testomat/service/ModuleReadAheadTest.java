@@ -0,0 +1,76 @@
+package io.testomat.service;
+
+import io.testomat.model.TestCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleReadAheadTest {
+
+    @Test
+    @DisplayName("Should let later modules parse ahead only up to the limit")
+    void shouldBoundReadAheadOfLaterModules() throws InterruptedException {
+        // Given
+        ModuleReadAhead readAhead = new ModuleReadAhead(2, 2);
+        AtomicInteger added = new AtomicInteger();
+        Thread laterModule = new Thread(() -> {
+            TestExportService.TestSink sink = readAhead.sink(1);
+            for (int i = 0; i < 5; i++) {
+                sink.add(tests("later" + i), "junit");
+                added.incrementAndGet();
+            }
+            readAhead.complete(1, null);
+        });
+
+        // When
+        laterModule.start();
+        laterModule.join(300);
+        int addedBeforeConsumer = added.get();
+        TestExportService.TestSink firstSink = readAhead.sink(0);
+        for (int i = 0; i < 3; i++) {
+            firstSink.add(tests("first" + i), "junit");
+        }
+        readAhead.complete(0, null);
+        List<String> consumed = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            assertNull(readAhead.drain(i, (testCases, framework) ->
+                    testCases.forEach(testCase -> consumed.add(testCase.getName()))));
+        }
+        laterModule.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Then
+        assertEquals(2, addedBeforeConsumer);
+        assertEquals(List.of("first0", "first1", "first2",
+                "later0", "later1", "later2", "later3", "later4"), consumed);
+    }
+
+    @Test
+    @DisplayName("Should report the failure of a module after handing over its tests")
+    void shouldReportModuleFailure() throws InterruptedException {
+        // Given
+        ModuleReadAhead readAhead = new ModuleReadAhead(1, 10);
+        readAhead.sink(0).add(tests("first"), "junit");
+        readAhead.complete(0, new IllegalStateException("broken"));
+        List<String> consumed = new ArrayList<>();
+
+        // When
+        Throwable failure = readAhead.drain(0, (testCases, framework) ->
+                testCases.forEach(testCase -> consumed.add(testCase.getName())));
+
+        // Then
+        assertEquals("broken", failure.getMessage());
+        assertEquals(List.of("first"), consumed);
+    }
+
+    private static List<TestCase> tests(String name) {
+        TestCase testCase = new TestCase();
+        testCase.setName(name);
+        return List.of(testCase);
+    }
+}
@@ -0,0 +1,65 @@
+package io.testomat.service;
+
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserSettingsTest {
+
+    private static final String SOURCE = "class SampleTest {\n"
+            + "    /** @smoke #fast */\n"
+            + "    @org.junit.jupiter.api.Test\n"
+            + "    void shouldWork() {\n"
+            + "        record Point(int x, int y) {}\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    @DisplayName("Should attach comments only when asked to and keep node positions")
+    void shouldAttachCommentsOnlyWhenAsked() {
+        // When
+        MethodDeclaration withComments = method(new ParserSettings(LanguageLevel.JAVA_21, true));
+        MethodDeclaration withoutComments = method(
+                new ParserSettings(LanguageLevel.JAVA_21, false));
+
+        // Then
+        assertTrue(withComments.getComment().isPresent());
+        assertFalse(withoutComments.getComment().isPresent());
+        assertEquals(4, withoutComments.getName().getBegin().orElseThrow().line);
+    }
+
+    @Test
+    @DisplayName("Should reject syntax newer than the configured language level")
+    void shouldRejectSyntaxNewerThanLanguageLevel() {
+        // Given
+        ParserSettings java11 = new ParserSettings(LanguageLevel.JAVA_11, true);
+
+        // Then
+        assertThrows(ParseProblemException.class, () -> java11.parse(new StringReader(SOURCE)));
+        assertNotNull(ParserSettings.DEFAULT.parse(new StringReader(SOURCE)));
+    }
+
+    @Test
+    @DisplayName("Should read language levels as release numbers or names")
+    void shouldParseLanguageLevels() {
+        // Then
+        assertEquals(LanguageLevel.JAVA_17, ParserSettings.parseLanguageLevel("17"));
+        assertEquals(LanguageLevel.JAVA_8, ParserSettings.parseLanguageLevel("1.8"));
+        assertEquals(LanguageLevel.JAVA_21, ParserSettings.parseLanguageLevel("java_21"));
+        assertEquals(LanguageLevel.RAW, ParserSettings.parseLanguageLevel("raw"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ParserSettings.parseLanguageLevel("42"));
+    }
+
+    private static MethodDeclaration method(ParserSettings settings) {
+        CompilationUnit compilationUnit = settings.parse(new StringReader(SOURCE));
+        return compilationUnit.findFirst(MethodDeclaration.class).orElseThrow();
+    }
+}
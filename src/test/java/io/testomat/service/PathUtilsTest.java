@@ -329,4 +329,17 @@ class PathUtilsTest {
         // Then
         assertEquals("com/example/MainClass.java", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should strip the innermost source root of any source set")
+    void shouldStripInnermostSourceRootOfAnySourceSet() {
+        // Given
+        String filepath = "/repo/services/billing/src/integrationTest/java/com/acme/java/BillingIT.java";
+
+        // When
+        String result = PathUtils.extractRelativeFilePath(filepath);
+
+        // Then
+        assertEquals("com/acme/java/BillingIT.java", result);
+    }
+}
@@ -0,0 +1,100 @@
+package io.testomat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should parse i/N and reject shards outside 1..N")
+    void shouldParseShard() {
+        // When
+        Shard shard = Shard.parse("2/4");
+
+        // Then
+        assertEquals(2, shard.getIndex());
+        assertEquals(4, shard.getCount());
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("0/4"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("5/4"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("two"));
+    }
+
+    @Test
+    @DisplayName("Should split files into disjoint shards that are stable across checkouts")
+    void shouldPartitionFilesDisjointly() {
+        // Given
+        List<File> files = files(tempDir.resolve("a"), 200);
+        List<File> sameFilesElsewhere = files(tempDir.resolve("b"), 200);
+
+        // When
+        List<List<File>> shards = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            shards.add(new Shard(i, 4).select(tempDir.resolve("a").toFile(), files));
+        }
+
+        // Then
+        Set<File> covered = new HashSet<>();
+        shards.forEach(shard -> shard.forEach(file -> assertTrue(covered.add(file))));
+        assertEquals(new HashSet<>(files), covered);
+        shards.forEach(shard -> assertTrue(shard.size() > 25, "unbalanced: " + shard.size()));
+        assertEquals(names(shards.get(1)), names(new Shard(2, 4)
+                .select(tempDir.resolve("b").toFile(), sameFilesElsewhere)));
+    }
+
+    @Test
+    @DisplayName("Should verify that shard manifests cover every file exactly once")
+    void shouldVerifyManifests() {
+        // Given
+        File directory = tempDir.toFile();
+        List<File> files = files(tempDir, 30);
+        List<ShardManifest> manifests = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Shard shard = new Shard(i, 3);
+            Path manifest = tempDir.resolve("shard-" + i + ".json");
+            ShardManifest.of(shard, directory, files, shard.select(directory, files), i)
+                    .write(manifest);
+            manifests.add(ShardManifest.read(manifest));
+        }
+        Set<String> expected = ShardManifest.relativePaths(tempDir.toAbsolutePath(), files);
+
+        // When
+        List<String> complete = ShardManifest.verify(manifests, expected);
+        List<String> missingShard = ShardManifest.verify(manifests.subList(0, 2), null);
+        List<String> differentList = ShardManifest.verify(List.of(manifests.get(0),
+                manifests.get(1), ShardManifest.of(new Shard(3, 3), directory,
+                        files.subList(0, 29), List.of(), 0)), null);
+
+        // Then
+        assertEquals(List.of(), complete);
+        assertEquals(List.of("Shard 3/3 is missing"), missingShard);
+        assertTrue(differentList.contains(
+                "Shard 3/3 partitioned a different file list than shard 1/3"),
+                differentList.toString());
+    }
+
+    private static List<File> files(Path root, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> root.resolve("module" + (i % 7) + "/src/test/java/Case" + i
+                        + "Test.java").toFile())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<File> files) {
+        return files.stream().map(File::getName).collect(Collectors.toList());
+    }
+}
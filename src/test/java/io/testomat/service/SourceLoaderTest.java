@@ -0,0 +1,104 @@
+package io.testomat.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should read pooled and large files to the same text")
+    void shouldReadSmallAndLargeFiles() throws IOException {
+        // Given
+        String line = "// ünïcödé comment with a €\n";
+        String large = line.repeat(1024 * 1024 / line.length() + 1);
+        Path smallFile = tempDir.resolve("Small.java");
+        Path largeFile = tempDir.resolve("Large.java");
+        Files.writeString(smallFile, line);
+        Files.writeString(largeFile, large);
+
+        // When
+        SourceText small = SourceLoader.load(smallFile);
+        SourceText read = SourceLoader.load(largeFile);
+
+        // Then
+        assertEquals(line, small.getText());
+        assertEquals(large, read.getText());
+        assertEquals(Files.size(largeFile), read.getSize());
+        assertTrue(small.isLossless());
+        assertFalse(SourceLoader.load(Files.write(tempDir.resolve("Bad.java"),
+                new byte[] {(byte) 0xC3, (byte) 0x28})).isLossless());
+    }
+
+    @Test
+    @DisplayName("Should split lines like Files.readAllLines")
+    void shouldSplitLinesLikeReadAllLines() throws IOException {
+        // Given
+        Path file = tempDir.resolve("Lines.java");
+        Files.writeString(file, "a\r\nb\rc\n\nd\n");
+
+        // When
+        SourceText source = SourceLoader.load(file);
+
+        // Then
+        assertEquals(Files.readAllLines(file, StandardCharsets.UTF_8), source.lines());
+    }
+
+    @Test
+    @DisplayName("Should rewrite from the parsed text only while the file is unchanged")
+    void shouldRewriteFromParsedTextWhileUnchanged() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        Files.writeString(file, "class SampleTest {\n    @org.junit.jupiter.api.Test\n"
+                + "    void shouldWork() {\n    }\n}\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+        CompilationUnit compilationUnit = new JavaFileParser().parseFile(file.toString());
+        SourceText source = SourceText.of(compilationUnit).orElseThrow();
+
+        // When
+        boolean currentBefore = source.isCurrent();
+        Files.writeString(file, Files.readString(file) + "// changed\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        MinimalFileModificationService.FileModification modification =
+                new MinimalFileModificationService.FileModification(compilationUnit);
+        modification.addMethodAnnotation(compilationUnit.findFirst(MethodDeclaration.class)
+                .orElseThrow(), "@T12345678");
+        new MinimalFileModificationService().applyModifications(modification);
+
+        // Then
+        assertTrue(currentBefore);
+        assertFalse(source.isCurrent());
+        String rewritten = Files.readString(file);
+        assertTrue(rewritten.contains("// changed"), rewritten);
+        assertTrue(rewritten.contains("@TestId(\"12345678\")"), rewritten);
+    }
+
+    @Test
+    @DisplayName("Should not trust text read right after the file was modified")
+    void shouldNotTrustTextOfRecentlyModifiedFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        Files.writeString(file, "class SampleTest {\n}\n");
+
+        // When
+        SourceText source = SourceLoader.load(file);
+
+        // Then
+        assertFalse(source.isSettled());
+        assertFalse(source.isCurrent());
+    }
+}
@@ -0,0 +1,129 @@
+package io.testomat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourcePathFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should match globs relative to the scanned directory")
+    void shouldMatchGlobs() {
+        // Given
+        SourcePathFilter filter = SourcePathFilter.of(List.of("src/test/**"),
+                List.of("generated", "**/legacy/*Old*.java"), false);
+        SourcePathFilter.Scope scope = filter.scope(tempDir);
+
+        // Then
+        assertTrue(scope.isIncludedFile(tempDir.resolve("src/test/java/a/CalcTest.java")));
+        assertFalse(scope.isIncludedFile(tempDir.resolve("src/main/java/a/Calc.java")));
+        assertFalse(scope.isIncludedFile(
+                tempDir.resolve("src/test/java/legacy/OldCalcTest.java")));
+        assertTrue(scope.isExcludedDirectory(tempDir.resolve("src/test/java/generated")));
+        assertTrue(scope.isExcludedDirectory(tempDir.resolve("docs")));
+        assertFalse(scope.isExcludedDirectory(tempDir.resolve("src")));
+        assertFalse(scope.isExcludedDirectory(tempDir.resolve("src/test/java")));
+    }
+
+    @Test
+    @DisplayName("Should translate shell glob syntax into regular expressions")
+    void shouldTranslateGlobSyntax() {
+        // Then
+        assertTrue("a/b/C.java".matches(SourcePathFilter.globToRegex("**/*.java", false)));
+        assertTrue("C.java".matches(SourcePathFilter.globToRegex("**/*.java", false)));
+        assertFalse("a/C.java".matches(SourcePathFilter.globToRegex("*.java", false)));
+        assertTrue("it/X.java".matches(SourcePathFilter.globToRegex("{it,e2e}/?.java", false)));
+        assertTrue("v2/X.java".matches(SourcePathFilter.globToRegex("v[0-9]/X.java", false)));
+        assertFalse("v/X.java".matches(SourcePathFilter.globToRegex("v[!0-9]/X.java", false)));
+        assertTrue("vendor".matches(SourcePathFilter.globToRegex("vendor/**", true)));
+        assertFalse("vendor".matches(SourcePathFilter.globToRegex("vendor/**", false)));
+    }
+
+    @Test
+    @DisplayName("Should prune ignored directories and honour negated .gitignore rules")
+    void shouldHonourGitignore() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve(".git"));
+        Files.writeString(tempDir.resolve(".gitignore"),
+                "# generated sources\n/generated/\n*Draft*.java\n!KeepDraftTest.java\n");
+        write("generated/GeneratedTest.java");
+        write("src/test/java/CalcTest.java");
+        write("src/test/java/CalcDraftTest.java");
+        write("src/test/java/KeepDraftTest.java");
+        write("src/test/java/nested/generated/NestedTest.java");
+        Files.writeString(tempDir.resolve("src/test/java/nested/.gitignore"), "*.java\n");
+        write("src/test/java/nested/IgnoredTest.java");
+
+        // When
+        List<String> files = scan(SourcePathFilter.of(Collections.emptyList(),
+                Collections.emptyList(), true));
+
+        // Then
+        assertEquals(List.of("src/test/java/CalcTest.java", "src/test/java/KeepDraftTest.java"),
+                files);
+    }
+
+    @Test
+    @DisplayName("Should read .gitignore files above the scanned directory up to the repository")
+    void shouldReadGitignoreAboveScannedDirectory() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve(".git"));
+        Files.writeString(tempDir.resolve(".gitignore"), "module/src/test/java/skip/\n");
+        write("module/src/test/java/skip/SkippedTest.java");
+        write("module/src/test/java/KeptTest.java");
+        Path module = tempDir.resolve("module");
+
+        // When
+        List<File> files = new TestFileScanner(SourcePathFilter.of(Collections.emptyList(),
+                Collections.emptyList(), true)).findTestFiles(module.toFile());
+
+        // Then
+        assertEquals(List.of("KeptTest.java"), files.stream().map(File::getName)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Should apply the filter to explicit file lists as well")
+    void shouldFilterExplicitFiles() throws IOException {
+        // Given
+        Path root = tempDir.toRealPath();
+        Path kept = write("src/test/java/CalcTest.java").toRealPath();
+        Path excluded = write("src/test/java/legacy/OldTest.java").toRealPath();
+        TestFileScanner scanner = new TestFileScanner(SourcePathFilter.of(
+                Collections.emptyList(), List.of("legacy"), false));
+
+        // When
+        List<File> files = scanner.filterSourceFiles(root.toFile(), List.of(kept, excluded));
+
+        // Then
+        assertEquals(List.of(kept.toFile()), files);
+    }
+
+    private List<String> scan(SourcePathFilter filter) {
+        return new TestFileScanner(filter).findTestFiles(tempDir.toFile()).stream()
+                .map(file -> tempDir.relativize(file.toPath()).toString().replace('\\', '/'))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private Path write(String path) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class " + file.getFileName().toString().replace(".java", "")
+                + " {}\n");
+        return file;
+    }
+}
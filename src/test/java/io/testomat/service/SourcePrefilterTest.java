@@ -0,0 +1,88 @@
+package io.testomat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourcePrefilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SourcePrefilter prefilter = new SourcePrefilter();
+
+    @Test
+    @DisplayName("Should keep files with test annotations and drop plain sources")
+    void shouldKeepFilesWithTestAnnotations() throws IOException {
+        // Given
+        File junit = write("UserTest.java", "class UserTest {\n  @Test\n  void a() {}\n}");
+        File parameterized = write("CalcTest.java",
+                "class CalcTest {\n  @ParameterizedTest\n  void a(int x) {}\n}");
+        File qualified = write("QualifiedTest.java",
+                "class QualifiedTest {\n  @org.testng.annotations.Test\n  void a() {}\n}");
+        File helper = write("TestHelper.java",
+                "class TestHelper {\n  @Override\n  public String toString() { return \"\"; }\n}");
+        File testUtils = write("TestUtils.java", "class TestUtils { @Tested Object o; }");
+
+        // When & Then
+        assertTrue(prefilter.mayContainTests(junit));
+        assertTrue(prefilter.mayContainTests(parameterized));
+        assertTrue(prefilter.mayContainTests(qualified));
+        assertFalse(prefilter.mayContainTests(helper));
+        assertFalse(prefilter.mayContainTests(testUtils));
+    }
+
+    @Test
+    @DisplayName("Should keep unreadable files so the parser reports them")
+    void shouldKeepUnreadableFiles() throws IOException {
+        // Given
+        Path invalidUtf8 = tempDir.resolve("Broken.java");
+        Files.write(invalidUtf8, new byte[] {(byte) 0xC3, (byte) 0x28});
+
+        // When & Then
+        assertTrue(prefilter.mayContainTests(invalidUtf8.toFile()));
+        assertTrue(prefilter.mayContainTests(tempDir.resolve("Missing.java").toFile()));
+    }
+
+    @Test
+    @DisplayName("Should only keep files that contain TestId")
+    void shouldOnlyKeepFilesContainingTestId() throws IOException {
+        // Given
+        File annotated = write("ATest.java", "class ATest {\n  @TestId(\"abc\")\n  void a() {}\n}");
+        File plain = write("BTest.java", "class BTest {\n  @Test\n  void a() {}\n}");
+
+        // When & Then
+        assertTrue(prefilter.mayContainTestIds(annotated));
+        assertFalse(prefilter.mayContainTestIds(plain));
+    }
+
+    @Test
+    @DisplayName("Should keep files referenced by server test keys")
+    void shouldKeepFilesReferencedByServerKeys() {
+        // Given
+        Path referenced = tempDir.resolve("src/test/java/com/example/UserTest.java");
+        Path other = tempDir.resolve("src/test/java/com/example/OrderTest.java");
+        List<String> keys = List.of("com/example/UserTest.java#UserTest#shouldWork",
+                "invalid-key");
+
+        // When
+        List<Path> result = prefilter.filterReferencedFiles(List.of(referenced, other), keys);
+
+        // Then
+        assertEquals(List.of(referenced), result);
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+}
@@ -0,0 +1,118 @@
+package io.testomat.service;
+
+import io.testomat.client.TestomatHttpClient;
+import io.testomat.exception.SourceFileException;
+import io.testomat.model.SourceModule;
+import io.testomat.progressbar.ProgressMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestExportServiceTest {
+
+    private static final String SOURCE = "package com.example;\n\n"
+            + "import org.junit.jupiter.api.Test;\n\n"
+            + "class %s {\n"
+            + "    @Test\n"
+            + "    void shouldWork() {\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        ProgressMode.configure(ProgressMode.AUTO);
+    }
+
+    @Test
+    @DisplayName("Should keep exporting other files and modules while collecting broken files")
+    void shouldCollectBrokenFilesAndKeepGoing() throws IOException {
+        // Given
+        ProgressMode.configure(ProgressMode.NONE);
+        SourceModule healthy = module("healthy", "HealthyTest", SOURCE);
+        SourceModule other = module("other", "OtherTest", SOURCE);
+        SourceModule broken = module("broken", "BrokenTest",
+                "import org.junit.jupiter.api.Test;\nclass BrokenTest { @Test void x( }\n");
+        List<String> uploads = Collections.synchronizedList(new ArrayList<>());
+        TestExportService service = new TestExportService(new RecordingClient(uploads), 1);
+
+        // When
+        int exported = service.processModules(List.of(broken, healthy, other), 2, "tstmt_key",
+                "http://localhost", false, true, false, null);
+
+        // Then
+        assertEquals(2, exported);
+        assertEquals(1, uploads.size());
+        assertTrue(uploads.get(0).contains("HealthyTest"), uploads.get(0));
+        assertTrue(uploads.get(0).contains("OtherTest"), uploads.get(0));
+        List<SkippedFilesReport.Entry> skipped = service.getSkippedFiles().getEntries();
+        assertEquals(1, skipped.size());
+        assertEquals(SourceFileException.Reason.PARSE_ERROR, skipped.get(0).getReason());
+        assertTrue(skipped.get(0).getFile().endsWith("BrokenTest.java"));
+    }
+
+    @Test
+    @DisplayName("Should skip files over the size limit and write them to the error report")
+    void shouldReportFilesOverSizeLimit() throws IOException {
+        // Given
+        ProgressMode.configure(ProgressMode.NONE);
+        SourceModule module = module("large", "LargeTest", SOURCE + "//" + "x".repeat(2048));
+        TestExportService service = new TestExportService(new RecordingClient(
+                new ArrayList<>()), 1, new ParseLimits(1024, Duration.ZERO));
+        Path report = tempDir.resolve("reports/skipped.json");
+
+        // When
+        int exported = service.processTestFilesWithProgress(module.getFiles(), "tstmt_key",
+                "http://localhost", true, false, null, false);
+        service.getSkippedFiles().writeJson(report);
+
+        // Then
+        assertEquals(0, exported);
+        assertEquals("Skipped 1 files: 1 too-large", service.getSkippedFiles().summary());
+        String json = Files.readString(report);
+        assertTrue(json.contains("\"reason\" : \"too-large\""), json);
+        assertTrue(json.contains("LargeTest.java"), json);
+    }
+
+    private SourceModule module(String name, String className, String source)
+            throws IOException {
+        Path sourceRoot = tempDir.resolve(name).resolve("src/test/java");
+        Path file = sourceRoot.resolve("com/example/" + className + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, String.format(source, className));
+        SourceModule module = new SourceModule(name, tempDir.resolve(name));
+        module.addFile(sourceRoot, file.toFile());
+        return module;
+    }
+
+    private static class RecordingClient implements TestomatHttpClient {
+        private final List<String> bodies;
+
+        RecordingClient(List<String> bodies) {
+            this.bodies = bodies;
+        }
+
+        @Override
+        public String sendGetRequest(String apiKey, String serverUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendPostRequest(String url, String jsonBody) {
+            bodies.add(jsonBody);
+        }
+    }
+}
@@ -459,6 +459,27 @@ class TestMethodExtractorTest {
         assertTrue(regressionTest.getLabels().contains("regression"));
     }
 
+    @Test
+    @DisplayName("Should share equal suite and label lists and file paths between test cases")
+    void shouldShareRepeatedValuesBetweenTestCases() {
+        // Given
+        String filepath = "src/test/java/com/example/testng/TestNGSample.java";
+
+        // When
+        List<TestCase> first = testMethodExtractor.extractTestCases(
+                parseCode(TESTNG_TEST_CLASS), filepath, "testng");
+        List<TestCase> second = testMethodExtractor.extractTestCases(
+                parseCode(TESTNG_TEST_CLASS), filepath, "testng");
+
+        // Then
+        assertSame(first.get(0).getSuites(), first.get(1).getSuites());
+        assertSame(first.get(0).getFile(), first.get(1).getFile());
+        assertSame(first.get(0).getLabels(), second.get(0).getLabels());
+        assertSame(first.get(0).getSuites().get(0), second.get(0).getSuites().get(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.get(0).getLabels().add("changed"));
+    }
+
     // Helper methods
     
     private CompilationUnit parseCode(String code) {
@@ -0,0 +1,176 @@
+package io.testomat.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmStateTest {
+
+    private static final String SOURCE = "class SampleTest {\n"
+            + "    @org.junit.jupiter.api.Test\n"
+            + "    void shouldWork() {\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        WarmState.enable(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WarmState.disable();
+    }
+
+    @Test
+    @DisplayName("Should reuse a parsed source until the file changes")
+    void shouldReuseParsedSourceUntilFileChanges() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        writeSettled(file, SOURCE);
+        JavaFileParser parser = new JavaFileParser();
+
+        // When
+        CompilationUnit first = parser.parseFile(file.toString());
+        CompilationUnit second = parser.parseFile(file.toString());
+        Files.writeString(file, SOURCE.replace("shouldWork", "shouldStillWork"));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        CompilationUnit third = parser.parseFile(file.toString());
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, third);
+        assertTrue(third.toString().contains("shouldStillWork"));
+    }
+
+    @Test
+    @DisplayName("Should not hand out a parsed source after it was modified in memory")
+    void shouldNotReuseSourceModifiedInMemory() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        writeSettled(file, SOURCE);
+        JavaFileParser parser = new JavaFileParser();
+        CompilationUnit first = parser.parseFile(file.toString());
+
+        // When
+        first.findFirst(MethodDeclaration.class).orElseThrow()
+                .addMarkerAnnotation("TestId");
+        CompilationUnit second = parser.parseFile(file.toString());
+
+        // Then
+        assertNotSame(first, second);
+        assertTrue(second.findFirst(MethodDeclaration.class).orElseThrow()
+                .getAnnotationByName("TestId").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not hand a source parsed without comments to a parser that needs them")
+    void shouldNotReuseSourceParsedWithoutComments() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        writeSettled(file, SOURCE);
+        JavaFileParser withoutComments = new JavaFileParser(ParseLimits.DEFAULT,
+                new ParserSettings(ParserSettings.DEFAULT_LANGUAGE_LEVEL, false));
+        JavaFileParser withComments = new JavaFileParser();
+
+        // When
+        CompilationUnit first = withoutComments.parseFile(file.toString());
+        CompilationUnit second = withComments.parseFile(file.toString());
+        CompilationUnit third = withoutComments.parseFile(file.toString());
+
+        // Then
+        assertNotSame(first, second);
+        assertSame(second, third);
+    }
+
+    @Test
+    @DisplayName("Should rescan a directory tree only after one of its directories changed")
+    void shouldRescanOnlyAfterDirectoryChanged() throws IOException {
+        // Given
+        Path sources = Files.createDirectories(tempDir.resolve("src/test/java"));
+        Files.writeString(sources.resolve("SampleTest.java"), SOURCE);
+        FileTime past = FileTime.from(Instant.now().minusSeconds(60));
+        for (Path directory : List.of(tempDir, tempDir.resolve("src"),
+                tempDir.resolve("src/test"), sources)) {
+            Files.setLastModifiedTime(directory, past);
+        }
+        TestFileScanner scanner = new TestFileScanner();
+
+        // When
+        List<File> first = scanner.findTestFiles(tempDir.toFile());
+        List<File> second = scanner.findTestFiles(tempDir.toFile());
+        Files.writeString(sources.resolve("OtherTest.java"), SOURCE);
+        List<File> third = scanner.findTestFiles(tempDir.toFile());
+
+        // Then
+        assertEquals(1, first.size());
+        assertEquals(first, second);
+        assertEquals(2, third.size());
+    }
+
+    @Test
+    @DisplayName("Should parse an unchanged server response only once")
+    void shouldParseUnchangedResponseOnlyOnce() {
+        // Given
+        AtomicInteger parses = new AtomicInteger();
+        Map<String, String> parsed = new HashMap<>();
+        parsed.put("A.java#A#test", "@T1");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            WarmState.get().testsMap("key", "{}", response -> {
+                parses.incrementAndGet();
+                return parsed;
+            });
+        }
+        Map<String, String> changed = WarmState.get().testsMap("key", "{ }", response -> {
+            parses.incrementAndGet();
+            return new HashMap<>();
+        });
+
+        // Then
+        assertEquals(2, parses.get());
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not cache a source read right after it was modified")
+    void shouldNotCacheRecentlyModifiedSource() throws IOException {
+        // Given
+        Path file = tempDir.resolve("SampleTest.java");
+        Files.writeString(file, SOURCE);
+        JavaFileParser parser = new JavaFileParser();
+
+        // When
+        CompilationUnit first = parser.parseFile(file.toString());
+        CompilationUnit second = parser.parseFile(file.toString());
+
+        // Then
+        assertNotSame(first, second);
+    }
+
+    private static void writeSettled(Path file, String content) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+    }
+}
@@ -0,0 +1,100 @@
+package io.testomat.stats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunStatsTest {
+
+    @AfterEach
+    void tearDown() {
+        RunStats.disable();
+    }
+
+    @Test
+    @DisplayName("Should ignore updates while collection is disabled")
+    void shouldIgnoreUpdatesWhileDisabled() {
+        // Given
+        RunStats stats = RunStats.get();
+
+        // When
+        stats.phase(Phase.PARSE).increment(PhaseStats.FILES);
+        try (Timer ignored = stats.time(Phase.PARSE)) {
+            stats.phase(Phase.PARSE).recordLatency(5);
+        }
+
+        // Then
+        assertFalse(stats.isEnabled());
+        assertTrue(stats.getPhases().isEmpty());
+        assertEquals(0, stats.phase(Phase.PARSE).getCounter(PhaseStats.FILES));
+    }
+
+    @Test
+    @DisplayName("Should count concurrent updates and compute latency percentiles")
+    void shouldCountConcurrentUpdatesAndComputePercentiles() throws InterruptedException {
+        // Given
+        RunStats stats = RunStats.enable("import");
+        PhaseStats upload = stats.phase(Phase.UPLOAD);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int i = 1; i <= 100; i++) {
+            long latency = i * 1_000_000L;
+            executor.submit(() -> {
+                upload.increment(PhaseStats.REQUESTS);
+                upload.recordLatency(latency);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(100, upload.getCounter(PhaseStats.REQUESTS));
+        assertEquals(50_000_000L, upload.latencyPercentileNanos(50));
+        assertEquals(95_000_000L, upload.latencyPercentileNanos(95));
+        assertEquals(100_000_000L, upload.latencyPercentileNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should report phases in pipeline order as text and JSON")
+    void shouldReportPhasesInPipelineOrder() {
+        // Given
+        RunStats stats = RunStats.enable("pull-ids");
+        stats.phase(Phase.WRITE).add(PhaseStats.FILES, 3);
+        stats.phase(Phase.SCAN).add(PhaseStats.DIRS, 2);
+        stats.phase(Phase.SCAN).add(PhaseStats.FILES, 10);
+        stats.phase(Phase.SCAN).addNanos(20_000_000L);
+        stats.phase(Phase.FETCH).recordLatency(7_000_000L);
+        StatsReport report = new StatsReport();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        report.print(stats, new PrintStream(out, true, StandardCharsets.UTF_8));
+        JsonNode json = report.toJson(stats);
+
+        // Then
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Stats for pull-ids"));
+        assertTrue(text.indexOf("scan") < text.indexOf("fetch"));
+        assertTrue(text.indexOf("fetch") < text.indexOf("write"));
+        assertTrue(text.contains("dirs=2 files=10 (500 files/s)"));
+        assertTrue(text.contains("heap peak"));
+
+        assertEquals("pull-ids", json.path("command").asText());
+        assertEquals(10, json.path("phases").path("scan").path("files").asLong());
+        assertEquals(500.0, json.path("phases").path("scan").path("filesPerSecond").asDouble());
+        assertEquals(7, json.path("phases").path("fetch").path("latencyMs").path("p95").asLong());
+        assertTrue(json.has("gcTimeMs"));
+        assertTrue(json.path("peakHeapBytes").asLong() > 0);
+    }
+}
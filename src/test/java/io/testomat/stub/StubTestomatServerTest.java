@@ -0,0 +1,120 @@
+package io.testomat.stub;
+
+import io.testomat.client.CliClient;
+import io.testomat.client.RetryPolicy;
+import io.testomat.client.TestDataCache;
+import io.testomat.client.TokenBucket;
+import io.testomat.exception.CliException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubTestomatServerTest {
+
+    private static final String API_KEY = "tstmt_stub";
+    private static final String LOAD_BODY = "{\"framework\":\"junit\",\"tests\":["
+            + "{\"name\":\"shouldWork\",\"suites\":[\"OuterTest\",\"InnerTest\"],"
+            + "\"file\":\"com/example/OuterTest.java\"},"
+            + "{\"name\":\"shouldKeepId @Tabcd1234\",\"suites\":[\"OuterTest\"],"
+            + "\"file\":\"com/example/OuterTest.java\"}]}";
+
+    @TempDir
+    Path tempDir;
+
+    private StubTestomatServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should assign IDs to loaded tests and keep existing ones")
+    void shouldAssignIdsToLoadedTestsAndKeepExistingOnes() throws IOException {
+        // Given
+        server = startServer(0, 0);
+        CliClient client = new CliClient(null, fastPolicy());
+
+        // When
+        client.sendPostRequest(server.getUrl() + "/api/load?api_key=" + API_KEY, LOAD_BODY);
+        String testData = client.sendGetRequest(API_KEY, server.getUrl());
+
+        // Then
+        assertEquals(2, server.getRegistry().size());
+        assertTrue(testData.contains("\"com/example/OuterTest.java#InnerTest#shouldWork\":\"@T"));
+        assertTrue(testData.contains(
+                "\"com/example/OuterTest.java#OuterTest#shouldKeepId\":\"@Tabcd1234\""));
+    }
+
+    @Test
+    @DisplayName("Should answer conditional test data requests with 304 until tests change")
+    void shouldAnswerConditionalRequestsWith304UntilTestsChange() throws IOException {
+        // Given
+        server = startServer(0, 0);
+        CliClient client = new CliClient(new TestDataCache(tempDir), fastPolicy());
+        client.sendPostRequest(server.getUrl() + "/api/load?api_key=" + API_KEY, LOAD_BODY);
+
+        // When
+        client.sendGetRequest(API_KEY, server.getUrl());
+        client.sendGetRequest(API_KEY, server.getUrl());
+        boolean unchanged = client.isLastResponseNotModified();
+        client.sendPostRequest(server.getUrl() + "/api/load?api_key=" + API_KEY,
+                LOAD_BODY.replace("shouldWork", "shouldAlsoWork"));
+        client.sendGetRequest(API_KEY, server.getUrl());
+
+        // Then
+        assertTrue(unchanged);
+        assertFalse(client.isLastResponseNotModified());
+    }
+
+    @Test
+    @DisplayName("Should inject errors that the client retries")
+    void shouldInjectErrorsThatTheClientRetries() throws IOException {
+        // Given
+        server = startServer(0.5, 0);
+        CliClient client = new CliClient(null, new RetryPolicy(20, Duration.ofMillis(1),
+                Duration.ofMillis(2), new TokenBucket(1000, 1000)));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            client.sendPostRequest(server.getUrl() + "/api/load?api_key=" + API_KEY, LOAD_BODY);
+        }
+
+        // Then
+        assertEquals(10, server.getLoadRequests());
+        assertTrue(server.getRejectedRequests() > 0);
+    }
+
+    @Test
+    @DisplayName("Should reject requests without API key")
+    void shouldRejectRequestsWithoutApiKey() throws IOException {
+        // Given
+        server = startServer(0, 0);
+        CliClient client = new CliClient(null, fastPolicy());
+
+        // When & Then
+        assertThrows(CliException.class,
+                () -> client.sendPostRequest(server.getUrl() + "/api/load", LOAD_BODY));
+    }
+
+    private StubTestomatServer startServer(double errorRate, int maxInFlight) throws IOException {
+        StubTestomatServer stub = new StubTestomatServer(0, Duration.ZERO, errorRate,
+                maxInFlight, 7);
+        stub.start();
+        return stub;
+    }
+
+    private RetryPolicy fastPolicy() {
+        return new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5),
+                new TokenBucket(100, 100));
+    }
+}
@@ -0,0 +1,31 @@
+package io.testomat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingTest {
+
+    @Test
+    @DisplayName("Should encode SHA-256 as lowercase hex")
+    void shouldEncodeSha256AsHex() {
+        // When
+        String hash = Hashing.sha256Hex("abc");
+
+        // Then
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash);
+    }
+
+    @Test
+    @DisplayName("Should hash lines as if each ended with a newline")
+    void shouldHashLinesWithNewlines() {
+        // When
+        String hash = Hashing.sha256Hex(List.of("src/ATest.java", "src/BTest.java"));
+
+        // Then
+        assertEquals(Hashing.sha256Hex("src/ATest.java\nsrc/BTest.java\n"), hash);
+    }
+}